@@ -25,6 +25,7 @@
 
 package com.ca.devtest.jenkins.plugin;
 
+import com.ca.devtest.jenkins.plugin.config.HttpClientSettings;
 import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
 import com.ca.devtest.jenkins.plugin.constants.ConfigProperties;
@@ -35,6 +36,7 @@ import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import hudson.Extension;
 import hudson.Util;
+import hudson.init.Terminator;
 import hudson.model.Job;
 import hudson.model.JobProperty;
 import hudson.model.JobPropertyDescriptor;
@@ -83,6 +85,14 @@ public class DevTestPluginConfiguration extends JobProperty<Job<?, ?>> {
 		return (DevTestPluginDescriptor) Jenkins.getInstance().getDescriptor(getClass());
 	}
 
+	/**
+	 * Closes pooled http connections to Registry when Jenkins is shutting down.
+	 */
+	@Terminator
+	public static void shutdownHttpClients() {
+		RestClient.shutdown();
+	}
+
 	@Extension
 	public static final class DevTestPluginDescriptor extends JobPropertyDescriptor {
 
@@ -93,6 +103,13 @@ public class DevTestPluginConfiguration extends JobProperty<Job<?, ?>> {
 		private boolean secured = false;
 		private String tokenCredentialId;
 		private boolean trustAnySSLCertificate = false;
+		private int maxConnectionsPerRoute = HttpClientSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+		private int maxConnectionsTotal = HttpClientSettings.DEFAULT_MAX_CONNECTIONS_TOTAL;
+		private int idleConnectionTimeout = HttpClientSettings.DEFAULT_IDLE_CONNECTION_TIMEOUT;
+		private int keepAliveTimeout = HttpClientSettings.DEFAULT_KEEP_ALIVE_TIMEOUT;
+		private int connectTimeout = HttpClientSettings.DEFAULT_CONNECT_TIMEOUT;
+		private int readTimeout = HttpClientSettings.DEFAULT_READ_TIMEOUT;
+		private int connectionRequestTimeout = HttpClientSettings.DEFAULT_CONNECTION_REQUEST_TIMEOUT;
 
 		/**
 		 * Constructor.
@@ -100,6 +117,7 @@ public class DevTestPluginConfiguration extends JobProperty<Job<?, ?>> {
 		public DevTestPluginDescriptor() {
 			super(DevTestPluginConfiguration.class);
 			load();
+			RestClient.configure(getHttpClientSettings());
 		}
 
 		/**
@@ -123,6 +141,20 @@ public class DevTestPluginConfiguration extends JobProperty<Job<?, ?>> {
 			this.tokenCredentialId = formDataJsonObject.getString("tokenCredentialId");
 			this.secured = formDataJsonObject.getBoolean("secured");
 			this.trustAnySSLCertificate = formDataJsonObject.getBoolean("trustAnySSLCertificate");
+			this.maxConnectionsPerRoute = formDataJsonObject.optInt("maxConnectionsPerRoute",
+					HttpClientSettings.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+			this.maxConnectionsTotal = formDataJsonObject.optInt("maxConnectionsTotal",
+					HttpClientSettings.DEFAULT_MAX_CONNECTIONS_TOTAL);
+			this.idleConnectionTimeout = formDataJsonObject.optInt("idleConnectionTimeout",
+					HttpClientSettings.DEFAULT_IDLE_CONNECTION_TIMEOUT);
+			this.keepAliveTimeout = formDataJsonObject.optInt("keepAliveTimeout",
+					HttpClientSettings.DEFAULT_KEEP_ALIVE_TIMEOUT);
+			this.connectTimeout = formDataJsonObject.optInt("connectTimeout",
+					HttpClientSettings.DEFAULT_CONNECT_TIMEOUT);
+			this.readTimeout = formDataJsonObject.optInt("readTimeout",
+					HttpClientSettings.DEFAULT_READ_TIMEOUT);
+			this.connectionRequestTimeout = formDataJsonObject.optInt("connectionRequestTimeout",
+					HttpClientSettings.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
 
 			StandardUsernamePasswordCredentials credentials = Utils
 					.lookupCredentials(null, this.tokenCredentialId);
@@ -135,6 +167,7 @@ public class DevTestPluginConfiguration extends JobProperty<Job<?, ?>> {
 			}
 
 			save();
+			RestClient.configure(getHttpClientSettings());
 			return super.configure(req, formData);
 		}
 
@@ -244,6 +277,44 @@ public class DevTestPluginConfiguration extends JobProperty<Job<?, ?>> {
 			return trustAnySSLCertificate;
 		}
 
+		public int getMaxConnectionsPerRoute() {
+			return maxConnectionsPerRoute;
+		}
+
+		public int getMaxConnectionsTotal() {
+			return maxConnectionsTotal;
+		}
+
+		public int getIdleConnectionTimeout() {
+			return idleConnectionTimeout;
+		}
+
+		public int getKeepAliveTimeout() {
+			return keepAliveTimeout;
+		}
+
+		public int getConnectTimeout() {
+			return connectTimeout;
+		}
+
+		public int getReadTimeout() {
+			return readTimeout;
+		}
+
+		public int getConnectionRequestTimeout() {
+			return connectionRequestTimeout;
+		}
+
+		/**
+		 * Returns http connection pool settings and default request timeouts from global configuration.
+		 *
+		 * @return settings used by {@link RestClient}
+		 */
+		public HttpClientSettings getHttpClientSettings() {
+			return new HttpClientSettings(maxConnectionsPerRoute, maxConnectionsTotal,
+					idleConnectionTimeout, keepAliveTimeout, connectTimeout, readTimeout, connectionRequestTimeout);
+		}
+
 		/**
 		 * Method used to fill dropdown with credential tokens.
 		 *
@@ -26,6 +26,7 @@
 
 package com.ca.devtest.jenkins.plugin.buildstep;
 
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
 import com.ca.devtest.jenkins.plugin.util.Utils;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import hudson.FilePath;
@@ -37,6 +38,7 @@ import hudson.util.Secret;
 import java.io.IOException;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Parent build step for all specific build steps holding attributes of custom registry.
@@ -53,6 +55,10 @@ public abstract class DefaultBuildStep extends Builder implements SimpleBuildSte
 	private final String tokenCredentialId;
 	private boolean secured;
 	private boolean trustAnySSLCertificate;
+	private int connectTimeout;
+	private int readTimeout;
+	private int connectionRequestTimeout;
+	private int stepTimeout;
 
 	/**
 	 * Constructor.
@@ -113,6 +119,71 @@ public abstract class DefaultBuildStep extends Builder implements SimpleBuildSte
 		return trustAnySSLCertificate;
 	}
 
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Sets connect timeout of requests sent by this step.
+	 *
+	 * @param connectTimeout seconds, 0 means timeout from global configuration
+	 */
+	@DataBoundSetter
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = Math.max(0, connectTimeout);
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Sets read timeout of requests sent by this step.
+	 *
+	 * @param readTimeout seconds, 0 means timeout from global configuration
+	 */
+	@DataBoundSetter
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = Math.max(0, readTimeout);
+	}
+
+	public int getConnectionRequestTimeout() {
+		return connectionRequestTimeout;
+	}
+
+	/**
+	 * Sets how long requests sent by this step wait for free pooled connection.
+	 *
+	 * @param connectionRequestTimeout seconds, 0 means timeout from global configuration
+	 */
+	@DataBoundSetter
+	public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+		this.connectionRequestTimeout = Math.max(0, connectionRequestTimeout);
+	}
+
+	public int getStepTimeout() {
+		return stepTimeout;
+	}
+
+	/**
+	 * Sets max time for all requests of this step together.
+	 *
+	 * @param stepTimeout seconds, 0 means no limit
+	 */
+	@DataBoundSetter
+	public void setStepTimeout(int stepTimeout) {
+		this.stepTimeout = Math.max(0, stepTimeout);
+	}
+
+	/**
+	 * Creates timeouts for single execution of the step, the step timeout starts counting down now.
+	 *
+	 * @return timeouts passed to every request of the step
+	 */
+	protected RequestTimeouts createRequestTimeouts() {
+		return new RequestTimeouts(connectTimeout, readTimeout, connectionRequestTimeout, stepTimeout);
+	}
+
 	protected void updateCredentails(Run<?, ?> run){
 		StandardUsernamePasswordCredentials jenkinsCredentials = Utils
 				.lookupCredentials(run.getParent(), tokenCredentialId);
@@ -0,0 +1,364 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration;
+import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+import com.ca.devtest.jenkins.plugin.config.RestClient;
+import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
+import com.ca.devtest.jenkins.plugin.exception.RequestTimeoutException;
+import com.ca.devtest.jenkins.plugin.util.Utils;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.ParametersAction;
+import hudson.model.Run;
+import hudson.model.StringParameterValue;
+import hudson.model.TaskListener;
+import jenkins.util.Timer;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline step waiting for test/testsuite runs started by {@link DevTestDeployTest} with
+ * waitForCompletion disabled. The status is polled from a timer thread, so no executor is held
+ * while the run is in progress, and polling continues after Jenkins restart.
+ */
+public class DevTestAwaitTestRun extends Step {
+
+	private String runId;
+	private int stepTimeout;
+
+	@DataBoundConstructor
+	public DevTestAwaitTestRun() {
+	}
+
+	public String getRunId() {
+		return runId;
+	}
+
+	/**
+	 * Sets id of the run to wait for.
+	 *
+	 * @param runId id of the test/testsuite run, empty to wait for all runs started in the build
+	 */
+	@DataBoundSetter
+	public void setRunId(String runId) {
+		this.runId = StringUtils.trimToNull(runId);
+	}
+
+	public int getStepTimeout() {
+		return stepTimeout;
+	}
+
+	/**
+	 * Sets max time of waiting for all runs, including download of their reports.
+	 *
+	 * @param stepTimeout seconds, 0 means not limited
+	 */
+	@DataBoundSetter
+	public void setStepTimeout(int stepTimeout) {
+		this.stepTimeout = Math.max(0, stepTimeout);
+	}
+
+	@Override
+	public StepExecution start(StepContext context) throws Exception {
+		return new Execution(context, runId, stepTimeout);
+	}
+
+	/**
+	 * Polls status of pending runs one after another and downloads reports of each finished run.
+	 * Responses are handled on timer thread, never on the I/O thread of http client.
+	 */
+	private static final class Execution extends StepExecution {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String runId;
+		private final int stepTimeout;
+		/**
+		 * Wall clock time when the step timeout expires, so it is kept over Jenkins restart. 0 when not limited.
+		 */
+		private final long deadline;
+		private String currentRunId;
+		private long interval;
+		private String lastState;
+		private String lastStatus;
+
+		private transient volatile boolean stopped;
+		private transient volatile Future<?> task;
+		private transient volatile Future<?> request;
+
+		Execution(StepContext context, String runId, int stepTimeout) {
+			super(context);
+			this.runId = runId;
+			this.stepTimeout = stepTimeout;
+			this.deadline = stepTimeout > 0 ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(stepTimeout) : 0;
+		}
+
+		@Override
+		public boolean start() throws Exception {
+			if (getPendingRun(runId) == null) {
+				throw new AbortException(runId == null ? Messages.DevTestAwaitTestRun_noPendingRun()
+						: Messages.DevTestAwaitTestRun_unknownRun(runId));
+			}
+			startNext();
+			return false;
+		}
+
+		@Override
+		public void stop(@Nonnull Throwable cause) throws Exception {
+			stopped = true;
+			Future<?> currentTask = task;
+			if (currentTask != null) {
+				currentTask.cancel(false);
+			}
+			Future<?> currentRequest = request;
+			if (currentRequest != null) {
+				currentRequest.cancel(true);
+			}
+			getContext().onFailure(cause);
+		}
+
+		@Override
+		public void onResume() {
+			if (currentRunId != null) {
+				schedule(0);
+			}
+		}
+
+		@Override
+		public String getStatus() {
+			return currentRunId == null ? "waiting for test run" : "waiting for test run " + currentRunId
+					+ ", last status: " + lastState;
+		}
+
+		private PendingTestRun getPendingRun(String id) throws IOException, InterruptedException {
+			PendingTestRunsAction action = getContext().get(Run.class).getAction(PendingTestRunsAction.class);
+			return action == null ? null : action.get(id);
+		}
+
+		private void startNext() throws IOException, InterruptedException {
+			PendingTestRun pendingRun = getPendingRun(runId);
+			if (pendingRun == null) {
+				currentRunId = null;
+				getContext().onSuccess(lastStatus);
+				return;
+			}
+			currentRunId = pendingRun.getRunItemId();
+			interval = pendingRun.createPoller().getInitialInterval();
+			lastState = null;
+			getContext().get(TaskListener.class).getLogger().println(Messages.DevTestAwaitTestRun_waiting(currentRunId));
+			schedule(interval);
+		}
+
+		private void schedule(long delay) {
+			task = Timer.get().schedule(this::poll, Math.min(delay, getRemainingMillis()), TimeUnit.MILLISECONDS);
+		}
+
+		private long getRemainingMillis() {
+			return deadline > 0 ? Math.max(0, deadline - System.currentTimeMillis()) : Long.MAX_VALUE;
+		}
+
+		/**
+		 * Creates timeouts of requests, so none of them lasts beyond the step timeout.
+		 */
+		private RequestTimeouts createRequestTimeouts(PendingTestRun pendingRun) {
+			if (deadline <= 0) {
+				return pendingRun.createRequestTimeouts(0);
+			}
+			return pendingRun.createRequestTimeouts((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(getRemainingMillis() + 999)));
+		}
+
+		/**
+		 * Fails the step when its timeout has expired.
+		 *
+		 * @return true if the step was failed
+		 */
+		private boolean failOnTimeout() {
+			if (getRemainingMillis() > 0) {
+				return false;
+			}
+			fail(new RequestTimeoutException(RequestTimeoutException.Kind.DEADLINE,
+					Messages.DevTestPlugin_stepTimeout(stepTimeout)));
+			return true;
+		}
+
+		private void fail(Throwable cause) {
+			if (!stopped) {
+				stopped = true;
+				getContext().onFailure(cause);
+			}
+		}
+
+		private void poll() {
+			if (stopped || failOnTimeout()) {
+				return;
+			}
+			try {
+				PendingTestRun pendingRun = getPendingRun(currentRunId);
+				if (pendingRun == null) {
+					startNext();
+					return;
+				}
+				Run<?, ?> run = getContext().get(Run.class);
+				String[] credentials = getCredentials(pendingRun, run);
+				String checkUrl = getItemUrl(pendingRun) + "/" + currentRunId;
+				CompletableFuture<HttpResponse> response = RestClient.executeGetAsync(checkUrl, credentials[0], credentials[1],
+						pendingRun.isTrustAnySSLCertificate(), null, createRequestTimeouts(pendingRun));
+				request = response;
+				response.whenCompleteAsync((result, error) -> handleResponse(pendingRun, credentials, result, error), Timer.get());
+				if (stopped) {
+					response.cancel(true);
+				}
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+
+		private void handleResponse(PendingTestRun pendingRun, String[] credentials, HttpResponse response, Throwable error) {
+			request = null;
+			if (stopped || failOnTimeout()) {
+				return;
+			}
+			try {
+				TaskListener listener = getContext().get(TaskListener.class);
+				RunStatusPoller poller = pendingRun.createPoller();
+				if (error != null) {
+					// Registry may be restarting, keep polling until timeout
+					listener.getLogger().println(Messages.DevTestAwaitTestRun_pollFailed(currentRunId, error.getMessage()));
+					scheduleOrTimeout(poller, pendingRun, interval, lastState);
+					return;
+				}
+				String body = EntityUtils.toString(response.getEntity());
+				String state = RunStatusPoller.readStatus(body);
+				if (poller.isEndState(state)) {
+					task = Computer.threadPoolForRemoting.submit(() -> finish(pendingRun, credentials, body, state));
+					return;
+				}
+				interval = poller.nextInterval(interval, state, lastState);
+				lastState = state;
+				scheduleOrTimeout(poller, pendingRun, interval, state);
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+
+		private void scheduleOrTimeout(RunStatusPoller poller, PendingTestRun pendingRun, long delay, String state) {
+			long elapsed = System.currentTimeMillis() - pendingRun.getStartTime();
+			if (poller.isTimedOut(elapsed, delay)) {
+				fail(new AbortException(Messages.DevTestDeployTest_pollTimeout(
+						TimeUnit.MILLISECONDS.toSeconds(poller.getTimeout()), state)));
+			} else {
+				schedule(delay);
+			}
+		}
+
+		private void finish(PendingTestRun pendingRun, String[] credentials, String body, String state) {
+			if (stopped || failOnTimeout()) {
+				return;
+			}
+			try {
+				Run<?, ?> run = getContext().get(Run.class);
+				TaskListener listener = getContext().get(TaskListener.class);
+				listener.getLogger().println(Messages.DevTestDeployTest_status(state));
+				run.addAction(new ParametersAction(new StringParameterValue("deployTestResponse", body)));
+				new TestRunReports(pendingRun.getUrlFactory(), credentials[0], credentials[1], pendingRun.isTrustAnySSLCertificate(),
+						pendingRun.getReportDownloadConcurrency(), pendingRun.isCompressReports(), createRequestTimeouts(pendingRun))
+						.downloadAndSetRunResult(state, currentRunId, pendingRun.isTest(), run, listener);
+				if (stopped) {
+					return;
+				}
+				run.getAction(PendingTestRunsAction.class).remove(currentRunId);
+				run.save();
+				lastStatus = state;
+				startNext();
+			} catch (RequestTimeoutException e) {
+				if (!failOnTimeout()) {
+					fail(e);
+				}
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+
+		private static String getItemUrl(PendingTestRun pendingRun) {
+			return pendingRun.getUrlFactory().buildUrl(pendingRun.isTest() ? APIEndpoints.RUN_TEST_URL : APIEndpoints.RUN_SUITE_URL);
+		}
+
+		private static String[] getCredentials(PendingTestRun pendingRun, Run<?, ?> run) {
+			if (!pendingRun.isUseCustomRegistry()) {
+				DevTestPluginConfiguration.DevTestPluginDescriptor configuration = DevTestPluginConfiguration.get();
+				return new String[] {configuration.getUsername(), configuration.getPassword().getPlainText()};
+			}
+			StandardUsernamePasswordCredentials jenkinsCredentials = Utils
+					.lookupCredentials(run.getParent(), pendingRun.getTokenCredentialId());
+			if (jenkinsCredentials == null) {
+				return new String[] {"", ""};
+			}
+			return new String[] {jenkinsCredentials.getUsername(), jenkinsCredentials.getPassword().getPlainText()};
+		}
+	}
+
+	@Extension(optional = true)
+	public static final class DescriptorImpl extends StepDescriptor {
+
+		@Override
+		public Set<? extends Class<?>> getRequiredContext() {
+			return new HashSet<>(Arrays.asList(Run.class, TaskListener.class));
+		}
+
+		@Override
+		public String getFunctionName() {
+			return "svAwaitTestRun";
+		}
+
+		@Nonnull
+		@Override
+		public String getDisplayName() {
+			return Messages.DevTestAwaitTestRun_DescriptorImpl_DisplayName();
+		}
+	}
+}
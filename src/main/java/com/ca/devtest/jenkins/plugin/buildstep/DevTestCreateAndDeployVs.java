@@ -27,10 +27,12 @@ package com.ca.devtest.jenkins.plugin.buildstep;
 
 import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration;
 import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
 import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
 import com.ca.devtest.jenkins.plugin.data.CreateAndDeployVsData;
 import com.ca.devtest.jenkins.plugin.data.DevTestReturnValue;
 import com.ca.devtest.jenkins.plugin.slavecallable.DevTestCreateAndDeployVsCallable;
+import com.ca.devtest.jenkins.plugin.util.ParameterResolver;
 import com.ca.devtest.jenkins.plugin.util.Utils;
 
 import hudson.AbortException;
@@ -168,15 +170,18 @@ public class DevTestCreateAndDeployVs extends DefaultBuildStep {
 			throw new AbortException("Configuration JSON cannot be empty!");
 		}
 
+		RequestTimeouts timeouts = createRequestTimeouts();
+		ParameterResolver parameterResolver = new ParameterResolver(run, listener);
+
 		String currentHost = isUseCustomRegistry() ? super.getHost()
 				: DevTestPluginConfiguration.get().getHost();
 
-		currentHost = Utils.resolveParameter(currentHost, run, listener);
+		currentHost = parameterResolver.resolve(currentHost);
 
 		String currentPort = isUseCustomRegistry() ? super.getPort()
 				: DevTestPluginConfiguration.get().getPort();
 
-		currentPort = Utils.resolveParameter(currentPort, run, listener);
+		currentPort = parameterResolver.resolve(currentPort);
 
 		String currentProtocol;
 		if (isUseCustomRegistry()) {
@@ -191,25 +196,27 @@ public class DevTestCreateAndDeployVs extends DefaultBuildStep {
 		String currentPassword = isUseCustomRegistry() ? super.getPassword().getPlainText()
 				: DevTestPluginConfiguration.get().getPassword().getPlainText();
 
-		String resolvedVseName = Utils.resolveParameter(vseName, run, listener);
+		String resolvedVseName = parameterResolver.resolve(vseName);
 
 		String urlPath = String.format(APIEndpoints.SERVICES, resolvedVseName);
 
-		String resolvedConfig = Utils.resolveParameter(getConfig(), run, listener);
-		String resolvedDeploy = Utils.resolveParameter(getDeploy(), run, listener);
-		String resolvedUndeploy = Utils.resolveParameter(getUndeploy(), run, listener);
-		String resolvedInputFile1Path = Utils.resolveParameter(getInputFile1(), run, listener);
-		String resolvedInputFile2Path = Utils.resolveParameter(getInputFile2(), run, listener);
-		String resolvedActiveConfig = Utils.resolveParameter(getActiveConfig(), run, listener);
-		String resolvedDataFiles = Utils.resolveParameter(getDataFiles(), run, listener);
-		String resolvedSwaggerUrl = Utils.resolveParameter(getSwaggerurl(), run, listener);
-		String resolvedRamlUrl = Utils.resolveParameter(getRamlurl(), run, listener);
-		String resolvedWadlUrl = Utils.resolveParameter(getWadlurl(), run, listener);
+		String resolvedConfig = parameterResolver.resolve(getConfig());
+		String resolvedDeploy = parameterResolver.resolve(getDeploy());
+		String resolvedUndeploy = parameterResolver.resolve(getUndeploy());
+		String resolvedInputFile1Path = parameterResolver.resolve(getInputFile1());
+		String resolvedInputFile2Path = parameterResolver.resolve(getInputFile2());
+		String resolvedActiveConfig = parameterResolver.resolve(getActiveConfig());
+		String resolvedDataFiles = parameterResolver.resolve(getDataFiles());
+		String resolvedSwaggerUrl = parameterResolver.resolve(getSwaggerurl());
+		String resolvedRamlUrl = parameterResolver.resolve(getRamlurl());
+		String resolvedWadlUrl = parameterResolver.resolve(getWadlurl());
 
 		CreateAndDeployVsData createVsdata = new CreateAndDeployVsData(currentHost, currentPort, currentProtocol, trustAnySSLCertificate,
 				currentUsername, currentPassword, resolvedVseName, urlPath, resolvedConfig, Boolean.parseBoolean(resolvedDeploy),
 				Boolean.parseBoolean(resolvedUndeploy), resolvedInputFile1Path, resolvedInputFile2Path, resolvedActiveConfig,
 				resolvedDataFiles, resolvedSwaggerUrl, resolvedRamlUrl, resolvedWadlUrl);
+		createVsdata.setHttpClientSettings(DevTestPluginConfiguration.get().getHttpClientSettings());
+		createVsdata.setRequestTimeouts(timeouts);
 
 			if(launcher != null) {
 				VirtualChannel channel = launcher.getChannel();
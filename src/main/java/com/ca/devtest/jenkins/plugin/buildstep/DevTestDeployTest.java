@@ -27,11 +27,11 @@ package com.ca.devtest.jenkins.plugin.buildstep;
 
 import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration;
 import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
 import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
 import com.ca.devtest.jenkins.plugin.exception.InvalidInputException;
-import com.ca.devtest.jenkins.plugin.postbuild.parser.TestInvokeApiResultParser;
-import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
+import com.ca.devtest.jenkins.plugin.util.ParameterResolver;
 import com.ca.devtest.jenkins.plugin.util.URLFactory;
 import com.ca.devtest.jenkins.plugin.util.Utils;
 import com.google.gson.JsonElement;
@@ -53,15 +53,15 @@ import org.apache.http.util.EntityUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import javax.annotation.Nonnull;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Build step for starting test/testsuite.
@@ -70,8 +70,7 @@ import java.util.List;
  */
 public class DevTestDeployTest extends DefaultBuildStep {
 
-	private final List<String> endStates =
-			Arrays.asList("ENDED", "PASSED", "FAILED", "ABORTED", "FAILED_TO_STAGE");
+	private final List<String> endStates = RunStatusPoller.END_STATES;
 
 	private final String testType;
 	private String marFilePath;
@@ -83,6 +82,14 @@ public class DevTestDeployTest extends DefaultBuildStep {
 
 	private final Boolean test;
 
+	private long pollInitialIntervalMillis = RunStatusPoller.DEFAULT_INITIAL_INTERVAL;
+	private double pollMultiplier = RunStatusPoller.DEFAULT_MULTIPLIER;
+	private long pollMaxIntervalMillis = RunStatusPoller.DEFAULT_MAX_INTERVAL;
+	private long pollTimeout;
+	private Boolean waitForCompletion;
+	private int reportDownloadConcurrency = TestRunReports.DEFAULT_DOWNLOAD_CONCURRENCY;
+	private boolean compressReports;
+
 	/**
 	 * Constructor.
 	 *
@@ -148,6 +155,105 @@ public class DevTestDeployTest extends DefaultBuildStep {
 		return coordinatorServerName;
 	}
 
+	public long getPollInitialIntervalMillis() {
+		return pollInitialIntervalMillis > 0 ? pollInitialIntervalMillis : RunStatusPoller.DEFAULT_INITIAL_INTERVAL;
+	}
+
+	/**
+	 * Sets delay before the first status poll, the delay is reset to this value when status changes.
+	 *
+	 * @param pollInitialIntervalMillis delay in milliseconds
+	 */
+	@DataBoundSetter
+	public void setPollInitialIntervalMillis(long pollInitialIntervalMillis) {
+		this.pollInitialIntervalMillis = pollInitialIntervalMillis;
+	}
+
+	public double getPollMultiplier() {
+		return pollMultiplier >= 1 ? pollMultiplier : RunStatusPoller.DEFAULT_MULTIPLIER;
+	}
+
+	/**
+	 * Sets factor the delay between status polls is multiplied by while status does not change.
+	 *
+	 * @param pollMultiplier backoff multiplier, at least 1
+	 */
+	@DataBoundSetter
+	public void setPollMultiplier(double pollMultiplier) {
+		this.pollMultiplier = Math.max(1, pollMultiplier);
+	}
+
+	public long getPollMaxIntervalMillis() {
+		return pollMaxIntervalMillis > 0 ? pollMaxIntervalMillis : RunStatusPoller.DEFAULT_MAX_INTERVAL;
+	}
+
+	/**
+	 * Sets max delay between two status polls.
+	 *
+	 * @param pollMaxIntervalMillis delay in milliseconds
+	 */
+	@DataBoundSetter
+	public void setPollMaxIntervalMillis(long pollMaxIntervalMillis) {
+		this.pollMaxIntervalMillis = pollMaxIntervalMillis;
+	}
+
+	public long getPollTimeout() {
+		return Math.max(0, pollTimeout);
+	}
+
+	/**
+	 * Sets how long to wait for the test/testsuite run to finish.
+	 *
+	 * @param pollTimeout timeout in seconds, 0 means wait until the run finishes
+	 */
+	@DataBoundSetter
+	public void setPollTimeout(long pollTimeout) {
+		this.pollTimeout = pollTimeout;
+	}
+
+	public int getReportDownloadConcurrency() {
+		return reportDownloadConcurrency > 0 ? reportDownloadConcurrency : TestRunReports.DEFAULT_DOWNLOAD_CONCURRENCY;
+	}
+
+	/**
+	 * Sets how many reports of tests in a suite are downloaded concurrently.
+	 *
+	 * @param reportDownloadConcurrency max number of report requests sent to Registry at once
+	 */
+	@DataBoundSetter
+	public void setReportDownloadConcurrency(int reportDownloadConcurrency) {
+		this.reportDownloadConcurrency = Math.max(1, reportDownloadConcurrency);
+	}
+
+	public boolean isCompressReports() {
+		return compressReports;
+	}
+
+	/**
+	 * Sets if downloaded reports are stored gzipped in the build directory.
+	 *
+	 * @param compressReports true to compress reports
+	 */
+	@DataBoundSetter
+	public void setCompressReports(boolean compressReports) {
+		this.compressReports = compressReports;
+	}
+
+	public boolean isWaitForCompletion() {
+		return waitForCompletion == null || waitForCompletion;
+	}
+
+	/**
+	 * Sets if the step waits for the test/testsuite run to finish. When it does not, the run is
+	 * recorded in the build and its results are collected later by svAwaitTestRun pipeline step.
+	 *
+	 * @param waitForCompletion false to return right after the run was started
+	 */
+	@DataBoundSetter
+	public void setWaitForCompletion(boolean waitForCompletion) {
+		this.waitForCompletion = waitForCompletion;
+	}
+
 	@Override
 	public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace,
 						  @Nonnull Launcher launcher, @Nonnull TaskListener listener)
@@ -161,14 +267,15 @@ public class DevTestDeployTest extends DefaultBuildStep {
 		String currentProtocol = getCurrentProtocol();
 		boolean trustAnySSLCertificate = getTrustAnySSLCertificate();
 
-		FilePath workDir = new FilePath(run.getRootDir());
 		validateRequiredMarFilePath();
-		String resolvedMarFilePath = resolveParameter(marFilePath, run, listener);
-		String resolvedStagingDocRelativePath = Utils.resolveParameter(getStagingDocRelativePath(), run, listener);
-		String resolvedStagingDocFilePath = resolveParameter(getStagingDocFilePath(), run, listener);
-		String resolvedConfigRelativePath = Utils.resolveParameter(getConfigRelativePath(), run, listener);
-		String resolvedConfigFilePath = resolveParameter(getConfigFilePath(), run, listener);
-		String resolvedCoordinatorServerName = Utils.resolveParameter(getCoordinatorServerName(), run, listener);
+		RequestTimeouts timeouts = createRequestTimeouts();
+		ParameterResolver parameterResolver = new ParameterResolver(run, listener);
+		String resolvedMarFilePath = resolveParameter(marFilePath, parameterResolver);
+		String resolvedStagingDocRelativePath = parameterResolver.resolve(getStagingDocRelativePath());
+		String resolvedStagingDocFilePath = resolveParameter(getStagingDocFilePath(), parameterResolver);
+		String resolvedConfigRelativePath = parameterResolver.resolve(getConfigRelativePath());
+		String resolvedConfigFilePath = resolveParameter(getConfigFilePath(), parameterResolver);
+		String resolvedCoordinatorServerName = parameterResolver.resolve(getCoordinatorServerName());
 
 		listener.getLogger().println(Messages.DevTestDeployTest_deploying(resolvedMarFilePath));
 		listener.getLogger().println(Messages.DevTestPlugin_devTestLocation(currentHost, currentPort));
@@ -180,31 +287,48 @@ public class DevTestDeployTest extends DefaultBuildStep {
 		String currentUsername = getCurrentUsername();
 		String currentPassword = getCurrentPassword();
 
-		String runItemId = sendPostRequestAndGetItemId(itemUrl, currentUsername, currentPassword, trustAnySSLCertificate, entity, listener);
+		String runItemId = sendPostRequestAndGetItemId(itemUrl, currentUsername, currentPassword, trustAnySSLCertificate, entity, timeouts, listener);
 		logSuccessMessage(runItemId, listener);
-		String runItemResponseBody = waitForEnd(itemUrl + "/" + runItemId, currentUsername, currentPassword, trustAnySSLCertificate);
+		if (!isWaitForCompletion()) {
+			recordPendingRun(run, runItemId, currentProtocol, currentHost, currentPort, trustAnySSLCertificate);
+			listener.getLogger().println(Messages.DevTestDeployTest_notWaiting(runItemId));
+			return;
+		}
+		String runItemResponseBody = waitForEnd(itemUrl + "/" + runItemId, currentUsername, currentPassword, trustAnySSLCertificate, timeouts, listener);
 		String runItemStatus = parseResponseForStatus(runItemResponseBody);
 		logRunItemStatus(runItemStatus, listener);
 		run.addAction(new ParametersAction(new StringParameterValue("deployTestResponse", runItemResponseBody)));
-		downloadReportsAndSetRunResult(runItemStatus, runItemId, urlFactory, currentUsername, currentPassword, trustAnySSLCertificate, workDir, run, listener);
-
+		new TestRunReports(urlFactory, currentUsername, currentPassword, trustAnySSLCertificate,
+				getReportDownloadConcurrency(), isCompressReports(), timeouts)
+				.downloadAndSetRunResult(runItemStatus, runItemId, isTest(), run, listener);
+
+	}
+
+	private void recordPendingRun(Run<?, ?> run, String runItemId, String currentProtocol, String currentHost,
+			String currentPort, boolean trustAnySSLCertificate) throws IOException {
+		PendingTestRun pendingRun = new PendingTestRun(runItemId, isTest(), currentProtocol, currentHost, currentPort,
+				trustAnySSLCertificate, isUseCustomRegistry(), getTokenCredentialId());
+		pendingRun.setPollSettings(getPollInitialIntervalMillis(), getPollMultiplier(), getPollMaxIntervalMillis(), getPollTimeout());
+		pendingRun.setReportDownloadConcurrency(getReportDownloadConcurrency());
+		pendingRun.setCompressReports(isCompressReports());
+		pendingRun.setRequestTimeouts(getConnectTimeout(), getReadTimeout(), getConnectionRequestTimeout());
+		PendingTestRunsAction action = run.getAction(PendingTestRunsAction.class);
+		if (action == null) {
+			action = new PendingTestRunsAction();
+			run.addAction(action);
+		}
+		action.add(pendingRun);
+		run.save();
 	}
 
 	/**
 	 * periodically is checking the test status until it's something else than running.
 	 */
-	private String waitForEnd(String checkUrl, String currentUsername, String currentPassword, boolean trustAnySSLCertificate)
+	private String waitForEnd(String checkUrl, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, RequestTimeouts timeouts, TaskListener listener)
 			throws IOException, InterruptedException {
-		String body ;
-		String state;
-		do {
-			Thread.sleep(1900);
-			try(CloseableHttpResponse response = RestClient.executeGet(checkUrl, currentUsername, currentPassword, trustAnySSLCertificate, null)){
-				body = EntityUtils.toString(response.getEntity());
-				state = parseResponseForStatus(body);
-			}
-		} while (!this.endStates.contains(state));
-		return body;
+		RunStatusPoller poller = new RunStatusPoller(getPollInitialIntervalMillis(), getPollMultiplier(), getPollMaxIntervalMillis(),
+				TimeUnit.SECONDS.toMillis(getPollTimeout()), endStates);
+		return poller.waitForEnd(checkUrl, currentUsername, currentPassword, trustAnySSLCertificate, listener.getLogger(), timeouts);
 	}
 
 	private HttpEntity createPostEntity(FilePath workspace, TaskListener listener, String marFilePath, String resolvedStagingDocRelativePath, String resolvedStagingDocFilePath, String resolvedConfigRelativePath, String resolvedConfigFilePath, String resolvedCoordinatorServerName) throws IOException, InterruptedException {
@@ -323,52 +447,6 @@ public class DevTestDeployTest extends DefaultBuildStep {
 		return "";
 	}
 
-	private void downloadTestOutput(URLFactory urlFactory, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, FilePath storeDir,
-			String testId) throws IOException, InterruptedException {
-		String reportUrl = urlFactory.buildUrl(String.format(APIEndpoints.REPORT_URL, testId));
-		downloadFile(reportUrl, currentUsername, currentPassword, trustAnySSLCertificate, new FilePath(storeDir, "test.json"));
-
-		String cycleUrl = urlFactory.buildUrl(String.format(APIEndpoints.CYCLE_URL, testId));
-		downloadFile(cycleUrl, currentUsername, currentPassword, trustAnySSLCertificate, new FilePath(storeDir, "cycles.json"));
-	}
-
-	private void downloadSuiteOutput(URLFactory urlFactory, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, FilePath storeDir,
-			String suitId, PrintStream logger) throws IOException, InterruptedException {
-		String suiteUrl = urlFactory.buildUrl(String.format(APIEndpoints.SUITE_REPORT_URL, suitId));
-		FilePath suiteJson = new FilePath(storeDir, "suite.json");
-		downloadFile(suiteUrl, currentUsername, currentPassword, trustAnySSLCertificate, suiteJson);
-
-		//get tests info for suite
-		String testSuitUrl = urlFactory.buildUrl(String.format(APIEndpoints.SUITE_TESTS_REPORT_URL, suitId));
-		FilePath testsSuiteJson = new FilePath(storeDir, "testsSuite.json");
-		downloadFile(testSuitUrl, currentUsername, currentPassword, trustAnySSLCertificate, testsSuiteJson);
-
-		//get ids for all tests in suite and get reports for them
-		TestInvokeApiResultParser parser = new TestInvokeApiResultParser(logger);
-		List<String> testIds = parser.getCasesIdsFromSuite(testsSuiteJson.readToString());
-		downloadTestFiles(suiteUrl, testIds, currentUsername, currentPassword, trustAnySSLCertificate, storeDir);
-	}
-	private void downloadTestFiles(String suiteUrl, List<String> testIds, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, FilePath storeDir)
-			throws IOException, InterruptedException {
-		int i = 1;
-		for (String id : testIds) {
-			downloadFile(suiteUrl + "/tests/" + id, currentUsername, currentPassword, trustAnySSLCertificate,
-					new FilePath(storeDir, "tests/case" + i + "/test.json"));
-			downloadFile(suiteUrl + "/tests/" + id + "/cycles", currentUsername, currentPassword, trustAnySSLCertificate,
-					new FilePath(storeDir, "tests/case" + i + "/cycles.json"));
-			i++;
-		}
-	}
-
-	private void downloadFile(String url, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, FilePath storePath)
-			throws IOException, InterruptedException {
-		try(CloseableHttpResponse response = RestClient.executeGet(url, currentUsername, currentPassword, trustAnySSLCertificate, null)){
-			String body = EntityUtils.toString(response.getEntity());
-			storePath.write(body, "UTF-8");
-		}
-
-	}
-
 	private String getCurrentHost() {
 		return isUseCustomRegistry() ? super.getHost() : DevTestPluginConfiguration.get().getHost();
 	}
@@ -399,16 +477,16 @@ public class DevTestDeployTest extends DefaultBuildStep {
 		return isUseCustomRegistry() ? super.getPassword().getPlainText() : DevTestPluginConfiguration.get().getPassword().getPlainText();
 	}
 
-	private String resolveParameter(String param, Run<?, ?> run, TaskListener listener) throws IOException, InterruptedException {
+	private String resolveParameter(String param, ParameterResolver parameterResolver) {
 		if (StringUtils.isNotEmpty(param)) {
-			List<String> resParamFilePath = Utils.resolveParameters(Collections.singletonList(param), run, listener);
+			List<String> resParamFilePath = parameterResolver.resolveAll(Collections.singletonList(param));
 			return resParamFilePath.get(0);
 		}
 		return null;
 	}
 
-	private String sendPostRequestAndGetItemId(String itemUrl, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, HttpEntity entity, TaskListener listener) throws IOException{
-		try (CloseableHttpResponse response = RestClient.executePost(itemUrl, currentUsername, currentPassword, trustAnySSLCertificate, entity, null)) {
+	private String sendPostRequestAndGetItemId(String itemUrl, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, HttpEntity entity, RequestTimeouts timeouts, TaskListener listener) throws IOException{
+		try (CloseableHttpResponse response = RestClient.executePost(itemUrl, currentUsername, currentPassword, trustAnySSLCertificate, entity, null, timeouts)) {
 			int statusCode = response.getStatusLine().getStatusCode();
 			String responseBody = EntityUtils.toString(response.getEntity());
 			if (statusCode == 200) {
@@ -428,38 +506,4 @@ public class DevTestDeployTest extends DefaultBuildStep {
 		listener.getLogger().println(Messages.DevTestDeployTest_status(runItemStatus));
 	}
 
-	private void downloadReportsAndSetRunResult(String runItemStatus, String runItemId, URLFactory urlFactory, String currentUsername, String currentPassword, boolean trustAnySSLCertificate, FilePath workDir, Run<?, ?> run, TaskListener listener) throws IOException, InterruptedException {
-		if (isTest()) {
-			downloadTestOutput(urlFactory, currentUsername, currentPassword, trustAnySSLCertificate,
-					new FilePath(workDir, "report/" + runItemId + "/tests/case"), runItemId);
-		} else {
-			downloadSuiteOutput(urlFactory, currentUsername, currentPassword, trustAnySSLCertificate,
-					new FilePath(workDir, "report/" + runItemId + "/suites/suite"), runItemId, listener.getLogger());
-		}
-
-		setResultBasedOnStatus(runItemStatus, run, listener);
-
-		printStatusDetails(runItemId, run, listener);
-	}
-
-	private void setResultBasedOnStatus(String runItemStatus, Run<?, ?> run, TaskListener listener) {
-		if (runItemStatus.equalsIgnoreCase("FAILED")) {
-			listener.getLogger().println("Test run result: UNSTABLE");
-			run.setResult(Result.UNSTABLE);
-		} else if (runItemStatus.equalsIgnoreCase("ABORTED") || runItemStatus.equalsIgnoreCase("FAILED_TO_STAGE")) {
-			listener.getLogger().println("Test run result: FAILURE");
-			run.setResult(Result.FAILURE);
-		} else {
-			listener.getLogger().println("Test run result: SUCCESS");
-			run.setResult(Result.SUCCESS);
-		}
-	}
-
-	private void printStatusDetails(String runItemId, Run<?, ?> run, TaskListener listener) {
-		Report report = new TestInvokeApiResultParser(listener.getLogger())
-				.parseStep(run.getRootDir().toString() + "/report/" + runItemId);
-		listener.getLogger().println(Messages.DevTestDeployTest_statusDetails(report.getTotalCount(),
-				report.getSuccessfullTests().size(), report.getFailCount()));
-	}
-
 }
@@ -27,11 +27,19 @@ package com.ca.devtest.jenkins.plugin.buildstep;
 
 import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration;
 import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
 import com.ca.devtest.jenkins.plugin.data.DeployMarData;
 import com.ca.devtest.jenkins.plugin.data.DevTestReturnValue;
 import com.ca.devtest.jenkins.plugin.slavecallable.DevTestDeployVsCallable;
+import com.ca.devtest.jenkins.plugin.util.FileDigestCallable;
+import com.ca.devtest.jenkins.plugin.util.ParameterResolver;
+import com.ca.devtest.jenkins.plugin.util.URLFactory;
 import com.ca.devtest.jenkins.plugin.util.Utils;
+import com.ca.devtest.jenkins.plugin.util.WildcardFilesCallable;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
@@ -43,15 +51,23 @@ import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
 import hudson.util.FormValidation;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Build step for deploying virtual service.
@@ -60,10 +76,14 @@ import java.util.List;
  */
 public class DevTestDeployVs extends DefaultBuildStep {
 
+	private static final Logger LOGGER = Logger.getLogger(DevTestDeployVs.class.getName());
+
 	private List<String> marFilesPaths;
 	private String vseName;
 	//private String urlPath;
 	private String separator;
+	private int maxConcurrency = 1;
+	private boolean skipUnchanged;
 
 	/**
 	 * Constructor.
@@ -102,6 +122,37 @@ public class DevTestDeployVs extends DefaultBuildStep {
 		return vseName;
 	}
 
+	public int getMaxConcurrency() {
+		return Math.max(1, maxConcurrency);
+	}
+
+	/**
+	 * Sets how many MAR files are deployed concurrently. With value 1 MAR files are deployed one by
+	 * one and deployment stops on first failure.
+	 *
+	 * @param maxConcurrency max number of concurrent deployments
+	 */
+	@DataBoundSetter
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
+	public boolean isSkipUnchanged() {
+		return skipUnchanged;
+	}
+
+	/**
+	 * Skips upload of MAR files which were already deployed from Jenkins with the same content and
+	 * whose virtual service still exists on the VSE. Content of the virtual service on the VSE is not
+	 * compared, so changes made outside of Jenkins are not detected. Disabled by default.
+	 *
+	 * @param skipUnchanged if deploy cache should be used
+	 */
+	@DataBoundSetter
+	public void setSkipUnchanged(boolean skipUnchanged) {
+		this.skipUnchanged = skipUnchanged;
+	}
+
 	@Override
 	public void perform(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener)
 			throws InterruptedException, IOException {
@@ -115,15 +166,18 @@ public class DevTestDeployVs extends DefaultBuildStep {
 			throw new AbortException("Paths to MAR files cannot be empty");
 		}
 
+		RequestTimeouts timeouts = createRequestTimeouts();
+		ParameterResolver parameterResolver = new ParameterResolver(run, listener);
+
 		String currentHost = isUseCustomRegistry() ? super.getHost()
 				: DevTestPluginConfiguration.get().getHost();
 
-		currentHost = Utils.resolveParameter(currentHost, run, listener);
+		currentHost = parameterResolver.resolve(currentHost);
 
 		String currentPort = isUseCustomRegistry() ? super.getPort()
 				: DevTestPluginConfiguration.get().getPort();
 
-		currentPort = Utils.resolveParameter(currentPort, run, listener);
+		currentPort = parameterResolver.resolve(currentPort);
 
 		String currentProtocol;
 		if (isUseCustomRegistry()) {
@@ -138,22 +192,58 @@ public class DevTestDeployVs extends DefaultBuildStep {
 		String currentPassword = isUseCustomRegistry() ? super.getPassword().getPlainText()
 				: DevTestPluginConfiguration.get().getPassword().getPlainText();
 
-		String resolvedVseName = Utils.resolveParameter(vseName, run, listener);
+		String resolvedVseName = parameterResolver.resolve(vseName);
 		String urlPath = String.format(APIEndpoints.DEPLOY_MAR, resolvedVseName);
 
-		List<String> resolvedMarFilesPaths = Utils.getFilesMatchingWildcardList(
-				Utils.resolveParameters(marFilesPaths, run, listener), workspace.absolutize().toString());
+		// wildcards are resolved on the node of the workspace
+		List<String> resolvedMarFilesPaths = workspace.act(
+				new WildcardFilesCallable(parameterResolver.resolveAll(marFilesPaths)));
 
 		if (resolvedMarFilesPaths != null && currentHost!=null && currentPort !=null && currentProtocol != null &&
 			currentUsername !=null && currentPassword!=null && resolvedVseName!=null) {
+			URLFactory urlFactory = new URLFactory(currentProtocol, currentHost, currentPort);
+			String registry = urlFactory.buildUrl("");
+			MarDeploymentCache cache = skipUnchanged ? MarDeploymentCache.get() : null;
+			Map<String, String> digests = new HashMap<>();
+			List<String> marFilesToDeploy = new ArrayList<>();
+			for (String marFilePath : resolvedMarFilesPaths) {
+				FilePath marFile = workspace.child(marFilePath);
+				if (cache != null && !Utils.hasUrlScheme(marFilePath) && marFile.exists()) {
+					String digest = marFile.act(new FileDigestCallable());
+					digests.put(marFilePath, digest);
+					String service = cache.getDeployedService(registry, resolvedVseName, digest);
+					if (service != null) {
+						if (isDeployed(urlFactory, resolvedVseName, service, currentUsername, currentPassword,
+								trustAnySSLCertificate, timeouts)) {
+							listener.getLogger().println(Messages.DevTestDeployVs_cacheHit(marFilePath, service, resolvedVseName));
+							continue;
+						}
+						cache.invalidate(registry, resolvedVseName, service);
+					}
+				}
+				marFilesToDeploy.add(marFilePath);
+			}
+			if (marFilesToDeploy.isEmpty() && !resolvedMarFilesPaths.isEmpty()) {
+				listener.getLogger().println(Messages.DevTestDeployVs_allCached());
+				return;
+			}
+
 			DeployMarData deployMarData = new DeployMarData(currentHost, currentPort, currentProtocol, trustAnySSLCertificate,
-					currentUsername, currentPassword, resolvedVseName, resolvedMarFilesPaths, urlPath);
+					currentUsername, currentPassword, resolvedVseName, marFilesToDeploy, urlPath);
+			deployMarData.setHttpClientSettings(DevTestPluginConfiguration.get().getHttpClientSettings());
+			deployMarData.setRequestTimeouts(timeouts);
+			deployMarData.setMaxConcurrency(getMaxConcurrency());
 
 			if ( deployMarData != null && launcher != null) {
 				VirtualChannel channel = launcher.getChannel();
 				if (channel != null) {
 					DevTestReturnValue devTestReturnValue = channel.call(new DevTestDeployVsCallable(workspace, listener, deployMarData));
 					if (devTestReturnValue != null) {
+						if (cache != null) {
+							recordDeployments(cache, registry, resolvedVseName, digests, devTestReturnValue);
+							// invalidated and recorded deployments are saved at once
+							cache.saveChanges();
+						}
 						listener.getLogger().println("Job executed on node - " + devTestReturnValue.getNode());
 						if (devTestReturnValue.isSuccess()) {
 							listener.getLogger().println(devTestReturnValue.getMessage());
@@ -168,6 +258,40 @@ public class DevTestDeployVs extends DefaultBuildStep {
 		throw new AbortException("Internal error while Deploying VS");
 	}
 
+	/**
+	 * Checks that virtual service still exists on VSE, so it is safe to skip upload of its MAR file.
+	 */
+	private static boolean isDeployed(URLFactory urlFactory, String vseName, String service, String username,
+			String password, boolean trustAnySSLCertificate, RequestTimeouts timeouts) {
+		String url = urlFactory.buildUrl(String.format(APIEndpoints.UNDEPLOY_VS, vseName, service));
+		Map<String, String> headers = Collections.singletonMap("Accept", "application/vnd.ca.lisaInvoke.virtualService+json");
+		try (CloseableHttpResponse response = RestClient.executeGet(url, username, password, trustAnySSLCertificate, headers, timeouts)) {
+			// DevTest API returns 200 with empty body for wrong credentials
+			return response.getStatusLine().getStatusCode() == 200
+					&& !EntityUtils.toString(response.getEntity()).isEmpty();
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.FINE, "Failed to check virtual service " + service, e);
+			return false;
+		}
+	}
+
+	private static void recordDeployments(MarDeploymentCache cache, String registry, String vseName,
+			Map<String, String> digests, DevTestReturnValue devTestReturnValue) {
+		for (DevTestReturnValue result : devTestReturnValue.getResults()) {
+			String digest = digests.get(result.getName());
+			if (result.isSuccess() && digest != null && result.getResponseBody() != null) {
+				try {
+					JsonElement name = new JsonParser().parse(result.getResponseBody()).getAsJsonObject().get("name");
+					if (name != null && !name.isJsonNull()) {
+						cache.recordDeployment(registry, vseName, name.getAsString(), digest);
+					}
+				} catch (RuntimeException e) {
+					LOGGER.log(Level.FINE, "Cannot read name of deployed virtual service", e);
+				}
+			}
+		}
+	}
+
 
 
 	// Localization -> Messages generated by maven plugin check target folder
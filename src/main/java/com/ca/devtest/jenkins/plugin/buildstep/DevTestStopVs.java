@@ -27,8 +27,10 @@ package com.ca.devtest.jenkins.plugin.buildstep;
 
 import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration;
 import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
 import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
+import com.ca.devtest.jenkins.plugin.util.ParameterResolver;
 import com.ca.devtest.jenkins.plugin.util.URLFactory;
 import com.ca.devtest.jenkins.plugin.util.Utils;
 import hudson.AbortException;
@@ -41,11 +43,11 @@ import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.util.FormValidation;
 import org.apache.commons.lang.StringUtils;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.util.EntityUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import javax.annotation.Nonnull;
@@ -62,6 +64,7 @@ public class DevTestStopVs extends DefaultBuildStep {
 	private String vseName;
 	private List<String> vsNames;
 	private String separator;
+	private int maxConcurrency = 1;
 
 	/**
 	 * Constructor.
@@ -101,6 +104,20 @@ public class DevTestStopVs extends DefaultBuildStep {
 		return StringUtils.join(vsNames, separator);
 	}
 
+	public int getMaxConcurrency() {
+		return Math.max(1, maxConcurrency);
+	}
+
+	/**
+	 * Sets how many virtual services are processed concurrently.
+	 *
+	 * @param maxConcurrency max number of requests sent to Registry at once
+	 */
+	@DataBoundSetter
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
 	@Override
 	public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace,
 			@Nonnull Launcher launcher, @Nonnull TaskListener listener)
@@ -108,13 +125,16 @@ public class DevTestStopVs extends DefaultBuildStep {
 		Utils.checkRegistryEndpoint(this);
 		this.updateCredentails(run);
 
+		RequestTimeouts timeouts = createRequestTimeouts();
+		ParameterResolver parameterResolver = new ParameterResolver(run, listener);
+
 		String currentHost = isUseCustomRegistry() ? super.getHost()
 				: DevTestPluginConfiguration.get().getHost();
-		currentHost = Utils.resolveParameter(currentHost, run, listener);
+		currentHost = parameterResolver.resolve(currentHost);
 
 		String currentPort = isUseCustomRegistry() ? super.getPort()
 				: DevTestPluginConfiguration.get().getPort();
-		currentPort = Utils.resolveParameter(currentPort, run, listener);
+		currentPort = parameterResolver.resolve(currentPort);
 
 		String currentUsername = isUseCustomRegistry() ? super.getUsername()
 				: DevTestPluginConfiguration.get().getUsername();
@@ -136,39 +156,42 @@ public class DevTestStopVs extends DefaultBuildStep {
 			throw new AbortException(Messages.DevTestPlugin_emptyVsNames());
 		}
 
-		String resolvedVseName = Utils.resolveParameter(vseName, run, listener);
-
-		List<String> resolvedVsNames = Utils.resolveParameters(vsNames, run, listener);
-
-		for (String vsName : resolvedVsNames) {
-			listener.getLogger()
-							.println(Messages.DevTestStopVs_stopping(vsName, resolvedVseName));
-			listener.getLogger()
-							.println(Messages.DevTestPlugin_devTestLocation(currentHost, currentPort));
-
-			String urlPath = String.format(APIEndpoints.STOP_VS, resolvedVseName, vsName);
-
-			Map<String, String> headers = Collections.singletonMap("Accept", "application/vnd.ca.lisaInvoke.virtualService+json");
-			String startVSUrl  = new URLFactory(currentProtocol , currentHost, currentPort).buildUrl(urlPath);
-			try(CloseableHttpResponse response = RestClient.executePost(startVSUrl , currentUsername, currentPassword, trustAnySSLCertificate, null, headers)){
-				String responseBody = EntityUtils.toString(response.getEntity());
-				int statusCode = response.getStatusLine().getStatusCode();
-				// This is a workaround because DevTest API return 200 with empty body for wrong credentials
-				if (statusCode == 200 && responseBody.isEmpty()) {
-					// Invalid credentials for some REASON.....
-					listener.getLogger().println(Messages.DevTestStopVs_error(vsName));
-					throw new AbortException(Messages.DevTestPlugin_invalidCredentials());
-				} else if (statusCode == 200) {
-					// Everything is ok
-					listener.getLogger().println(Messages.DevTestPlugin_responseBody(responseBody));
-					listener.getLogger().println(Messages.DevTestStopVs_success(vsName, resolvedVseName));
-				} else {
-					// Some other problem
-					listener.getLogger().println(Messages.DevTestStopVs_error(vsName));
-					throw new AbortException(Messages.DevTestPlugin_responseStatus(statusCode, responseBody));
-				}
-			}
-		}
+		String resolvedVseName = parameterResolver.resolve(vseName);
+
+		List<String> resolvedVsNames = parameterResolver.resolveAll(vsNames);
+
+		Map<String, String> headers = Collections.singletonMap("Accept", "application/vnd.ca.lisaInvoke.virtualService+json");
+		URLFactory urlFactory = new URLFactory(currentProtocol , currentHost, currentPort);
+		String devTestLocation = Messages.DevTestPlugin_devTestLocation(currentHost, currentPort);
+
+		VsRequestExecutor.execute(resolvedVsNames, getMaxConcurrency(), timeouts,
+				vsName -> {
+					listener.getLogger()
+									.println(Messages.DevTestStopVs_stopping(vsName, resolvedVseName));
+					listener.getLogger().println(devTestLocation);
+				},
+				vsName -> {
+					String stopVSUrl = urlFactory.buildUrl(String.format(APIEndpoints.STOP_VS, resolvedVseName, vsName));
+					return RestClient.executePostAsync(stopVSUrl, currentUsername, currentPassword, trustAnySSLCertificate, null, headers, timeouts);
+				},
+				(vsName, response) -> {
+					String responseBody = EntityUtils.toString(response.getEntity());
+					int statusCode = response.getStatusLine().getStatusCode();
+					// This is a workaround because DevTest API return 200 with empty body for wrong credentials
+					if (statusCode == 200 && responseBody.isEmpty()) {
+						// Invalid credentials for some REASON.....
+						listener.getLogger().println(Messages.DevTestStopVs_error(vsName));
+						throw new AbortException(Messages.DevTestPlugin_invalidCredentials());
+					} else if (statusCode == 200) {
+						// Everything is ok
+						listener.getLogger().println(Messages.DevTestPlugin_responseBody(responseBody));
+						listener.getLogger().println(Messages.DevTestStopVs_success(vsName, resolvedVseName));
+					} else {
+						// Some other problem
+						listener.getLogger().println(Messages.DevTestStopVs_error(vsName));
+						throw new AbortException(Messages.DevTestPlugin_responseStatus(statusCode, responseBody));
+					}
+				});
 	}
 
 	// Localization -> Messages generated by maven plugin check target folder
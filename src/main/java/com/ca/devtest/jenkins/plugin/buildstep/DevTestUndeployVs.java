@@ -27,8 +27,10 @@ package com.ca.devtest.jenkins.plugin.buildstep;
 
 import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration;
 import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
 import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
+import com.ca.devtest.jenkins.plugin.util.ParameterResolver;
 import com.ca.devtest.jenkins.plugin.util.URLFactory;
 import com.ca.devtest.jenkins.plugin.util.Utils;
 import hudson.AbortException;
@@ -41,11 +43,11 @@ import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.util.FormValidation;
 import org.apache.commons.lang.StringUtils;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.util.EntityUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import javax.annotation.Nonnull;
@@ -64,6 +66,7 @@ public class DevTestUndeployVs extends DefaultBuildStep {
 	private String vseName;
 	private List<String> vsNames;
 	private String separator;
+	private int maxConcurrency = 1;
 
 	/**
 	 * Constructor.
@@ -102,6 +105,20 @@ public class DevTestUndeployVs extends DefaultBuildStep {
 		return StringUtils.join(vsNames, separator);
 	}
 
+	public int getMaxConcurrency() {
+		return Math.max(1, maxConcurrency);
+	}
+
+	/**
+	 * Sets how many virtual services are processed concurrently.
+	 *
+	 * @param maxConcurrency max number of requests sent to Registry at once
+	 */
+	@DataBoundSetter
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
 	@Override
 	public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace,
 			@Nonnull Launcher launcher, @Nonnull TaskListener listener)
@@ -109,13 +126,16 @@ public class DevTestUndeployVs extends DefaultBuildStep {
 		Utils.checkRegistryEndpoint(this);
 		this.updateCredentails(run);
 
+		RequestTimeouts timeouts = createRequestTimeouts();
+		ParameterResolver parameterResolver = new ParameterResolver(run, listener);
+
 		String currentHost = isUseCustomRegistry() ? super.getHost()
 				: DevTestPluginConfiguration.get().getHost();
-		currentHost = Utils.resolveParameter(currentHost, run, listener);
+		currentHost = parameterResolver.resolve(currentHost);
 
 		String currentPort = isUseCustomRegistry() ? super.getPort()
 				: DevTestPluginConfiguration.get().getPort();
-		currentPort = Utils.resolveParameter(currentPort, run, listener);
+		currentPort = parameterResolver.resolve(currentPort);
 
 		String currentUsername = isUseCustomRegistry() ? super.getUsername()
 				: DevTestPluginConfiguration.get().getUsername();
@@ -137,38 +157,42 @@ public class DevTestUndeployVs extends DefaultBuildStep {
 			throw new AbortException(Messages.DevTestPlugin_emptyVsNames());
 		}
 
-		String resolvedVseName = Utils.resolveParameter(vseName, run, listener);
-
-		List<String> resolvedVsNames = Utils.resolveParameters(vsNames, run, listener);
+		String resolvedVseName = parameterResolver.resolve(vseName);
 
-		for (String vsName : resolvedVsNames) {
-			listener.getLogger()
-							.println(Messages.DevTestUndeployVs_undeploying(vsName, resolvedVseName));
-			listener.getLogger()
-							.println(Messages.DevTestPlugin_devTestLocation(currentHost, currentPort));
+		List<String> resolvedVsNames = parameterResolver.resolveAll(vsNames);
 
-			String urlPath = String.format(APIEndpoints.UNDEPLOY_VS, resolvedVseName, vsName);
-			String undeployVSUrl  = new URLFactory(currentProtocol , currentHost, currentPort).buildUrl(urlPath);
-			try(CloseableHttpResponse response = RestClient.executeDelete(undeployVSUrl, currentUsername, currentPassword, trustAnySSLCertificate)){
-				int statusCode = response.getStatusLine().getStatusCode();
+		URLFactory urlFactory = new URLFactory(currentProtocol , currentHost, currentPort);
+		String devTestLocation = Messages.DevTestPlugin_devTestLocation(currentHost, currentPort);
 
-				if (statusCode == 204) {
-					listener.getLogger().println(Messages.DevTestUndeployVs_success(vsName, resolvedVseName));
-				} else {
+		VsRequestExecutor.execute(resolvedVsNames, getMaxConcurrency(), timeouts,
+				vsName -> {
 					listener.getLogger()
-									.println(Messages.DevTestUndeployVs_error(vsName));
-					String message;
-					if (statusCode == 200) {
-						// Invalid credentials...
-						message = Messages.DevTestPlugin_invalidCredentials();
+									.println(Messages.DevTestUndeployVs_undeploying(vsName, resolvedVseName));
+					listener.getLogger().println(devTestLocation);
+				},
+				vsName -> {
+					String undeployVSUrl = urlFactory.buildUrl(String.format(APIEndpoints.UNDEPLOY_VS, resolvedVseName, vsName));
+					return RestClient.executeDeleteAsync(undeployVSUrl, currentUsername, currentPassword, trustAnySSLCertificate, timeouts);
+				},
+				(vsName, response) -> {
+					int statusCode = response.getStatusLine().getStatusCode();
+
+					if (statusCode == 204) {
+						listener.getLogger().println(Messages.DevTestUndeployVs_success(vsName, resolvedVseName));
 					} else {
-						String responseBody = EntityUtils.toString(response.getEntity());
-						message = Messages.DevTestPlugin_responseStatus(statusCode, responseBody);
+						listener.getLogger()
+										.println(Messages.DevTestUndeployVs_error(vsName));
+						String message;
+						if (statusCode == 200) {
+							// Invalid credentials...
+							message = Messages.DevTestPlugin_invalidCredentials();
+						} else {
+							String responseBody = EntityUtils.toString(response.getEntity());
+							message = Messages.DevTestPlugin_responseStatus(statusCode, responseBody);
+						}
+						throw new AbortException(message);
 					}
-					throw new AbortException(message);
-				}
-			}
-		}
+				});
 	}
 
 	// Localization -> Messages generated by maven plugin check target folder
@@ -0,0 +1,208 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import jenkins.model.Jenkins;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers SHA-256 digest of MAR file last deployed for every virtual service on a VSE. Used by
+ * {@link DevTestDeployVs} to skip upload of MAR file which was already deployed. Cache is stored in
+ * Jenkins root directory so it survives restarts. Changes are written to disk by
+ * {@link #saveChanges()}, so a step deploying many MAR files saves the cache once.
+ */
+public final class MarDeploymentCache implements Saveable {
+
+	private static final Logger LOGGER = Logger.getLogger(MarDeploymentCache.class.getName());
+
+	private static final String FILE_NAME = MarDeploymentCache.class.getName() + ".xml";
+
+	private static final int MAX_ENTRIES = 1000;
+
+	private static MarDeploymentCache instance;
+
+	/**
+	 * Digest of deployed MAR file keyed by registry, VSE and virtual service name.
+	 */
+	private final LinkedHashMap<String, String> digests = new LinkedHashMap<>();
+
+	/**
+	 * Name of virtual service keyed by registry, VSE and digest of its MAR file, built from
+	 * {@link #digests} when first needed.
+	 */
+	private transient Map<String, String> services;
+
+	private transient boolean changed;
+
+	private transient File file;
+
+	private MarDeploymentCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns cache for current Jenkins instance, loading it from disk when needed.
+	 *
+	 * @return cache
+	 */
+	public static synchronized MarDeploymentCache get() {
+		File file = new File(Jenkins.getInstance().getRootDir(), FILE_NAME);
+		if (instance == null || !instance.file.equals(file)) {
+			MarDeploymentCache cache = new MarDeploymentCache(file);
+			XmlFile xmlFile = cache.getConfigFile();
+			if (xmlFile.exists()) {
+				try {
+					xmlFile.unmarshal(cache);
+				} catch (IOException e) {
+					LOGGER.log(Level.WARNING, "Failed to load " + file, e);
+				}
+			}
+			instance = cache;
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns name of virtual service deployed from MAR file with given digest.
+	 *
+	 * @param registry registry url
+	 * @param vse      VSE name
+	 * @param digest   SHA-256 digest of MAR file
+	 *
+	 * @return name of virtual service or null when MAR file with this digest was not deployed
+	 */
+	public synchronized String getDeployedService(String registry, String vse, String digest) {
+		return getServices().get(key(registry, vse, digest));
+	}
+
+	/**
+	 * Records deployment of MAR file. The change is saved by {@link #saveChanges()}.
+	 *
+	 * @param registry registry url
+	 * @param vse      VSE name
+	 * @param service  name of deployed virtual service
+	 * @param digest   SHA-256 digest of MAR file
+	 */
+	public synchronized void recordDeployment(String registry, String vse, String service, String digest) {
+		String key = key(registry, vse, service);
+		// re-insert so most recently deployed entries are evicted last
+		remove(key);
+		digests.put(key, digest);
+		getServices().put(key(registry, vse, digest), service);
+		while (digests.size() > MAX_ENTRIES) {
+			remove(digests.keySet().iterator().next());
+		}
+		changed = true;
+	}
+
+	/**
+	 * Forgets deployment of virtual service, e.g. when it is no longer present on VSE. The change
+	 * is saved by {@link #saveChanges()}.
+	 *
+	 * @param registry registry url
+	 * @param vse      VSE name
+	 * @param service  name of virtual service
+	 */
+	public synchronized void invalidate(String registry, String vse, String service) {
+		if (remove(key(registry, vse, service))) {
+			changed = true;
+		}
+	}
+
+	/**
+	 * Saves the cache if it changed since it was loaded or saved last time.
+	 */
+	public synchronized void saveChanges() {
+		if (!changed) {
+			return;
+		}
+		try {
+			save();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to save " + file, e);
+		}
+	}
+
+	@Override
+	public synchronized void save() throws IOException {
+		getConfigFile().write(this);
+		changed = false;
+		SaveableListener.fireOnChange(this, getConfigFile());
+	}
+
+	private Map<String, String> getServices() {
+		if (services == null) {
+			services = new HashMap<>();
+			for (Map.Entry<String, String> entry : digests.entrySet()) {
+				String key = entry.getKey();
+				int serviceStart = getServiceStart(key);
+				services.put(key.substring(0, serviceStart) + entry.getValue(), key.substring(serviceStart));
+			}
+		}
+		return services;
+	}
+
+	/**
+	 * Removes entry of virtual service together with its index entry.
+	 *
+	 * @return true if there was such entry
+	 */
+	private boolean remove(String key) {
+		String digest = digests.remove(key);
+		if (digest == null) {
+			return false;
+		}
+		int serviceStart = getServiceStart(key);
+		getServices().remove(key.substring(0, serviceStart) + digest, key.substring(serviceStart));
+		return true;
+	}
+
+	private XmlFile getConfigFile() {
+		return new XmlFile(Jenkins.XSTREAM2, file);
+	}
+
+	private static String key(String registry, String vse, String service) {
+		return registry + "|" + vse + "|" + service;
+	}
+
+	/**
+	 * Returns position of virtual service name in key of {@link #digests}.
+	 */
+	private static int getServiceStart(String key) {
+		return key.indexOf('|', key.indexOf('|') + 1) + 1;
+	}
+}
@@ -0,0 +1,161 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+import com.ca.devtest.jenkins.plugin.util.URLFactory;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test/testsuite run which was started by {@link DevTestDeployTest} without waiting for its end.
+ * Holds everything needed to check the run status and download its reports later, except the
+ * password which is looked up again from the credentials.
+ */
+public final class PendingTestRun implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String runItemId;
+	private final boolean test;
+	private final String protocol;
+	private final String host;
+	private final String port;
+	private final boolean trustAnySSLCertificate;
+	private final boolean useCustomRegistry;
+	private final String tokenCredentialId;
+	private final long startTime;
+
+	private long pollInitialInterval;
+	private double pollMultiplier;
+	private long pollMaxInterval;
+	private long pollTimeout;
+	private int reportDownloadConcurrency;
+	private boolean compressReports;
+	private int connectTimeout;
+	private int readTimeout;
+	private int connectionRequestTimeout;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param runItemId              id of the run returned by Registry
+	 * @param test                   true for test run, false for testsuite run
+	 * @param protocol               protocol of Registry
+	 * @param host                   host of Registry
+	 * @param port                   port of Registry
+	 * @param trustAnySSLCertificate if any SSL certificate should be trusted
+	 * @param useCustomRegistry      if custom Registry endpoint was used
+	 * @param tokenCredentialId      credentials id for custom Registry
+	 */
+	PendingTestRun(String runItemId, boolean test, String protocol, String host, String port,
+			boolean trustAnySSLCertificate, boolean useCustomRegistry, String tokenCredentialId) {
+		this.runItemId = runItemId;
+		this.test = test;
+		this.protocol = protocol;
+		this.host = host;
+		this.port = port;
+		this.trustAnySSLCertificate = trustAnySSLCertificate;
+		this.useCustomRegistry = useCustomRegistry;
+		this.tokenCredentialId = tokenCredentialId;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	public String getRunItemId() {
+		return runItemId;
+	}
+
+	public boolean isTest() {
+		return test;
+	}
+
+	public boolean isTrustAnySSLCertificate() {
+		return trustAnySSLCertificate;
+	}
+
+	public boolean isUseCustomRegistry() {
+		return useCustomRegistry;
+	}
+
+	public String getTokenCredentialId() {
+		return tokenCredentialId;
+	}
+
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public int getReportDownloadConcurrency() {
+		return reportDownloadConcurrency;
+	}
+
+	void setReportDownloadConcurrency(int reportDownloadConcurrency) {
+		this.reportDownloadConcurrency = reportDownloadConcurrency;
+	}
+
+	public boolean isCompressReports() {
+		return compressReports;
+	}
+
+	void setCompressReports(boolean compressReports) {
+		this.compressReports = compressReports;
+	}
+
+	URLFactory getUrlFactory() {
+		return new URLFactory(protocol, host, port);
+	}
+
+	void setPollSettings(long pollInitialInterval, double pollMultiplier, long pollMaxInterval, long pollTimeout) {
+		this.pollInitialInterval = pollInitialInterval;
+		this.pollMultiplier = pollMultiplier;
+		this.pollMaxInterval = pollMaxInterval;
+		this.pollTimeout = pollTimeout;
+	}
+
+	void setRequestTimeouts(int connectTimeout, int readTimeout, int connectionRequestTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		this.connectionRequestTimeout = connectionRequestTimeout;
+	}
+
+	/**
+	 * Creates timeouts of requests checking the run and downloading its reports. Request timeouts
+	 * are the ones of the step which started the run.
+	 *
+	 * @param stepTimeout seconds left for the waiting step, 0 when not limited
+	 * @return timeouts
+	 */
+	RequestTimeouts createRequestTimeouts(int stepTimeout) {
+		return new RequestTimeouts(connectTimeout, readTimeout, connectionRequestTimeout, stepTimeout);
+	}
+
+	RunStatusPoller createPoller() {
+		return new RunStatusPoller(pollInitialInterval, pollMultiplier, pollMaxInterval,
+				TimeUnit.SECONDS.toMillis(pollTimeout), RunStatusPoller.END_STATES);
+	}
+}
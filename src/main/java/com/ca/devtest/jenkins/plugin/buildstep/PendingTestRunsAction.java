@@ -0,0 +1,67 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import hudson.model.InvisibleAction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps test/testsuite runs started in the build which were not awaited yet. The action is stored
+ * with the build, so runs can be awaited also after Jenkins restart.
+ */
+public class PendingTestRunsAction extends InvisibleAction {
+
+	private final List<PendingTestRun> runs = new ArrayList<>();
+
+	synchronized void add(PendingTestRun run) {
+		runs.add(run);
+	}
+
+	/**
+	 * @param runItemId id of the run, null for any run
+	 *
+	 * @return first pending run with given id or null if there is none
+	 */
+	synchronized PendingTestRun get(String runItemId) {
+		for (PendingTestRun run : runs) {
+			if (runItemId == null || runItemId.equals(run.getRunItemId())) {
+				return run;
+			}
+		}
+		return null;
+	}
+
+	synchronized void remove(String runItemId) {
+		runs.removeIf(run -> run.getRunItemId().equals(runItemId));
+	}
+
+	public synchronized List<PendingTestRun> getRuns() {
+		return new ArrayList<>(runs);
+	}
+}
@@ -0,0 +1,197 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+import com.ca.devtest.jenkins.plugin.config.RestClient;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import hudson.AbortException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Polls status of the test/testsuite run until it reaches one of the end states. The delay between
+ * polls starts at initial interval and is multiplied after every poll which returns the same status,
+ * up to max interval. When the status changes the delay is reset back to initial interval, so short
+ * runs finish quickly while long running suites are not polled more often than necessary.
+ */
+final class RunStatusPoller {
+
+	private static final Logger LOGGER = Logger.getLogger(RunStatusPoller.class.getName());
+
+	static final long DEFAULT_INITIAL_INTERVAL = 500;
+	static final double DEFAULT_MULTIPLIER = 1.5;
+	static final long DEFAULT_MAX_INTERVAL = 30000;
+
+	static final List<String> END_STATES = Collections.unmodifiableList(
+			Arrays.asList("ENDED", "PASSED", "FAILED", "ABORTED", "FAILED_TO_STAGE"));
+
+	private final long initialInterval;
+	private final double multiplier;
+	private final long maxInterval;
+	private final long timeout;
+	private final Collection<String> endStates;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param initialInterval delay in milliseconds before the first poll and after status change
+	 * @param multiplier      factor the delay is multiplied by while status does not change
+	 * @param maxInterval     max delay in milliseconds between two polls
+	 * @param timeout         max time in milliseconds to wait for the end state, 0 means no limit
+	 * @param endStates       statuses in which the run is finished
+	 */
+	RunStatusPoller(long initialInterval, double multiplier, long maxInterval, long timeout,
+			Collection<String> endStates) {
+		this.initialInterval = initialInterval > 0 ? initialInterval : DEFAULT_INITIAL_INTERVAL;
+		this.multiplier = multiplier >= 1 ? multiplier : DEFAULT_MULTIPLIER;
+		this.maxInterval = Math.max(this.initialInterval, maxInterval > 0 ? maxInterval : DEFAULT_MAX_INTERVAL);
+		this.timeout = Math.max(0, timeout);
+		this.endStates = endStates;
+	}
+
+	long getInitialInterval() {
+		return initialInterval;
+	}
+
+	boolean isEndState(String state) {
+		return endStates.contains(state);
+	}
+
+	/**
+	 * Computes delay before the next poll.
+	 *
+	 * @param interval  delay used before the last poll
+	 * @param state     status returned by the last poll
+	 * @param lastState status returned by the poll before, null for the first poll
+	 *
+	 * @return delay in milliseconds
+	 */
+	long nextInterval(long interval, String state, String lastState) {
+		return state.equals(lastState) ? Math.min(maxInterval, (long) (interval * multiplier)) : initialInterval;
+	}
+
+	/**
+	 * @param elapsed      milliseconds spent waiting so far
+	 * @param nextInterval delay before the next poll
+	 *
+	 * @return true if the next poll would be after the timeout
+	 */
+	boolean isTimedOut(long elapsed, long nextInterval) {
+		return timeout > 0 && elapsed + nextInterval > timeout;
+	}
+
+	long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Polls given url until the run ends.
+	 *
+	 * @param checkUrl               url of the test/testsuite run
+	 * @param username               username for Registry
+	 * @param password               password for Registry
+	 * @param trustAnySSLCertificate if any SSL certificate should be trusted
+	 * @param logger                 build logger
+	 * @param timeouts               timeouts of the build step, polling stops at its deadline, may be null
+	 *
+	 * @return response body of the last poll
+	 *
+	 * @throws IOException          if request fails or timeout expires
+	 * @throws InterruptedException if build was interrupted while waiting
+	 */
+	String waitForEnd(String checkUrl, String username, String password, boolean trustAnySSLCertificate,
+			PrintStream logger, RequestTimeouts timeouts) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		long interval = initialInterval;
+		String lastState = null;
+		int polls = 0;
+		while (true) {
+			// do not sleep past the deadline, the next request fails right away when it expired
+			Thread.sleep(timeouts != null ? Math.min(interval, timeouts.getRemainingMillis()) : interval);
+
+			long pollStart = System.nanoTime();
+			String body;
+			try (CloseableHttpResponse response = RestClient.executeGet(checkUrl, username, password, trustAnySSLCertificate, null, timeouts)) {
+				body = EntityUtils.toString(response.getEntity());
+			}
+			String state = readStatus(body);
+			polls++;
+
+			long now = System.nanoTime();
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(now - start);
+			LOGGER.log(Level.FINE, "Poll #{0} of {1} took {2} ms after {3} ms delay, status: {4}",
+					new Object[] {polls, checkUrl, TimeUnit.NANOSECONDS.toMillis(now - pollStart), interval, state});
+
+			if (isEndState(state)) {
+				logger.println(Messages.DevTestDeployTest_pollSummary(polls, elapsed));
+				return body;
+			}
+
+			interval = nextInterval(interval, state, lastState);
+			lastState = state;
+
+			if (isTimedOut(elapsed, interval)) {
+				logger.println(Messages.DevTestDeployTest_pollSummary(polls, elapsed));
+				throw new AbortException(Messages.DevTestDeployTest_pollTimeout(TimeUnit.MILLISECONDS.toSeconds(timeout), state));
+			}
+		}
+	}
+
+	/**
+	 * Reads only the status from the run JSON without building the whole tree, the response
+	 * contains all the run details which are not needed while waiting.
+	 */
+	static String readStatus(String body) throws IOException {
+		try (JsonReader reader = new JsonReader(new StringReader(body))) {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				return "";
+			}
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if ("testStatus".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+					return reader.nextString();
+				}
+				reader.skipValue();
+			}
+		}
+		return "";
+	}
+}
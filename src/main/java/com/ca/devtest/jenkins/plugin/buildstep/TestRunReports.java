@@ -0,0 +1,334 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+import com.ca.devtest.jenkins.plugin.config.RestClient;
+import com.ca.devtest.jenkins.plugin.constants.APIEndpoints;
+import com.ca.devtest.jenkins.plugin.postbuild.parser.TestInvokeApiResultParser;
+import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
+import com.ca.devtest.jenkins.plugin.util.URLFactory;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Downloads reports of finished test/testsuite run into the build directory and sets the build
+ * result based on the run status. Shared by the build step waiting for the run and by the pipeline
+ * step which waits for the run asynchronously.
+ */
+final class TestRunReports {
+
+	private static final Logger LOGGER = Logger.getLogger(TestRunReports.class.getName());
+
+	static final int DEFAULT_DOWNLOAD_CONCURRENCY = 4;
+
+	private static final int MAX_ATTEMPTS = 3;
+	private static final long RETRY_DELAY = 500;
+	private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+	private final URLFactory urlFactory;
+	private final String username;
+	private final String password;
+	private final boolean trustAnySSLCertificate;
+	private final int downloadConcurrency;
+	private final boolean compress;
+	private final RequestTimeouts timeouts;
+
+	private final AtomicLong downloadedFiles = new AtomicLong();
+	private final AtomicLong downloadedBytes = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param urlFactory             factory for Registry urls
+	 * @param username               username for Registry
+	 * @param password               password for Registry
+	 * @param trustAnySSLCertificate if any SSL certificate should be trusted
+	 * @param downloadConcurrency    max number of test reports of a suite downloaded at once
+	 * @param compress               if reports should be stored gzipped
+	 */
+	TestRunReports(URLFactory urlFactory, String username, String password, boolean trustAnySSLCertificate,
+			int downloadConcurrency, boolean compress) {
+		this(urlFactory, username, password, trustAnySSLCertificate, downloadConcurrency, compress, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param urlFactory             factory for Registry urls
+	 * @param username               username for Registry
+	 * @param password               password for Registry
+	 * @param trustAnySSLCertificate if any SSL certificate should be trusted
+	 * @param downloadConcurrency    max number of test reports of a suite downloaded at once
+	 * @param compress               if reports should be stored gzipped
+	 * @param timeouts               timeouts of the build step, downloads stop at its deadline, may be null
+	 */
+	TestRunReports(URLFactory urlFactory, String username, String password, boolean trustAnySSLCertificate,
+			int downloadConcurrency, boolean compress, RequestTimeouts timeouts) {
+		this.urlFactory = urlFactory;
+		this.username = username;
+		this.password = password;
+		this.trustAnySSLCertificate = trustAnySSLCertificate;
+		this.downloadConcurrency = downloadConcurrency > 0 ? downloadConcurrency : DEFAULT_DOWNLOAD_CONCURRENCY;
+		this.compress = compress;
+		this.timeouts = timeouts;
+	}
+
+	/**
+	 * Downloads reports of the run, sets the build result and prints the run summary.
+	 *
+	 * @param runItemStatus end status of the run
+	 * @param runItemId     id of the run
+	 * @param test          true for test run, false for testsuite run
+	 * @param run           current build
+	 * @param listener      build listener
+	 *
+	 * @throws IOException          if download fails
+	 * @throws InterruptedException if build was interrupted
+	 */
+	void downloadAndSetRunResult(String runItemStatus, String runItemId, boolean test, Run<?, ?> run,
+			TaskListener listener) throws IOException, InterruptedException {
+		Path workDir = run.getRootDir().toPath();
+		long start = System.nanoTime();
+		if (test) {
+			downloadTestOutput(workDir.resolve("report/" + runItemId + "/tests/case"), runItemId);
+		} else {
+			downloadSuiteOutput(workDir.resolve("report/" + runItemId + "/suites/suite"), runItemId,
+					listener.getLogger());
+		}
+		long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		listener.getLogger().println(Messages.DevTestDeployTest_downloadSummary(downloadedFiles.get(),
+				downloadedBytes.get() / 1024, elapsed, downloadedBytes.get() * 1000 / 1024 / elapsed));
+
+		setResultBasedOnStatus(runItemStatus, run, listener);
+
+		printStatusDetails(runItemId, run, listener);
+	}
+
+	private void downloadTestOutput(Path storeDir, String testId) throws IOException, InterruptedException {
+		String reportUrl = urlFactory.buildUrl(String.format(APIEndpoints.REPORT_URL, testId));
+		downloadFileWithRetry(reportUrl, storeDir.resolve("test.json"));
+
+		String cycleUrl = urlFactory.buildUrl(String.format(APIEndpoints.CYCLE_URL, testId));
+		downloadFileWithRetry(cycleUrl, storeDir.resolve("cycles.json"));
+	}
+
+	private void downloadSuiteOutput(Path storeDir, String suitId, PrintStream logger)
+			throws IOException, InterruptedException {
+		String suiteUrl = urlFactory.buildUrl(String.format(APIEndpoints.SUITE_REPORT_URL, suitId));
+		Path suiteJson = storeDir.resolve("suite.json");
+		downloadFileWithRetry(suiteUrl, suiteJson);
+
+		//get tests info for suite
+		String testSuitUrl = urlFactory.buildUrl(String.format(APIEndpoints.SUITE_TESTS_REPORT_URL, suitId));
+		Path testsSuiteJson = storeDir.resolve("testsSuite.json");
+		downloadFileWithRetry(testSuitUrl, testsSuiteJson);
+
+		//get ids for all tests in suite and get reports for them
+		TestInvokeApiResultParser parser = new TestInvokeApiResultParser(logger);
+		List<String> testIds = parser.getCasesIdsFromSuiteReport(testsSuiteJson.toString());
+		downloadTestFiles(suiteUrl, testIds, storeDir, logger);
+	}
+
+	/**
+	 * Downloads reports of all tests in the suite on bounded pool of threads. Failure of single
+	 * report does not stop the others, failed reports are listed in the log and the affected tests
+	 * are reported as not parsed.
+	 */
+	private void downloadTestFiles(String suiteUrl, List<String> testIds, Path storeDir, PrintStream logger)
+			throws InterruptedException {
+		List<String> urls = new ArrayList<>(testIds.size() * 2);
+		List<Callable<Void>> downloads = new ArrayList<>(testIds.size() * 2);
+		int i = 1;
+		for (String id : testIds) {
+			Path caseDir = storeDir.resolve("tests/case" + i);
+			addDownload(urls, downloads, suiteUrl + "/tests/" + id, caseDir.resolve("test.json"));
+			addDownload(urls, downloads, suiteUrl + "/tests/" + id + "/cycles", caseDir.resolve("cycles.json"));
+			i++;
+		}
+		if (downloads.isEmpty()) {
+			return;
+		}
+
+		int threads = Math.min(downloadConcurrency, downloads.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				new NamingThreadFactory(new DaemonThreadFactory(), "TestRunReports"));
+		try {
+			List<Future<Void>> futures = executor.invokeAll(downloads);
+			int failed = 0;
+			for (int j = 0; j < futures.size(); j++) {
+				try {
+					futures.get(j).get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause() != null ? e.getCause() : e;
+					logger.println(Messages.DevTestDeployTest_reportDownloadFailed(urls.get(j), cause.getMessage()));
+					failed++;
+				}
+			}
+			if (failed > 0) {
+				logger.println(Messages.DevTestDeployTest_reportDownloadsFailed(failed, downloads.size()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void addDownload(List<String> urls, List<Callable<Void>> downloads, String url, Path storePath) {
+		urls.add(url);
+		downloads.add(() -> {
+			downloadFileWithRetry(url, storePath);
+			return null;
+		});
+	}
+
+	/**
+	 * Downloads the file, failed attempts are repeated with growing delay until the deadline of the
+	 * build step.
+	 */
+	private void downloadFileWithRetry(String url, Path storePath) throws IOException, InterruptedException {
+		long delay = RETRY_DELAY;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				downloadFile(url, storePath);
+				return;
+			} catch (IOException | RuntimeException e) {
+				if (attempt >= MAX_ATTEMPTS || timeouts != null && timeouts.isExpired()) {
+					throw e;
+				}
+				LOGGER.log(Level.FINE, "Download of " + url + " failed, attempt " + attempt + " of " + MAX_ATTEMPTS, e);
+				Thread.sleep(timeouts != null ? Math.min(delay, timeouts.getRemainingMillis()) : delay);
+				delay *= 2;
+			}
+		}
+	}
+
+	/**
+	 * Streams the response body straight to the file, so large cycle histories are never held in
+	 * memory as a whole.
+	 */
+	private void downloadFile(String url, Path storePath) throws IOException {
+		long start = System.nanoTime();
+		long size;
+		try (CloseableHttpResponse response = RestClient.executeGet(url, username, password, trustAnySSLCertificate, null, timeouts)) {
+			int statusCode = response.getStatusLine().getStatusCode();
+			HttpEntity entity = response.getEntity();
+			if (statusCode >= 500 || statusCode == 429) {
+				throw new IOException(Messages.DevTestPlugin_responseStatus(statusCode,
+						entity == null ? "" : EntityUtils.toString(entity)));
+			}
+			Files.createDirectories(storePath.getParent());
+			if (entity == null) {
+				Files.deleteIfExists(storePath);
+				Files.createFile(storePath);
+				size = 0;
+			} else if (compress) {
+				size = writeCompressed(entity, storePath.resolveSibling(storePath.getFileName() + TestInvokeApiResultParser.COMPRESSED_SUFFIX));
+			} else {
+				size = write(entity, storePath);
+			}
+		}
+		long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		downloadedFiles.incrementAndGet();
+		downloadedBytes.addAndGet(size);
+		LOGGER.log(Level.FINE, "Downloaded {0} ({1} bytes) in {2} ms, {3} KB/s",
+				new Object[] {url, size, elapsed, size * 1000 / 1024 / elapsed});
+	}
+
+	private static long write(HttpEntity entity, Path target) throws IOException {
+		try (ReadableByteChannel in = Channels.newChannel(entity.getContent());
+				FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			long position = 0;
+			long transferred;
+			while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+				position += transferred;
+			}
+			return position;
+		}
+	}
+
+	private static long writeCompressed(HttpEntity entity, Path target) throws IOException {
+		try (InputStream in = entity.getContent();
+				OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+			return IOUtils.copyLarge(in, out);
+		}
+	}
+
+	private static void setResultBasedOnStatus(String runItemStatus, Run<?, ?> run, TaskListener listener) {
+		if (runItemStatus.equalsIgnoreCase("FAILED")) {
+			listener.getLogger().println("Test run result: UNSTABLE");
+			run.setResult(Result.UNSTABLE);
+		} else if (runItemStatus.equalsIgnoreCase("ABORTED") || runItemStatus.equalsIgnoreCase("FAILED_TO_STAGE")) {
+			listener.getLogger().println("Test run result: FAILURE");
+			run.setResult(Result.FAILURE);
+		} else {
+			listener.getLogger().println("Test run result: SUCCESS");
+			run.setResult(Result.SUCCESS);
+		}
+	}
+
+	private static void printStatusDetails(String runItemId, Run<?, ?> run, TaskListener listener)
+			throws InterruptedException {
+		TestInvokeApiResultParser parser = new TestInvokeApiResultParser(listener.getLogger());
+		// same base as the publisher uses, so the publisher can reuse the parsed step
+		parser.setReportBaseDir(run.getRootDir().toString());
+		Report report = parser.parseStep(run.getRootDir().toString() + "/report/" + runItemId);
+		listener.getLogger().println(Messages.DevTestDeployTest_statusDetails(report.getTotalCount(),
+				report.getSuccessfullTests().size(), report.getFailCount()));
+	}
+}
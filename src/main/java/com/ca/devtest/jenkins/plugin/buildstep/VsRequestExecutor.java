@@ -0,0 +1,119 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+import com.ca.devtest.jenkins.plugin.config.RestClient;
+import hudson.AbortException;
+import hudson.model.TaskListener;
+import org.apache.http.HttpResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Sends the same Registry request for several virtual services. At most {@code maxConcurrency}
+ * requests are in flight at once, responses are handled on the calling thread in order of virtual
+ * service names, so log lines of one service are not mixed with others. Failure of one service does
+ * not stop the others, all failures are reported together at the end. Responses are not awaited
+ * beyond the deadline of the build step.
+ */
+final class VsRequestExecutor {
+
+	/**
+	 * Sends request for one virtual service.
+	 */
+	interface RequestFactory {
+
+		CompletableFuture<HttpResponse> send(String vsName);
+	}
+
+	/**
+	 * Handles response for one virtual service. Throws {@link AbortException} when request failed.
+	 */
+	interface ResponseHandler {
+
+		void handle(String vsName, HttpResponse response) throws IOException;
+	}
+
+	private VsRequestExecutor() {
+	}
+
+	/**
+	 * Executes request for all virtual services.
+	 *
+	 * @param vsNames         names of virtual services
+	 * @param maxConcurrency  max number of requests in flight, values lower than 1 mean 1
+	 * @param timeouts        timeouts of the build step, null means waiting without limit
+	 * @param announcer       prints log lines describing request for one virtual service
+	 * @param requestFactory  sends request for one virtual service
+	 * @param responseHandler handles response for one virtual service
+	 *
+	 * @throws AbortException       if request for any of virtual services failed
+	 * @throws InterruptedException if build was interrupted
+	 * @throws IOException          if response could not be read
+	 */
+	static void execute(List<String> vsNames, int maxConcurrency, RequestTimeouts timeouts, Consumer<String> announcer,
+			RequestFactory requestFactory, ResponseHandler responseHandler)
+			throws InterruptedException, IOException {
+		int window = Math.max(1, maxConcurrency);
+		List<CompletableFuture<HttpResponse>> requests = new ArrayList<>(vsNames.size());
+		List<String> failures = new ArrayList<>();
+		String lastFailure = null;
+
+		try {
+			for (int i = 0; i < vsNames.size(); i++) {
+				while (requests.size() < vsNames.size() && requests.size() < i + window) {
+					requests.add(requestFactory.send(vsNames.get(requests.size())));
+				}
+
+				String vsName = vsNames.get(i);
+				announcer.accept(vsName);
+				try {
+					responseHandler.handle(vsName, RestClient.await(requests.get(i), timeouts));
+				} catch (AbortException | RuntimeException e) {
+					lastFailure = e.getMessage();
+					failures.add(Messages.DevTestPlugin_vsFailed(vsName, e.getMessage()));
+				}
+			}
+		} catch (InterruptedException e) {
+			requests.forEach(request -> request.cancel(true));
+			throw e;
+		}
+
+		if (failures.size() == 1) {
+			throw new AbortException(lastFailure);
+		} else if (!failures.isEmpty()) {
+			throw new AbortException(Messages.DevTestPlugin_multipleVsFailed(failures.size(), vsNames.size(),
+					String.join("\n", failures)));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.ca.devtest.jenkins.plugin.config;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Connection pool settings and default request timeouts used by {@link RestClient}. Instances are immutable and serializable
+ * so the settings from global configuration can be shipped to agents together with callables.
+ */
+public final class HttpClientSettings implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 100;
+    public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT = 30;
+    public static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 60;
+    public static final int DEFAULT_CONNECT_TIMEOUT = 30;
+    public static final int DEFAULT_READ_TIMEOUT = 300;
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 60;
+
+    private final int maxConnectionsPerRoute;
+    private final int maxConnectionsTotal;
+    private final int idleConnectionTimeout;
+    private final int keepAliveTimeout;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int connectionRequestTimeout;
+
+    /**
+     * Creates settings with default values.
+     */
+    public HttpClientSettings() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_MAX_CONNECTIONS_TOTAL,
+                DEFAULT_IDLE_CONNECTION_TIMEOUT, DEFAULT_KEEP_ALIVE_TIMEOUT);
+    }
+
+    /**
+     * Constructor with default request timeouts. Non positive values are replaced by defaults.
+     *
+     * @param maxConnectionsPerRoute max pooled connections to single Registry or VSE endpoint
+     * @param maxConnectionsTotal    max pooled connections in total
+     * @param idleConnectionTimeout  seconds after which idle connection is evicted from pool
+     * @param keepAliveTimeout       max seconds to keep connection alive when server does not say
+     */
+    public HttpClientSettings(int maxConnectionsPerRoute, int maxConnectionsTotal,
+                              int idleConnectionTimeout, int keepAliveTimeout) {
+        this(maxConnectionsPerRoute, maxConnectionsTotal, idleConnectionTimeout, keepAliveTimeout,
+                DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Constructor. Non positive values are replaced by defaults.
+     *
+     * @param maxConnectionsPerRoute   max pooled connections to single Registry or VSE endpoint
+     * @param maxConnectionsTotal      max pooled connections in total
+     * @param idleConnectionTimeout    seconds after which idle connection is evicted from pool
+     * @param keepAliveTimeout         max seconds to keep connection alive when server does not say
+     * @param connectTimeout           max seconds to establish connection
+     * @param readTimeout              max seconds to wait for data from server
+     * @param connectionRequestTimeout max seconds to wait for free connection from pool
+     */
+    public HttpClientSettings(int maxConnectionsPerRoute, int maxConnectionsTotal,
+                              int idleConnectionTimeout, int keepAliveTimeout,
+                              int connectTimeout, int readTimeout, int connectionRequestTimeout) {
+        this.maxConnectionsPerRoute = positiveOrDefault(maxConnectionsPerRoute, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        this.maxConnectionsTotal = Math.max(this.maxConnectionsPerRoute,
+                positiveOrDefault(maxConnectionsTotal, DEFAULT_MAX_CONNECTIONS_TOTAL));
+        this.idleConnectionTimeout = positiveOrDefault(idleConnectionTimeout, DEFAULT_IDLE_CONNECTION_TIMEOUT);
+        this.keepAliveTimeout = positiveOrDefault(keepAliveTimeout, DEFAULT_KEEP_ALIVE_TIMEOUT);
+        this.connectTimeout = positiveOrDefault(connectTimeout, DEFAULT_CONNECT_TIMEOUT);
+        this.readTimeout = positiveOrDefault(readTimeout, DEFAULT_READ_TIMEOUT);
+        this.connectionRequestTimeout = positiveOrDefault(connectionRequestTimeout, DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    public int getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HttpClientSettings that = (HttpClientSettings) o;
+        return maxConnectionsPerRoute == that.maxConnectionsPerRoute
+                && maxConnectionsTotal == that.maxConnectionsTotal
+                && idleConnectionTimeout == that.idleConnectionTimeout
+                && keepAliveTimeout == that.keepAliveTimeout
+                && connectTimeout == that.connectTimeout
+                && readTimeout == that.readTimeout
+                && connectionRequestTimeout == that.connectionRequestTimeout;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnectionsPerRoute, maxConnectionsTotal, idleConnectionTimeout, keepAliveTimeout,
+                connectTimeout, readTimeout, connectionRequestTimeout);
+    }
+}
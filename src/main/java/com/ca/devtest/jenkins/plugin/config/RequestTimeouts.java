@@ -0,0 +1,121 @@
+package com.ca.devtest.jenkins.plugin.config;
+
+import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.exception.RequestTimeoutException;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request timeouts of single build step used by {@link RestClient}. Timeouts which are not set fall
+ * back to the ones from {@link HttpClientSettings}. Optional step timeout sets deadline shared by all
+ * requests of the step, no request waits longer than the time left until the deadline. The deadline
+ * is serialized as remaining time, so it is kept when timeouts are shipped to an agent.
+ */
+public final class RequestTimeouts implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int connectionRequestTimeout;
+    private final int stepTimeout;
+
+    /**
+     * Value of {@link System#nanoTime()} when the step timeout expires.
+     */
+    private transient long deadline;
+
+    /**
+     * Constructor. Deadline starts counting down when the instance is created. Non positive values
+     * mean the timeout is not set.
+     *
+     * @param connectTimeout           max seconds to establish connection, falls back to global setting
+     * @param readTimeout              max seconds to wait for data from server, falls back to global setting
+     * @param connectionRequestTimeout max seconds to wait for free pooled connection, falls back to global setting
+     * @param stepTimeout              max seconds for all requests of the step together, not limited when not set
+     */
+    public RequestTimeouts(int connectTimeout, int readTimeout, int connectionRequestTimeout, int stepTimeout) {
+        this.connectTimeout = Math.max(0, connectTimeout);
+        this.readTimeout = Math.max(0, readTimeout);
+        this.connectionRequestTimeout = Math.max(0, connectionRequestTimeout);
+        this.stepTimeout = Math.max(0, stepTimeout);
+        this.deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.stepTimeout);
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public int getStepTimeout() {
+        return stepTimeout;
+    }
+
+    public boolean hasDeadline() {
+        return stepTimeout > 0;
+    }
+
+    /**
+     * @return milliseconds left until the deadline, {@link Long#MAX_VALUE} when there is no deadline
+     */
+    public long getRemainingMillis() {
+        if (!hasDeadline()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return getRemainingMillis() == 0;
+    }
+
+    /**
+     * Fails when the deadline has expired.
+     *
+     * @throws RequestTimeoutException of kind {@link RequestTimeoutException.Kind#DEADLINE} if deadline expired
+     */
+    public void checkDeadline() {
+        if (isExpired()) {
+            throw deadlineExceeded();
+        }
+    }
+
+    /**
+     * @return exception reporting that the deadline expired
+     */
+    public RequestTimeoutException deadlineExceeded() {
+        return new RequestTimeoutException(RequestTimeoutException.Kind.DEADLINE,
+                Messages.DevTestPlugin_stepTimeout(stepTimeout));
+    }
+
+    /**
+     * Shortens timeout so it does not last beyond the deadline.
+     *
+     * @param timeoutMillis timeout in milliseconds
+     * @return timeout in milliseconds, at least 1
+     */
+    public int limit(int timeoutMillis) {
+        return (int) Math.max(1, Math.min(timeoutMillis, getRemainingMillis()));
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeLong(deadline - System.nanoTime());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        deadline = System.nanoTime() + in.readLong();
+    }
+}
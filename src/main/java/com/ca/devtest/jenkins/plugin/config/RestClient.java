@@ -1,30 +1,55 @@
 package com.ca.devtest.jenkins.plugin.config;
 
 
+import com.ca.devtest.jenkins.plugin.Messages;
 import com.ca.devtest.jenkins.plugin.exception.InvalidInputException;
+import com.ca.devtest.jenkins.plugin.exception.RequestTimeoutException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
@@ -34,70 +59,475 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class RestClient {
 
-    private static CloseableHttpClient trustAnySSLCertificateClient;
+    private static final Logger LOGGER = Logger.getLogger(RestClient.class.getName());
+
+    /**
+     * Clients created with current settings. Pool is replaced as a whole when settings change, so a
+     * client is never created with settings of other generation.
+     */
+    private static volatile ClientPool pool = new ClientPool(new HttpClientSettings());
+
+    /**
+     * Pools replaced by newer settings. They are closed once no request runs on them and all their
+     * connections are released.
+     */
+    private static final Queue<ClientPool> RETIRED = new ConcurrentLinkedQueue<>();
 
     private RestClient() {
     }
 
-    private static CloseableHttpClient getClient(boolean trustAnySSLCertificate) {
-        try {
-            if (trustAnySSLCertificate) {
-                if (null == trustAnySSLCertificateClient) {
-                    trustAnySSLCertificateClient = HttpClients.custom()
-                            .setSSLSocketFactory(createSSLConnectionFactory()).build();
-                }
-                return trustAnySSLCertificateClient;
-            } else {
-                return HttpClients.createDefault();
+    /**
+     * Applies connection pool settings. When settings differ from current ones new clients are
+     * lazily created with new settings on next request. Current clients are retired, requests in
+     * flight on them are completed and clients are closed after they release their connections.
+     *
+     * @param newSettings settings to apply, null means defaults
+     */
+    public static synchronized void configure(HttpClientSettings newSettings) {
+        HttpClientSettings effective = newSettings != null ? newSettings : new HttpClientSettings();
+        ClientPool current = pool;
+        if (!effective.equals(current.settings)) {
+            pool = new ClientPool(effective);
+            current.closeIdleConnections();
+            RETIRED.add(current);
+            closeRetired();
+        }
+    }
+
+    /**
+     * Returns currently applied connection pool settings.
+     *
+     * @return settings
+     */
+    public static HttpClientSettings getSettings() {
+        return pool.settings;
+    }
+
+    /**
+     * Closes all pooled clients and their connections.
+     */
+    public static synchronized void shutdown() {
+        ClientPool current = pool;
+        pool = new ClientPool(current.settings);
+        current.close();
+        for (ClientPool retired = RETIRED.poll(); retired != null; retired = RETIRED.poll()) {
+            retired.close();
+        }
+    }
+
+    private static void closeRetired() {
+        if (!RETIRED.isEmpty()) {
+            RETIRED.removeIf(ClientPool::closeIfUnused);
+        }
+    }
+
+    /**
+     * Returns current pool registered as being used by a request. Caller has to
+     * {@link ClientPool#release() release} it once request is sent.
+     */
+    private static ClientPool acquirePool() {
+        closeRetired();
+        while (true) {
+            ClientPool current = pool;
+            if (current.acquire()) {
+                return current;
             }
+        }
+    }
+
+    private static String getClientKey(String url, boolean trustAnySSLCertificate) throws URISyntaxException {
+        URI uri = new URIBuilder(url).build();
+        return (trustAnySSLCertificate ? "trust|" : "default|") + uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    private static BlockingClient createClient(boolean trustAnySSLCertificate, HttpClientSettings clientSettings) {
+        try {
+            SSLConnectionSocketFactory sslConnectionSocketFactory = trustAnySSLCertificate
+                    ? createSSLConnectionFactory() : SSLConnectionSocketFactory.getSocketFactory();
+            Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", sslConnectionSocketFactory)
+                    .build();
+
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+            connectionManager.setDefaultMaxPerRoute(clientSettings.getMaxConnectionsPerRoute());
+            connectionManager.setMaxTotal(clientSettings.getMaxConnectionsTotal());
+
+            CloseableHttpClient client = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(createKeepAliveStrategy(clientSettings.getKeepAliveTimeout()))
+                    .setDefaultRequestConfig(createRequestConfig(clientSettings, null))
+                    .evictExpiredConnections()
+                    .evictIdleConnections(clientSettings.getIdleConnectionTimeout(), TimeUnit.SECONDS)
+                    .build();
+            return new BlockingClient(client, connectionManager);
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to create Http Client", ex);
+        }
+    }
+
+    private static AsyncClient createAsyncClient(boolean trustAnySSLCertificate, HttpClientSettings clientSettings) {
+        try {
+            SSLIOSessionStrategy sslSessionStrategy = trustAnySSLCertificate
+                    ? new SSLIOSessionStrategy(createTrustAnySSLContext(), new NoopHostnameVerifier())
+                    : SSLIOSessionStrategy.getDefaultStrategy();
+            Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", sslSessionStrategy)
+                    .build();
+
+            PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT), registry);
+            connectionManager.setDefaultMaxPerRoute(clientSettings.getMaxConnectionsPerRoute());
+            connectionManager.setMaxTotal(clientSettings.getMaxConnectionsTotal());
+
+            CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(createKeepAliveStrategy(clientSettings.getKeepAliveTimeout()))
+                    .setDefaultRequestConfig(createRequestConfig(clientSettings, null))
+                    .build();
+            client.start();
+            return new AsyncClient(client, connectionManager);
         } catch (Exception ex) {
-            throw new RuntimeException("Failed to create Http Client");
+            throw new RuntimeException("Failed to create Http Client", ex);
+        }
+    }
+
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy(int keepAliveTimeout) {
+        long maxKeepAlive = TimeUnit.SECONDS.toMillis(keepAliveTimeout);
+        return new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = super.getKeepAliveDuration(response, context);
+                return duration > 0 ? Math.min(duration, maxKeepAlive) : maxKeepAlive;
+            }
+        };
+    }
+
+    /**
+     * Builds request config from global settings overridden by timeouts of the build step. No
+     * timeout is longer than the time left until the deadline of the step.
+     */
+    private static RequestConfig createRequestConfig(HttpClientSettings clientSettings, RequestTimeouts timeouts) {
+        int connectTimeout = clientSettings.getConnectTimeout();
+        int readTimeout = clientSettings.getReadTimeout();
+        int connectionRequestTimeout = clientSettings.getConnectionRequestTimeout();
+        if (timeouts != null) {
+            connectTimeout = timeouts.getConnectTimeout() > 0 ? timeouts.getConnectTimeout() : connectTimeout;
+            readTimeout = timeouts.getReadTimeout() > 0 ? timeouts.getReadTimeout() : readTimeout;
+            connectionRequestTimeout = timeouts.getConnectionRequestTimeout() > 0
+                    ? timeouts.getConnectionRequestTimeout() : connectionRequestTimeout;
         }
+        return RequestConfig.custom()
+                .setConnectTimeout(toMillis(connectTimeout, timeouts))
+                .setSocketTimeout(toMillis(readTimeout, timeouts))
+                .setConnectionRequestTimeout(toMillis(connectionRequestTimeout, timeouts))
+                .build();
+    }
+
+    private static int toMillis(int seconds, RequestTimeouts timeouts) {
+        int millis = (int) Math.min(Integer.MAX_VALUE, TimeUnit.SECONDS.toMillis(seconds));
+        return timeouts != null ? timeouts.limit(millis) : millis;
     }
 
     private static SSLConnectionSocketFactory createSSLConnectionFactory() throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
-        SSLContext sslContext = SSLContexts.custom()
-                .loadTrustMaterial((chain, authType) -> true).build();
+        return new SSLConnectionSocketFactory(createTrustAnySSLContext(), new NoopHostnameVerifier());
+    }
 
-        return new SSLConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
+    private static SSLContext createTrustAnySSLContext() throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
+        return SSLContexts.custom()
+                .loadTrustMaterial((chain, authType) -> true).build();
     }
 
     public static CloseableHttpResponse executeGet(String url, String username, String password, boolean trustAnySSLCertificate, Map<String, String> headers) {
-        return executeRequest(url, username, password, trustAnySSLCertificate, getRequestGet(url, Collections.emptyMap(), headers));
+        return executeGet(url, username, password, trustAnySSLCertificate, headers, null);
     }
 
     public static CloseableHttpResponse executePost(String url, String username, String password, boolean trustAnySSLCertificate, HttpEntity entity, Map<String, String> headers) {
-        return executeRequest(url, username, password, trustAnySSLCertificate, getRequestPost(url, entity, headers));
+        return executePost(url, username, password, trustAnySSLCertificate, entity, headers, null);
     }
 
     public static CloseableHttpResponse executeDelete(String url, String username, String password, boolean trustAnySSLCertificate) {
-        return executeRequest(url, username, password, trustAnySSLCertificate, getRequestDelete(url));
+        return executeDelete(url, username, password, trustAnySSLCertificate, null);
+    }
+
+    /**
+     * Variant of {@link #executeGet(String, String, String, boolean, Map)} limited by timeouts of the build step.
+     *
+     * @param timeouts timeouts of the build step, null means global timeouts
+     * @throws RequestTimeoutException if any of timeouts expires
+     */
+    public static CloseableHttpResponse executeGet(String url, String username, String password, boolean trustAnySSLCertificate, Map<String, String> headers, RequestTimeouts timeouts) {
+        return executeRequest(url, username, password, trustAnySSLCertificate, getRequestGet(url, Collections.emptyMap(), headers), timeouts);
+    }
+
+    /**
+     * Variant of {@link #executePost(String, String, String, boolean, HttpEntity, Map)} limited by timeouts of the build step.
+     *
+     * @param timeouts timeouts of the build step, null means global timeouts
+     * @throws RequestTimeoutException if any of timeouts expires
+     */
+    public static CloseableHttpResponse executePost(String url, String username, String password, boolean trustAnySSLCertificate, HttpEntity entity, Map<String, String> headers, RequestTimeouts timeouts) {
+        return executeRequest(url, username, password, trustAnySSLCertificate, getRequestPost(url, entity, headers), timeouts);
+    }
+
+    /**
+     * Variant of {@link #executeDelete(String, String, String, boolean)} limited by timeouts of the build step.
+     *
+     * @param timeouts timeouts of the build step, null means global timeouts
+     * @throws RequestTimeoutException if any of timeouts expires
+     */
+    public static CloseableHttpResponse executeDelete(String url, String username, String password, boolean trustAnySSLCertificate, RequestTimeouts timeouts) {
+        return executeRequest(url, username, password, trustAnySSLCertificate, getRequestDelete(url), timeouts);
+    }
+
+
+    /**
+     * Non-blocking variant of {@link #executeGet(String, String, String, boolean, Map)}. Response
+     * entity is fully buffered when the returned future completes, so response does not need to be closed.
+     *
+     * @param url                    url
+     * @param username               username
+     * @param password               password
+     * @param trustAnySSLCertificate if any SSL certificate should be trusted
+     * @param headers                request headers
+     * @return future completed with response or exceptionally with {@link InvalidInputException}
+     */
+    public static CompletableFuture<HttpResponse> executeGetAsync(String url, String username, String password, boolean trustAnySSLCertificate, Map<String, String> headers) {
+        return executeGetAsync(url, username, password, trustAnySSLCertificate, headers, null);
     }
 
+    /**
+     * Variant of {@link #executeGetAsync(String, String, String, boolean, Map)} limited by timeouts
+     * of the build step.
+     *
+     * @param timeouts timeouts of the build step, null means global timeouts
+     * @return future completed with response or exceptionally with {@link InvalidInputException}
+     */
+    public static CompletableFuture<HttpResponse> executeGetAsync(String url, String username, String password, boolean trustAnySSLCertificate, Map<String, String> headers, RequestTimeouts timeouts) {
+        return executeRequestAsync(url, username, password, trustAnySSLCertificate, () -> getRequestGet(url, Collections.emptyMap(), headers), timeouts);
+    }
+
+    /**
+     * Non-blocking variant of {@link #executePost(String, String, String, boolean, HttpEntity, Map)}.
+     *
+     * @param url                    url
+     * @param username               username
+     * @param password               password
+     * @param trustAnySSLCertificate if any SSL certificate should be trusted
+     * @param entity                 request body, may be null
+     * @param headers                request headers
+     * @return future completed with response or exceptionally with {@link InvalidInputException}
+     */
+    public static CompletableFuture<HttpResponse> executePostAsync(String url, String username, String password, boolean trustAnySSLCertificate, HttpEntity entity, Map<String, String> headers) {
+        return executePostAsync(url, username, password, trustAnySSLCertificate, entity, headers, null);
+    }
+
+    /**
+     * Variant of {@link #executePostAsync(String, String, String, boolean, HttpEntity, Map)} limited by
+     * timeouts of the build step.
+     *
+     * @param timeouts timeouts of the build step, null means global timeouts
+     * @return future completed with response or exceptionally with {@link InvalidInputException}
+     */
+    public static CompletableFuture<HttpResponse> executePostAsync(String url, String username, String password, boolean trustAnySSLCertificate, HttpEntity entity, Map<String, String> headers, RequestTimeouts timeouts) {
+        return executeRequestAsync(url, username, password, trustAnySSLCertificate, () -> getRequestPost(url, entity, headers), timeouts);
+    }
+
+    /**
+     * Non-blocking variant of {@link #executeDelete(String, String, String, boolean)}.
+     *
+     * @param url                    url
+     * @param username               username
+     * @param password               password
+     * @param trustAnySSLCertificate if any SSL certificate should be trusted
+     * @return future completed with response or exceptionally with {@link InvalidInputException}
+     */
+    public static CompletableFuture<HttpResponse> executeDeleteAsync(String url, String username, String password, boolean trustAnySSLCertificate) {
+        return executeDeleteAsync(url, username, password, trustAnySSLCertificate, null);
+    }
+
+    /**
+     * Variant of {@link #executeDeleteAsync(String, String, String, boolean)} limited by timeouts of
+     * the build step.
+     *
+     * @param timeouts timeouts of the build step, null means global timeouts
+     * @return future completed with response or exceptionally with {@link InvalidInputException}
+     */
+    public static CompletableFuture<HttpResponse> executeDeleteAsync(String url, String username, String password, boolean trustAnySSLCertificate, RequestTimeouts timeouts) {
+        return executeRequestAsync(url, username, password, trustAnySSLCertificate, () -> getRequestDelete(url), timeouts);
+    }
+
+    /**
+     * Waits for result of async call. Failures are rethrown as they were produced by blocking API.
+     * Request is cancelled when waiting thread is interrupted.
+     *
+     * @param future future returned by one of async methods
+     * @param <T>    type of result
+     * @return result
+     * @throws InterruptedException when waiting thread is interrupted
+     */
+    public static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        return await(future, null);
+    }
+
+    /**
+     * Waits for result of async call at most until the deadline of the build step. Request is
+     * cancelled when the deadline expires.
+     *
+     * @param future   future returned by one of async methods
+     * @param timeouts timeouts of the build step, null means waiting without limit
+     * @param <T>      type of result
+     * @return result
+     * @throws InterruptedException when waiting thread is interrupted
+     * @throws RequestTimeoutException if the deadline expires
+     */
+    public static <T> T await(CompletableFuture<T> future, RequestTimeouts timeouts) throws InterruptedException {
+        try {
+            if (timeouts == null || !timeouts.hasDeadline()) {
+                return future.get();
+            }
+            return future.get(timeouts.getRemainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw timeouts.deadlineExceeded();
+        } catch (ExecutionException e) {
+            throw translateException(e.getCause());
+        }
+    }
 
-    private static  CloseableHttpResponse executeRequest(String url, String username, String password, boolean trustAnySSLCertificate, HttpRequestBase request) {
+    private static  CloseableHttpResponse executeRequest(String url, String username, String password, boolean trustAnySSLCertificate, HttpRequestBase request, RequestTimeouts timeouts) {
+        RequestConfig requestConfig = null;
+        ClientPool clientPool = acquirePool();
         try {
-            CloseableHttpClient client = getClient(trustAnySSLCertificate);
+            requestConfig = applyTimeouts(request, timeouts, clientPool.settings);
+            CloseableHttpClient client = clientPool.getClient(url, trustAnySSLCertificate);
             CredentialsProvider credentialsProvider = buildCredentialsProvider(url, username, password);
             HttpClientContext httpClientContext = buildContext(url, credentialsProvider);
             return client.execute(request, httpClientContext);
-        } catch (UnknownHostException e) {
-            throw new InvalidInputException(String.format("Unknown host: [%s]", e.getMessage()));
-        } catch (HttpHostConnectException | URISyntaxException e) {
-            throw new InvalidInputException(e.getMessage());
-        } catch (ClientProtocolException e) {
+        } catch (IOException | URISyntaxException e) {
+            throw translateException(e, url, requestConfig, timeouts);
+        } finally {
+            clientPool.release();
+        }
+    }
+
+    /**
+     * Sets timeouts of the build step on the request.
+     *
+     * @return request config with effective timeouts
+     * @throws RequestTimeoutException if the deadline has already expired
+     */
+    private static RequestConfig applyTimeouts(HttpRequestBase request, RequestTimeouts timeouts, HttpClientSettings clientSettings) {
+        if (timeouts == null) {
+            return createRequestConfig(clientSettings, null);
+        }
+        timeouts.checkDeadline();
+        RequestConfig requestConfig = createRequestConfig(clientSettings, timeouts);
+        request.setConfig(requestConfig);
+        return requestConfig;
+    }
+
+    private static CompletableFuture<HttpResponse> executeRequestAsync(String url, String username, String password, boolean trustAnySSLCertificate, Supplier<HttpRequestBase> requestSupplier, RequestTimeouts timeouts) {
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        ClientPool clientPool = acquirePool();
+        // pool is in use until response is buffered, it is released once whatever completes the result
+        result.whenComplete((response, throwable) -> clientPool.release());
+        try {
+            HttpRequestBase request = requestSupplier.get();
+            RequestConfig requestConfig = applyTimeouts(request, timeouts, clientPool.settings);
+            CloseableHttpAsyncClient client = clientPool.getAsyncClient(url, trustAnySSLCertificate);
+            CredentialsProvider credentialsProvider = buildCredentialsProvider(url, username, password);
+            HttpClientContext httpClientContext = buildContext(url, credentialsProvider);
+            Future<HttpResponse> execution = client.execute(request, httpClientContext, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    result.complete(response);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    result.completeExceptionally(translateException(ex, url, requestConfig, timeouts));
+                }
+
+                @Override
+                public void cancelled() {
+                    result.cancel(false);
+                }
+            });
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    execution.cancel(true);
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(translateException(e));
+        }
+        return result;
+    }
+
+    /**
+     * Translates failure of request, expired timeouts are reported as {@link RequestTimeoutException}
+     * telling which of them expired.
+     */
+    private static RuntimeException translateException(Throwable e, String url, RequestConfig requestConfig,
+                                                       RequestTimeouts timeouts) {
+        boolean timedOut = e instanceof ConnectTimeoutException || e instanceof SocketTimeoutException
+                || e instanceof TimeoutException;
+        if (!timedOut || requestConfig == null) {
+            return translateException(e);
+        }
+        if (timeouts != null && timeouts.isExpired()) {
+            return timeouts.deadlineExceeded();
+        }
+        // pool timeout is a connect timeout as well, so it has to be checked first
+        if (e instanceof ConnectionPoolTimeoutException || e instanceof TimeoutException) {
+            return new RequestTimeoutException(RequestTimeoutException.Kind.CONNECTION_REQUEST,
+                    Messages.DevTestPlugin_connectionRequestTimeout(url, requestConfig.getConnectionRequestTimeout()));
+        } else if (e instanceof ConnectTimeoutException) {
+            return new RequestTimeoutException(RequestTimeoutException.Kind.CONNECT,
+                    Messages.DevTestPlugin_connectTimeout(url, requestConfig.getConnectTimeout()));
+        } else {
+            return new RequestTimeoutException(RequestTimeoutException.Kind.READ,
+                    Messages.DevTestPlugin_readTimeout(url, requestConfig.getSocketTimeout()));
+        }
+    }
+
+    private static RuntimeException translateException(Throwable e) {
+        if (e instanceof UnknownHostException) {
+            return new InvalidInputException(String.format("Unknown host: [%s]", e.getMessage()));
+        } else if (e instanceof ConnectException || e instanceof URISyntaxException) {
+            return new InvalidInputException(e.getMessage());
+        } else if (e instanceof ClientProtocolException) {
             String message = null;
             if (e.getMessage() != null) {
                 message = e.getMessage();
             } else if (e.getCause() != null) {
                 message = e.getCause().getMessage();
             }
-            throw new InvalidInputException(Optional.ofNullable(message).orElse("Client protocol error"));
-        } catch (IOException e) {
-            throw new RuntimeException(e.getMessage());
+            return new InvalidInputException(Optional.ofNullable(message).orElse("Client protocol error"));
+        } else if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        } else {
+            return new RuntimeException(e.getMessage());
         }
     }
 
@@ -170,6 +600,127 @@ public class RestClient {
         return credProvider;
     }
 
+    /**
+     * Clients created with one generation of settings, one per trust mode and endpoint (scheme,
+     * host and port). Each client owns its own connection pool so connections and TLS sessions are
+     * reused between calls.
+     */
+    private static final class ClientPool {
+        private final HttpClientSettings settings;
+        private final ConcurrentMap<String, BlockingClient> clients = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, AsyncClient> asyncClients = new ConcurrentHashMap<>();
+        private int users;
+        private boolean closed;
+
+        private ClientPool(HttpClientSettings settings) {
+            this.settings = settings;
+        }
+
+        private synchronized boolean acquire() {
+            if (closed) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        private synchronized void release() {
+            users--;
+        }
+
+        private CloseableHttpClient getClient(String url, boolean trustAnySSLCertificate) throws URISyntaxException {
+            return clients.computeIfAbsent(getClientKey(url, trustAnySSLCertificate),
+                    k -> createClient(trustAnySSLCertificate, settings)).client;
+        }
+
+        private CloseableHttpAsyncClient getAsyncClient(String url, boolean trustAnySSLCertificate) throws URISyntaxException {
+            AsyncClient asyncClient = asyncClients.computeIfAbsent(getClientKey(url, trustAnySSLCertificate),
+                    k -> createAsyncClient(trustAnySSLCertificate, settings));
+            // async client has no background evictor, stale connections are dropped when client is acquired
+            asyncClient.connectionManager.closeExpiredConnections();
+            asyncClient.connectionManager.closeIdleConnections(settings.getIdleConnectionTimeout(), TimeUnit.SECONDS);
+            return asyncClient.client;
+        }
+
+        private void closeIdleConnections() {
+            clients.values().forEach(c -> c.connectionManager.closeIdleConnections(0, TimeUnit.SECONDS));
+            asyncClients.values().forEach(c -> c.connectionManager.closeIdleConnections(0, TimeUnit.SECONDS));
+        }
+
+        /**
+         * Closes clients when no request is being sent through them and none of their connections
+         * is leased or awaited.
+         *
+         * @return true if pool is closed
+         */
+        private synchronized boolean closeIfUnused() {
+            if (!closed) {
+                if (users > 0 || isInUse()) {
+                    closeIdleConnections();
+                    return false;
+                }
+                close();
+            }
+            return true;
+        }
+
+        private boolean isInUse() {
+            for (BlockingClient c : clients.values()) {
+                PoolStats stats = c.connectionManager.getTotalStats();
+                if (stats.getLeased() > 0 || stats.getPending() > 0) {
+                    return true;
+                }
+            }
+            for (AsyncClient c : asyncClients.values()) {
+                PoolStats stats = c.connectionManager.getTotalStats();
+                if (stats.getLeased() > 0 || stats.getPending() > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            for (Map.Entry<String, BlockingClient> entry : clients.entrySet()) {
+                try {
+                    entry.getValue().client.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Failed to close http client for " + entry.getKey(), e);
+                }
+            }
+            for (Map.Entry<String, AsyncClient> entry : asyncClients.entrySet()) {
+                try {
+                    entry.getValue().client.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Failed to close async http client for " + entry.getKey(), e);
+                }
+            }
+            clients.clear();
+            asyncClients.clear();
+        }
+    }
+
+    private static final class BlockingClient {
+        private final CloseableHttpClient client;
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        private BlockingClient(CloseableHttpClient client, PoolingHttpClientConnectionManager connectionManager) {
+            this.client = client;
+            this.connectionManager = connectionManager;
+        }
+    }
+
+    private static final class AsyncClient {
+        private final CloseableHttpAsyncClient client;
+        private final PoolingNHttpClientConnectionManager connectionManager;
+
+        private AsyncClient(CloseableHttpAsyncClient client, PoolingNHttpClientConnectionManager connectionManager) {
+            this.client = client;
+            this.connectionManager = connectionManager;
+        }
+    }
+
     private static AuthCache createAuthCache(String url) throws URISyntaxException {
         URI build = new URIBuilder(url).build();
         HttpHost httpHost = new HttpHost(build.getHost(), build.getPort(), build.getScheme());
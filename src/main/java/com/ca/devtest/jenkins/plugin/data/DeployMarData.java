@@ -4,6 +4,7 @@ import java.util.List;
 
 public class DeployMarData extends RegistryData{
     private List<String> marFiles;
+    private int maxConcurrency = 1;
     public DeployMarData(String registry, String port, String protocol, boolean trustAnySSLCertificate,
                          String username, String password, String vse,
                          List<String> marfiles, String apiURL){
@@ -18,4 +19,18 @@ public class DeployMarData extends RegistryData{
     public List<String> getMarFiles(){
         return this.marFiles;
     }
+
+    /**
+     * Returns how many MAR files are deployed at once. Value 1 means MAR files are deployed one by
+     * one and deployment stops on first failure.
+     *
+     * @return max number of concurrent deployments
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.ca.devtest.jenkins.plugin.data;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class DevTestReturnValue implements iData {
 
     public DevTestReturnValue(){
@@ -34,4 +38,59 @@ public class DevTestReturnValue implements iData {
     }
 
     protected boolean success;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    protected String name = "";
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    protected int statusCode;
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    protected long duration;
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    protected String responseBody;
+
+    /**
+     * Returns results of single items (e.g. MAR files) processed by the callable.
+     *
+     * @return list of results in order items were given
+     */
+    public List<DevTestReturnValue> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    public void addResult(DevTestReturnValue result) {
+        this.results.add(result);
+    }
+
+    protected List<DevTestReturnValue> results = new ArrayList<>();
 }
\ No newline at end of file
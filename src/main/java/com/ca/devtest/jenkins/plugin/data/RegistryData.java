@@ -1,5 +1,8 @@
 package com.ca.devtest.jenkins.plugin.data;
 
+import com.ca.devtest.jenkins.plugin.config.HttpClientSettings;
+import com.ca.devtest.jenkins.plugin.config.RequestTimeouts;
+
 public abstract class RegistryData implements iData {
     private String registry;
     private String port;
@@ -9,6 +12,8 @@ public abstract class RegistryData implements iData {
     private String vse;
     private String apiUrl;
     private boolean trustAnySSLCertificate;
+    private HttpClientSettings httpClientSettings;
+    private RequestTimeouts requestTimeouts;
 
     protected RegistryData(String registry, String port, String protocol,
                         String username, String password, String vse, String apiUrl, boolean trustAnySSLCertificate){
@@ -83,4 +88,20 @@ public abstract class RegistryData implements iData {
         this.trustAnySSLCertificate = trustAnySSLCertificate;
     }
 
+    public HttpClientSettings getHttpClientSettings() {
+        return httpClientSettings;
+    }
+
+    public void setHttpClientSettings(HttpClientSettings httpClientSettings) {
+        this.httpClientSettings = httpClientSettings;
+    }
+
+    public RequestTimeouts getRequestTimeouts() {
+        return requestTimeouts;
+    }
+
+    public void setRequestTimeouts(RequestTimeouts requestTimeouts) {
+        this.requestTimeouts = requestTimeouts;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.ca.devtest.jenkins.plugin.exception;
+
+/**
+ * Thrown when a request to Registry or VSE does not finish in time. {@link #getKind()} tells which
+ * of the timeouts expired.
+ */
+public class RequestTimeoutException extends InvalidInputException {
+
+    /**
+     * Kind of expired timeout.
+     */
+    public enum Kind {
+        /**
+         * Connection to the server was not established in time.
+         */
+        CONNECT,
+        /**
+         * Server did not send any data in time.
+         */
+        READ,
+        /**
+         * No pooled connection became free in time.
+         */
+        CONNECTION_REQUEST,
+        /**
+         * Overall time limit of the build step expired.
+         */
+        DEADLINE
+    }
+
+    private final Kind kind;
+
+    public RequestTimeoutException(Kind kind, String message) {
+        super(message);
+        this.kind = kind;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
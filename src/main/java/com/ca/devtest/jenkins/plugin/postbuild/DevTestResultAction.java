@@ -27,20 +27,28 @@ package com.ca.devtest.jenkins.plugin.postbuild;
 
 import com.ca.devtest.jenkins.plugin.Messages;
 import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
+import com.ca.devtest.jenkins.plugin.postbuild.report.ReportSnapshot;
 import hudson.model.AbstractBuild;
 import hudson.model.Action;
 import hudson.model.Api;
 import hudson.model.Run;
 import hudson.tasks.test.AbstractTestResultAction;
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import jenkins.tasks.SimpleBuildStep;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
 
 /**
- * Action for DevTest reporting post build step.
+ * Action for DevTest reporting post build step. Only summary counts are stored with the build,
+ * the report itself is kept in {@link #REPORT_FILE} in build directory and loaded when needed.
  *
  * @author mykdm01
  */
@@ -50,10 +58,28 @@ public class DevTestResultAction extends AbstractTestResultAction implements Ser
 
 	private static final long serialVersionUID = 1094502348958367308L;
 
+	private static final Logger LOGGER = Logger.getLogger(DevTestResultAction.class.getName());
+
+	/**
+	 * Name of the file in build directory the report is stored in.
+	 */
+	public static final String REPORT_FILE = "devtestReport.snapshot";
+
+	/**
+	 * Report stored directly with the build, used by builds recorded before the report was moved
+	 * to its own file or when the file cannot be written. Such reports are converted to
+	 * {@link #REPORT_FILE} when the build is loaded.
+	 */
 	private Report report;
 
+	private int failCount;
+
+	private int totalCount;
+
+	private transient Reference<Report> reportReference;
+
 	public Report getReport() {
-		return report;
+		return getResult();
 	}
 
 	//this is default jenkins icon
@@ -62,19 +88,39 @@ public class DevTestResultAction extends AbstractTestResultAction implements Ser
 		return "clipboard.png";
 	}
 
+	/**
+	 * Gets the report, loading it from {@link #REPORT_FILE} when it is not in memory.
+	 *
+	 * @return results report
+	 */
 	@Override
-	public Report getResult() {
-		return report;
+	public synchronized Report getResult() {
+		if (report != null) {
+			return report;
+		}
+		Report result = reportReference == null ? null : reportReference.get();
+		if (result == null) {
+			try {
+				result = load();
+				reportReference = new SoftReference<>(result);
+			} catch (IOException e) {
+				// not cached, so the report is read again on the next access
+				LOGGER.log(Level.WARNING, "Failed to load DevTest report of " + run, e);
+				result = new Report(Collections.emptyList(), Collections.emptyList());
+				result.setRun(run);
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public int getFailCount() {
-		return report.getFailCount();
+		return report != null ? report.getFailCount() : failCount;
 	}
 
 	@Override
 	public int getTotalCount() {
-		return report.getTotalCount();
+		return report != null ? report.getTotalCount() : totalCount;
 	}
 
 	@Override
@@ -94,8 +140,56 @@ public class DevTestResultAction extends AbstractTestResultAction implements Ser
 	 * @param report results report
 	 */
 	public DevTestResultAction(final Run<?, ?> run, Report report) {
-		this.report = report;
+		this.run = run;
+		this.failCount = report.getFailCount();
+		this.totalCount = report.getTotalCount();
 		report.setRun(run);
+		try {
+			ReportSnapshot.write(report, getReportFile());
+			this.reportReference = new SoftReference<>(report);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to save DevTest report of " + run, e);
+			this.report = report;
+		}
+	}
+
+	/**
+	 * Converts report stored directly with older builds to {@link #REPORT_FILE} and saves the build
+	 * so the report is dropped from the build record.
+	 */
+	@Override
+	public synchronized void onLoad(Run<?, ?> r) {
+		super.onLoad(r);
+		if (report == null) {
+			return;
+		}
+		try {
+			if (!getReportFile().exists()) {
+				ReportSnapshot.write(report, getReportFile());
+			}
+			failCount = report.getFailCount();
+			totalCount = report.getTotalCount();
+			reportReference = new SoftReference<>(report);
+			report = null;
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to convert DevTest report of " + run, e);
+			return;
+		}
+		try {
+			r.save();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to save converted DevTest report of " + run, e);
+		}
+	}
+
+	private File getReportFile() {
+		return new File(run.getRootDir(), REPORT_FILE);
+	}
+
+	private Report load() throws IOException {
+		Report result = ReportSnapshot.read(getReportFile());
+		result.setRun(run);
+		return result;
 	}
 
 	public Object getDynamic(String token, StaplerRequest req, StaplerResponse rsp) {
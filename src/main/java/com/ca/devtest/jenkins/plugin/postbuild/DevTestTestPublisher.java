@@ -26,7 +26,9 @@
 package com.ca.devtest.jenkins.plugin.postbuild;
 
 import com.ca.devtest.jenkins.plugin.Messages;
+import com.ca.devtest.jenkins.plugin.postbuild.parser.ReportLimits;
 import com.ca.devtest.jenkins.plugin.postbuild.parser.TestInvokeApiResultParser;
+import com.ca.devtest.jenkins.plugin.postbuild.report.HistoryIndex;
 import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
 import hudson.Extension;
 import hudson.FilePath;
@@ -38,10 +40,12 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Publisher;
 import hudson.tasks.Recorder;
+import java.io.IOException;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Post build step for gathering test results.
@@ -50,6 +54,14 @@ import org.kohsuke.stapler.DataBoundConstructor;
  */
 public class DevTestTestPublisher extends Recorder implements SimpleBuildStep {
 
+	private int parallelism;
+
+	private int maxCyclesPerTest;
+
+	private int maxMessagesPerCycle;
+
+	private long maxRawReportBytes;
+
 	@Override
 	public BuildStepMonitor getRequiredMonitorService() {
 		return BuildStepMonitor.NONE;
@@ -59,13 +71,77 @@ public class DevTestTestPublisher extends Recorder implements SimpleBuildStep {
 	public DevTestTestPublisher() {
 	}
 
+	public int getParallelism() {
+		return Math.max(0, parallelism);
+	}
+
+	/**
+	 * Sets how many test case reports are parsed concurrently.
+	 *
+	 * @param parallelism max number of parser threads, 0 uses all available processors
+	 */
+	@DataBoundSetter
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(0, parallelism);
+	}
+
+	public int getMaxCyclesPerTest() {
+		return Math.max(0, maxCyclesPerTest);
+	}
+
+	/**
+	 * Sets how many cycles of single test are kept in the report.
+	 *
+	 * @param maxCyclesPerTest max cycles, 0 uses {@link ReportLimits#DEFAULT_MAX_CYCLES_PER_TEST}
+	 */
+	@DataBoundSetter
+	public void setMaxCyclesPerTest(int maxCyclesPerTest) {
+		this.maxCyclesPerTest = Math.max(0, maxCyclesPerTest);
+	}
+
+	public int getMaxMessagesPerCycle() {
+		return Math.max(0, maxMessagesPerCycle);
+	}
+
+	/**
+	 * Sets how many messages of single cycle are kept in the report.
+	 *
+	 * @param maxMessagesPerCycle max messages, 0 uses {@link ReportLimits#DEFAULT_MAX_MESSAGES_PER_CYCLE}
+	 */
+	@DataBoundSetter
+	public void setMaxMessagesPerCycle(int maxMessagesPerCycle) {
+		this.maxMessagesPerCycle = Math.max(0, maxMessagesPerCycle);
+	}
+
+	public long getMaxRawReportBytes() {
+		return Math.max(0, maxRawReportBytes);
+	}
+
+	/**
+	 * Sets how many bytes of raw cycle report are displayed.
+	 *
+	 * @param maxRawReportBytes max bytes, 0 uses {@link ReportLimits#DEFAULT_MAX_RAW_REPORT_BYTES}
+	 */
+	@DataBoundSetter
+	public void setMaxRawReportBytes(long maxRawReportBytes) {
+		this.maxRawReportBytes = Math.max(0, maxRawReportBytes);
+	}
+
 	@Override
 	public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace,
-						@Nonnull Launcher launcher, @Nonnull TaskListener listener) {
-		Report report = new TestInvokeApiResultParser(listener.getLogger())
-				.parse(run.getRootDir().toString() + "/report");
+						@Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException {
+		TestInvokeApiResultParser parser = new TestInvokeApiResultParser(listener.getLogger());
+		parser.setParallelism(getParallelism() > 0 ? getParallelism() : Runtime.getRuntime().availableProcessors());
+		parser.setReportBaseDir(run.getRootDir().toString());
+		parser.setLimits(new ReportLimits(getMaxCyclesPerTest(), getMaxMessagesPerCycle(), getMaxRawReportBytes()));
+		Report report = parser.parseReport(run.getRootDir().toString() + "/report");
 		DevTestResultAction devTestResultAction = new DevTestResultAction(run, report);
 		run.addAction(devTestResultAction);
+		try {
+			HistoryIndex.of(run.getParent()).record(run, report);
+		} catch (IOException e) {
+			listener.getLogger().println(Messages.DevTestTestPublisher_HistoryIndexNotUpdated(e.getMessage()));
+		}
 	}
 
 
@@ -0,0 +1,105 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.postbuild.parser;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Limits of report size applied when parsing DevTest results. Parts of cycle history over the
+ * limits are not kept in the report, so a single test with huge history cannot exhaust memory
+ * of the controller. Instances are immutable.
+ */
+public final class ReportLimits implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final int DEFAULT_MAX_CYCLES_PER_TEST = 1000;
+	public static final int DEFAULT_MAX_MESSAGES_PER_CYCLE = 100;
+	public static final long DEFAULT_MAX_RAW_REPORT_BYTES = 1024 * 1024;
+
+	private final int maxCyclesPerTest;
+	private final int maxMessagesPerCycle;
+	private final long maxRawReportBytes;
+
+	/**
+	 * Creates limits with default values.
+	 */
+	public ReportLimits() {
+		this(DEFAULT_MAX_CYCLES_PER_TEST, DEFAULT_MAX_MESSAGES_PER_CYCLE, DEFAULT_MAX_RAW_REPORT_BYTES);
+	}
+
+	/**
+	 * Constructor. Non positive values are replaced by defaults.
+	 *
+	 * @param maxCyclesPerTest    max cycles kept for single test, the later ones are spilled
+	 * @param maxMessagesPerCycle max messages kept for single cycle, the later ones are spilled
+	 * @param maxRawReportBytes   max bytes of raw cycle report displayed, the rest is cut off
+	 */
+	public ReportLimits(int maxCyclesPerTest, int maxMessagesPerCycle, long maxRawReportBytes) {
+		this.maxCyclesPerTest = maxCyclesPerTest > 0 ? maxCyclesPerTest : DEFAULT_MAX_CYCLES_PER_TEST;
+		this.maxMessagesPerCycle = maxMessagesPerCycle > 0 ? maxMessagesPerCycle : DEFAULT_MAX_MESSAGES_PER_CYCLE;
+		this.maxRawReportBytes = maxRawReportBytes > 0 ? maxRawReportBytes : DEFAULT_MAX_RAW_REPORT_BYTES;
+	}
+
+	public int getMaxCyclesPerTest() {
+		return maxCyclesPerTest;
+	}
+
+	public int getMaxMessagesPerCycle() {
+		return maxMessagesPerCycle;
+	}
+
+	public long getMaxRawReportBytes() {
+		return maxRawReportBytes;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		ReportLimits that = (ReportLimits) o;
+		return maxCyclesPerTest == that.maxCyclesPerTest
+				&& maxMessagesPerCycle == that.maxMessagesPerCycle
+				&& maxRawReportBytes == that.maxRawReportBytes;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(maxCyclesPerTest, maxMessagesPerCycle, maxRawReportBytes);
+	}
+
+	@Override
+	public String toString() {
+		return "cycles=" + maxCyclesPerTest + ",messages=" + maxMessagesPerCycle + ",rawBytes=" + maxRawReportBytes;
+	}
+}
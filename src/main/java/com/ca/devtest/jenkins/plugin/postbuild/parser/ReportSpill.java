@@ -0,0 +1,164 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.postbuild.parser;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Spill file for parts of cycle history over {@link ReportLimits}. Each spilled cycle or list of
+ * messages is written as one JSON line, so nothing over the limits is held in memory. Cycles
+ * are spilled as summary only, their raw report stays in cycles.json. The file is created when
+ * the first item is spilled; when created without path, spilled items are only counted.
+ */
+final class ReportSpill implements Closeable {
+
+	/**
+	 * Suffix of spill files, they are excluded from step fingerprint.
+	 */
+	static final String SUFFIX = ".overflow.jsonl";
+
+	private final Path path;
+
+	private Writer writer;
+
+	private boolean failed;
+
+	private int spilledCycles;
+
+	private int spilledMessages;
+
+	/**
+	 * Constructor. Spill file left by previous parse of the same report is removed.
+	 *
+	 * @param path spill file, may be null
+	 */
+	ReportSpill(Path path) {
+		this.path = path;
+		if (path != null) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				failed = true;
+			}
+		}
+	}
+
+	/**
+	 * Spills summary of cycle which is not kept in the report.
+	 *
+	 * @param cycle cycle json
+	 * @param index position of the cycle in CycleHistory
+	 */
+	void spillCycle(JsonElement cycle, int index) {
+		spilledCycles++;
+		JsonObject summary = new JsonObject();
+		summary.addProperty("index", index);
+		if (cycle != null && cycle.isJsonObject()) {
+			for (String field : new String[]{"cycleUniqueId", "cycle", "endedState", "elapsedTimeInMillSec"}) {
+				JsonElement value = cycle.getAsJsonObject().get(field);
+				if (value != null) {
+					summary.add(field, value);
+				}
+			}
+		}
+		write(summary);
+	}
+
+	/**
+	 * Spills messages of cycle which are not kept in the report.
+	 *
+	 * @param cycleId  id of the cycle
+	 * @param messages messages over the limit
+	 */
+	void spillMessages(String cycleId, List<String> messages) {
+		spilledMessages += messages.size();
+		JsonObject item = new JsonObject();
+		item.addProperty("cycleUniqueId", cycleId);
+		JsonArray array = new JsonArray();
+		messages.forEach(array::add);
+		item.add("messages", array);
+		write(item);
+	}
+
+	int getSpilledCycles() {
+		return spilledCycles;
+	}
+
+	int getSpilledMessages() {
+		return spilledMessages;
+	}
+
+	/**
+	 * @return spill file or null if nothing was written to it
+	 */
+	Path getPath() {
+		return writer != null && !failed ? path : null;
+	}
+
+	/**
+	 * @return true if the spill file could not be written
+	 */
+	boolean isFailed() {
+		return failed;
+	}
+
+	private void write(JsonElement item) {
+		if (path == null || failed) {
+			return;
+		}
+		try {
+			if (writer == null) {
+				writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+			}
+			writer.write(item.toString());
+			writer.write('\n');
+		} catch (IOException e) {
+			failed = true;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				failed = true;
+			}
+		}
+	}
+}
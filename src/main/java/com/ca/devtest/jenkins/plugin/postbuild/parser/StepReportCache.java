@@ -0,0 +1,226 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.parser;
+
+import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
+import com.ca.devtest.jenkins.plugin.postbuild.report.ReportSnapshot;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of reports parsed from single step directory. Cached report is reused as long as no report
+ * file the parser reads from the step directory was added, removed or changed its size or
+ * modification time, so the same step is not parsed again by every build step and by the publisher.
+ * Reports are kept as snapshots and every lookup gets its own copy, because callers set their
+ * build into the report.
+ */
+final class StepReportCache {
+
+	static final StepReportCache INSTANCE = new StepReportCache(64);
+
+	private static final String[] SUITE_FILES = {"suite.json"};
+
+	private static final String[] CASE_FILES = {"test.json", "cycles.json"};
+
+	private final Map<String, Entry> entries;
+
+	StepReportCache(final int maxEntries) {
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Gets copy of cached report of step.
+	 *
+	 * @param key         key of the step directory
+	 * @param fingerprint current fingerprint of the step directory
+	 * @return report or null if the step was not parsed yet or changed since
+	 */
+	Report get(String key, long fingerprint) {
+		byte[] snapshot;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry == null || entry.fingerprint != fingerprint) {
+				return null;
+			}
+			snapshot = entry.snapshot.get();
+			if (snapshot == null) {
+				entries.remove(key);
+				return null;
+			}
+		}
+		try {
+			return ReportSnapshot.read(new ByteArrayInputStream(snapshot));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Caches snapshot of report, later changes of the report are not seen by the cache.
+	 *
+	 * @param key         key of the step directory
+	 * @param fingerprint fingerprint of the step directory taken before it was parsed
+	 * @param report      report of the step
+	 */
+	void put(String key, long fingerprint, Report report) {
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		try {
+			ReportSnapshot.write(report, snapshot);
+		} catch (IOException e) {
+			return;
+		}
+		synchronized (this) {
+			entries.put(key, new Entry(fingerprint, snapshot.toByteArray()));
+		}
+	}
+
+	/**
+	 * Computes fingerprint of step directory from paths, sizes and modification times of the
+	 * report files the parser reads, plain or compressed. Other files, like spill files written by
+	 * the parser itself, are not included.
+	 *
+	 * @param stepDir step directory
+	 * @return fingerprint
+	 * @throws IOException if the step directory cannot be read
+	 */
+	static long fingerprint(String stepDir) throws IOException {
+		Path root = Paths.get(stepDir);
+		if (!Files.isDirectory(root)) {
+			throw new NoSuchFileException(stepDir);
+		}
+		Fingerprint fingerprint = new Fingerprint(root);
+		for (Path suiteDir : getDirs(root.resolve("suites"))) {
+			fingerprint.addDir(suiteDir, SUITE_FILES);
+			for (Path caseDir : getDirs(suiteDir.resolve("tests"))) {
+				fingerprint.addDir(caseDir, CASE_FILES);
+			}
+		}
+		for (Path caseDir : getDirs(root.resolve("tests"))) {
+			fingerprint.addDir(caseDir, CASE_FILES);
+		}
+		return fingerprint.get();
+	}
+
+	private static List<Path> getDirs(Path dir) {
+		File[] files = dir.toFile().listFiles(File::isDirectory);
+		if (files == null) {
+			return Collections.emptyList();
+		}
+		List<Path> dirs = new ArrayList<>(files.length);
+		for (File file : files) {
+			dirs.add(file.toPath());
+		}
+		return dirs;
+	}
+
+	private static final class Fingerprint {
+
+		private final Path root;
+
+		private final List<String> entries = new ArrayList<>();
+
+		Fingerprint(Path root) {
+			this.root = root;
+		}
+
+		void addDir(Path dir, String[] files) throws IOException {
+			add(dir, 0, 0);
+			for (String file : files) {
+				addFile(dir.resolve(file));
+				addFile(dir.resolve(file + TestInvokeApiResultParser.COMPRESSED_SUFFIX));
+			}
+		}
+
+		private void addFile(Path file) throws IOException {
+			BasicFileAttributes attrs;
+			try {
+				attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			} catch (NoSuchFileException e) {
+				return;
+			}
+			add(file, attrs.size(), attrs.lastModifiedTime().toMillis());
+		}
+
+		private void add(Path path, long size, long lastModified) {
+			entries.add(root.relativize(path) + "\u0000" + size + "\u0000" + lastModified);
+		}
+
+		long get() throws IOException {
+			MessageDigest digest;
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IOException(e);
+			}
+			// order of directories is not defined, so entries are sorted before they are hashed
+			Collections.sort(entries);
+			for (String entry : entries) {
+				digest.update(entry.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			return ByteBuffer.wrap(digest.digest()).getLong();
+		}
+	}
+
+	private static final class Entry {
+
+		private final long fingerprint;
+
+		private final SoftReference<byte[]> snapshot;
+
+		Entry(long fingerprint, byte[] snapshot) {
+			this.fingerprint = fingerprint;
+			this.snapshot = new SoftReference<>(snapshot);
+		}
+	}
+
+}
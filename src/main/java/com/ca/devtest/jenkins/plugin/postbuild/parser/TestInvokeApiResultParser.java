@@ -31,17 +31,43 @@ import com.ca.devtest.jenkins.plugin.postbuild.report.TestCase;
 import com.ca.devtest.jenkins.plugin.postbuild.report.TestCycle;
 import com.ca.devtest.jenkins.plugin.postbuild.report.TestSuite;
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.io.IOUtils;
 
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Result parser implementation for Test invoke API.
@@ -50,25 +76,333 @@ import java.util.stream.Collectors;
  */
 public class TestInvokeApiResultParser implements Parser {
 
+	/**
+	 * Suffix of report files stored gzipped.
+	 */
+	public static final String COMPRESSED_SUFFIX = ".gz";
+
+	/**
+	 * Threads parsing test cases, shared by all parsers so concurrent builds do not start more
+	 * threads than there are processors. Idle threads are stopped.
+	 */
+	private static final ExecutorService PARSE_EXECUTOR = createExecutor();
+
 	private PrintStream logger;
 
 	private JsonParser jparser = new JsonParser();
 
-	private Gson prettyParser = new GsonBuilder().setPrettyPrinting().create();
+	private int parallelism = 1;
+
+	private Path reportBaseDir;
+
+	private StepReportCache stepCache = StepReportCache.INSTANCE;
+
+	private ReportLimits limits = new ReportLimits();
 
 
 	public TestInvokeApiResultParser(PrintStream logger) {
 		this.logger = logger;
 	}
 
+	/**
+	 * Sets how many test case directories are parsed concurrently. Results are always merged in
+	 * the order of directories, so the report does not depend on parallelism.
+	 *
+	 * @param parallelism max number of threads used for parsing, 1 parses directories one by one
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Sets directory the parsed cycles refer their raw reports from. Cycles keep only path of
+	 * cycles.json relative to this directory, so the report stays valid when the directory moves.
+	 * When not set, absolute paths are kept.
+	 *
+	 * @param reportBaseDir usually root directory of the build
+	 */
+	public void setReportBaseDir(String reportBaseDir) {
+		this.reportBaseDir = reportBaseDir == null ? null : Paths.get(reportBaseDir).toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Sets limits of cycle history kept in the report. Cycles and messages over the limits are
+	 * written to spill file next to cycles.json and only their count is kept in the report.
+	 *
+	 * @param limits limits, null for defaults
+	 */
+	public void setLimits(ReportLimits limits) {
+		this.limits = limits == null ? new ReportLimits() : limits;
+	}
+
+	/**
+	 * Reads single cycle from cycles.json and pretty prints it. Cycles before the requested one
+	 * are skipped without being parsed and the cycle itself is printed as it is read, so only
+	 * the printed part is held in memory.
+	 *
+	 * @param reportPath path to cycles.json
+	 * @param index      position of the cycle in CycleHistory
+	 * @param maxBytes   max size of printed cycle, the rest is replaced by truncation marker;
+	 *                   non positive value uses {@link ReportLimits#DEFAULT_MAX_RAW_REPORT_BYTES}
+	 *
+	 * @return pretty printed cycle or null if there is no cycle at given position
+	 * @throws IOException if the report cannot be read
+	 */
+	public static String readRawCycle(String reportPath, int index, long maxBytes) throws IOException {
+		long limit = maxBytes > 0 ? maxBytes : ReportLimits.DEFAULT_MAX_RAW_REPORT_BYTES;
+		try (JsonReader reader = new JsonReader(openReader(reportPath))) {
+			reader.setLenient(true);
+			List<String> cycles = readEmbeddedArray(reader, "CycleHistory", (itemReader, itemIndex) -> {
+				if (itemIndex != index) {
+					itemReader.skipValue();
+					return null;
+				}
+				return prettyPrint(itemReader, limit);
+			});
+			return cycles.isEmpty() ? null : cycles.get(0);
+		}
+	}
+
+	/**
+	 * Prints value the reader is positioned at the same way as pretty printing {@link Gson} does.
+	 * The whole value is consumed, output over the limit is dropped.
+	 */
+	private static String prettyPrint(JsonReader reader, long maxBytes) throws IOException {
+		LimitedWriter out = new LimitedWriter(maxBytes);
+		JsonWriter writer = new JsonWriter(out);
+		writer.setIndent("  ");
+		writer.setLenient(true);
+		writer.setHtmlSafe(true);
+		writer.setSerializeNulls(false);
+		int depth = 0;
+		do {
+			switch (reader.peek()) {
+				case BEGIN_ARRAY:
+					reader.beginArray();
+					writer.beginArray();
+					depth++;
+					break;
+				case END_ARRAY:
+					reader.endArray();
+					writer.endArray();
+					depth--;
+					break;
+				case BEGIN_OBJECT:
+					reader.beginObject();
+					writer.beginObject();
+					depth++;
+					break;
+				case END_OBJECT:
+					reader.endObject();
+					writer.endObject();
+					depth--;
+					break;
+				case NAME:
+					writer.name(reader.nextName());
+					break;
+				case STRING:
+					writer.value(reader.nextString());
+					break;
+				case NUMBER:
+					writer.jsonValue(reader.nextString());
+					break;
+				case BOOLEAN:
+					writer.value(reader.nextBoolean());
+					break;
+				case NULL:
+					reader.nextNull();
+					writer.nullValue();
+					break;
+				default:
+					throw new EOFException("Unexpected end of cycle report");
+			}
+		} while (depth > 0);
+		writer.flush();
+		if (out.isTruncated()) {
+			return out + "\n" + Messages.DevTestParser_RawReportTruncated(maxBytes);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Writer keeping output up to given number of UTF-8 bytes, the rest is dropped.
+	 */
+	private static final class LimitedWriter extends Writer {
+
+		private final StringBuilder buffer = new StringBuilder();
+
+		private final long maxBytes;
+
+		private long bytes;
+
+		private boolean truncated;
+
+		LimitedWriter(long maxBytes) {
+			this.maxBytes = maxBytes;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			for (int i = off; i < off + len && !truncated; i++) {
+				char c = cbuf[i];
+				int size = c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+				if (bytes + size > maxBytes) {
+					truncated = true;
+				} else {
+					buffer.append(c);
+					bytes += size;
+				}
+			}
+		}
+
+		boolean isTruncated() {
+			return truncated;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String toString() {
+			return buffer.toString();
+		}
+	}
+
+	void setStepCache(StepReportCache stepCache) {
+		this.stepCache = stepCache;
+	}
+
+	/**
+	 * Parses report of all steps in root directory. When the thread is interrupted, the interrupt
+	 * flag is kept and parsing ends with {@link CancellationException}.
+	 *
+	 * @see #parseReport(String)
+	 */
 	@Override
 	public Report parse(String rootDir) {
+		try {
+			return parseReport(rootDir);
+		} catch (InterruptedException e) {
+			throw cancelled(e);
+		}
+	}
+
+	/**
+	 * Parses report of all steps in root directory. Steps parsed before which did not change
+	 * since are taken from cache, only the others are parsed.
+	 *
+	 * @param rootDir report directory path
+	 * @return report
+	 * @throws InterruptedException if the thread was interrupted while test cases were parsed
+	 */
+	public Report parseReport(String rootDir) throws InterruptedException {
 		logger.println(Messages.DevTestParser_Start());
-		return new Report(getSuites(rootDir), getStandAloneTests(rootDir));
+		List<String> stepDirs = getDirs(rootDir);
+		List<Report> stepReports = new ArrayList<>(stepDirs.size());
+		List<String> changedDirs = new ArrayList<>();
+		for (String stepDir : stepDirs) {
+			Report cached = getCachedStep(stepDir);
+			if (cached != null) {
+				logger.println(Messages.DevTestParser_StepCached(stepDir));
+			} else {
+				changedDirs.add(stepDir);
+			}
+			stepReports.add(cached);
+		}
+
+		Iterator<Report> parsed = parseSteps(changedDirs).iterator();
+		List<TestSuite> suites = new ArrayList<>();
+		List<TestCase> standAloneCases = new ArrayList<>();
+		for (Report stepReport : stepReports) {
+			Report report = stepReport != null ? stepReport : parsed.next();
+			suites.addAll(report.getSuites());
+			standAloneCases.addAll(report.getStandAloneCases());
+		}
+		return new Report(suites, standAloneCases);
+	}
+
+	public Report parseStep(String stepDir) throws InterruptedException {
+		Report cached = getCachedStep(stepDir);
+		return cached != null ? cached : parseSteps(Collections.singletonList(stepDir)).get(0);
+	}
+
+	private Report getCachedStep(String stepDir) {
+		try {
+			return stepCache.get(getStepKey(stepDir), StepReportCache.fingerprint(stepDir));
+		} catch (IOException e) {
+			return null;
+		}
 	}
 
-	public Report parseStep(String stepDir) {
-		return new Report(getSuiteForStep(stepDir), getStandAloneTestForStep(stepDir));
+	/**
+	 * Step is cached together with directory the cycles refer their raw reports from and with
+	 * limits, because the references and kept cycles differ for different settings.
+	 */
+	private String getStepKey(String stepDir) {
+		return Paths.get(stepDir).toAbsolutePath().normalize() + "|" + reportBaseDir + "|" + limits;
+	}
+
+	/**
+	 * Parses steps and caches report of each of them. Suites and test cases of all the steps are
+	 * parsed together, so steps with just a few cases do not limit the parallelism.
+	 *
+	 * @return reports of the steps in order of directories
+	 */
+	private List<Report> parseSteps(List<String> stepDirs) throws InterruptedException {
+		if (stepDirs.isEmpty()) {
+			return Collections.emptyList();
+		}
+		long[] fingerprints = new long[stepDirs.size()];
+		List<List<String>> suiteDirsByStep = new ArrayList<>(stepDirs.size());
+		List<List<String>> testDirsByStep = new ArrayList<>(stepDirs.size());
+		List<String> allSuiteDirs = new ArrayList<>();
+		List<String> allTestDirs = new ArrayList<>();
+		for (int i = 0; i < stepDirs.size(); i++) {
+			String stepDir = stepDirs.get(i);
+			// fingerprint is taken before parsing, so changes made meanwhile invalidate the entry
+			try {
+				fingerprints[i] = StepReportCache.fingerprint(stepDir);
+			} catch (IOException e) {
+				fingerprints[i] = -1;
+			}
+			List<String> suiteDirs = getDirs(stepDir + "/suites");
+			suiteDirsByStep.add(suiteDirs);
+			allSuiteDirs.addAll(suiteDirs);
+			List<String> testDirs = getDirs(stepDir + "/tests");
+			testDirsByStep.add(testDirs);
+			allTestDirs.addAll(testDirs);
+		}
+
+		logger.println(Messages.DevTestParser_StartSuite());
+		List<TestSuite> allSuites = parseSuiteDirs(allSuiteDirs);
+		logger.println(Messages.DevTestParser_StartCases());
+		List<TestCase> allTestCases = parseCaseDirs(allTestDirs);
+
+		List<Report> reports = new ArrayList<>(stepDirs.size());
+		int suiteOffset = 0;
+		int testOffset = 0;
+		for (int i = 0; i < stepDirs.size(); i++) {
+			int suiteCount = suiteDirsByStep.get(i).size();
+			List<TestSuite> suites = allSuites.subList(suiteOffset, suiteOffset + suiteCount).stream()
+					.filter(Objects::nonNull).collect(Collectors.toList());
+			suiteOffset += suiteCount;
+			List<String> testDirs = testDirsByStep.get(i);
+			List<TestCase> testCases = collectCases(testDirs,
+					allTestCases.subList(testOffset, testOffset + testDirs.size()));
+			testOffset += testDirs.size();
+
+			Report report = new Report(suites, testCases);
+			if (fingerprints[i] != -1) {
+				stepCache.put(getStepKey(stepDirs.get(i)), fingerprints[i], report);
+			}
+			reports.add(report);
+		}
+		return reports;
 	}
 
 	@Override
@@ -76,13 +410,33 @@ public class TestInvokeApiResultParser implements Parser {
 		if (suiteCasesJson == null) {
 			return Collections.emptyList();
 		}
-		JsonElement jsonTree = null;
-		try {
-			jsonTree = jparser.parse(suiteCasesJson);
+		try (JsonReader reader = new JsonReader(new StringReader(suiteCasesJson))) {
+			reader.setLenient(true);
+			return getCasesIds(reader);
+		} catch (Exception ex) {
+			logger.println(Messages.DevTestParser_SuiteIDNotParsed());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Streaming variant of {@link #getCasesIdsFromSuite(String)} reading the suite response from file.
+	 *
+	 * @param reportPath path to the suite response file
+	 *
+	 * @return list of cases ids.
+	 */
+	public List<String> getCasesIdsFromSuiteReport(String reportPath) {
+		try (JsonReader reader = openReport(reportPath)) {
+			return reader == null ? Collections.emptyList() : getCasesIds(reader);
 		} catch (Exception ex) {
 			logger.println(Messages.DevTestParser_SuiteIDNotParsed());
+			return Collections.emptyList();
 		}
-		List<TestCase> casesList = parseCases(jsonTree, Collections.emptyList());
+	}
+
+	private List<String> getCasesIds(JsonReader reader) throws IOException {
+		List<TestCase> casesList = readCases(reader, Collections.emptyList());
 		return casesList.stream().map(testCase -> testCase.getTestCaseId()).collect(
 				Collectors.toList());
 	}
@@ -110,6 +464,13 @@ public class TestInvokeApiResultParser implements Parser {
 
 
 	TestCase parseSimpleCase(JsonElement report, List<TestCycle> cycles) {
+		return parseSimpleCase(report, cycles, new ReportSpill(null));
+	}
+
+	/**
+	 * Parses test case with cycles parsed before, cycles spilled meanwhile are counted in the case.
+	 */
+	TestCase parseSimpleCase(JsonElement report, List<TestCycle> cycles, ReportSpill spill) {
 		if (report != null && report.isJsonObject()) {
 			JsonObject caseObject = report.getAsJsonObject();
 
@@ -121,6 +482,8 @@ public class TestInvokeApiResultParser implements Parser {
 					.withStart(safelyGetStringValue(caseObject, "startTime"))
 					.withStop(safelyGetStringValue(caseObject, "endTime"))
 					.withCycles(cycles)
+					.withTruncation(spill.getSpilledCycles(),
+							spill.getPath() == null ? null : toReportReference(spill.getPath().toString()))
 					.build();
 		}
 		return null;
@@ -147,6 +510,14 @@ public class TestInvokeApiResultParser implements Parser {
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Streaming variant of {@link #parseCases(JsonElement, List)}, only one case is held in memory
+	 * at once.
+	 */
+	List<TestCase> readCases(JsonReader reader, List<TestCycle> cycles) throws IOException {
+		return readEmbeddedArray(reader, "Tests", (itemReader, index) -> parseCase(jparser.parse(itemReader), cycles));
+	}
+
 	TestCase parseCase(JsonElement caseElement, List<TestCycle> cycles) {
 		if (caseElement == null || !caseElement.isJsonObject()) {
 			return null;
@@ -168,8 +539,9 @@ public class TestInvokeApiResultParser implements Parser {
 				if (cyclesElement != null && cyclesElement.isJsonArray()) {
 					JsonArray cyclesArray = cyclesElement.getAsJsonArray();
 					List<TestCycle> cycles = new ArrayList<>();
-					for (JsonElement cycle : cyclesArray) {
-						TestCycle testCycle = parseCycle(cycle);
+					ReportSpill spill = new ReportSpill(null);
+					for (int index = 0; index < cyclesArray.size(); index++) {
+						TestCycle testCycle = parseCycle(cyclesArray.get(index), null, index, spill);
 						if (testCycle != null) {
 							cycles.add(testCycle);
 						}
@@ -181,20 +553,122 @@ public class TestInvokeApiResultParser implements Parser {
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Streaming variant of {@link #parseCycles(JsonElement)}, only one cycle is held in memory at once.
+	 *
+	 * @param reader     reader of cycles.json
+	 * @param reportPath path of cycles.json the cycles refer their raw report to, may be null
+	 */
+	List<TestCycle> readCycles(JsonReader reader, String reportPath) throws IOException {
+		return readCycles(reader, reportPath, new ReportSpill(null));
+	}
+
+	/**
+	 * Streaming variant of {@link #parseCycles(JsonElement)} spilling cycles and messages over
+	 * the limits.
+	 *
+	 * @param reader     reader of cycles.json
+	 * @param reportPath path of cycles.json the cycles refer their raw report to, may be null
+	 * @param spill      spill the cycles and messages over limits are written to
+	 */
+	List<TestCycle> readCycles(JsonReader reader, String reportPath, ReportSpill spill) throws IOException {
+		return readEmbeddedArray(reader, "CycleHistory",
+				(itemReader, index) -> parseCycle(jparser.parse(itemReader), reportPath, index, spill));
+	}
+
+	/**
+	 * Reads one item of the array, reader is positioned at the start of the item and the item has
+	 * to be consumed completely.
+	 */
+	@FunctionalInterface
+	private interface ItemReader<T> {
+		T read(JsonReader reader, int index) throws IOException;
+	}
+
+	/**
+	 * Reads items of array in _embedded object of the report one by one. Other fields of the report
+	 * are skipped without being parsed.
+	 */
+	private static <T> List<T> readEmbeddedArray(JsonReader reader, String arrayName, ItemReader<T> itemParser)
+			throws IOException {
+		List<T> items = new ArrayList<>();
+		try {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				return items;
+			}
+		} catch (EOFException ex) {
+			// empty report
+			return items;
+		}
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if ("_embedded".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+				reader.beginObject();
+				while (reader.hasNext()) {
+					if (arrayName.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+						reader.beginArray();
+						for (int index = 0; reader.hasNext(); index++) {
+							T item = itemParser.read(reader, index);
+							if (item != null) {
+								items.add(item);
+							}
+						}
+						reader.endArray();
+					} else {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return items;
+	}
+
 	TestCycle parseCycle(JsonElement cycleElement) {
+		return parseCycle(cycleElement, null, -1, new ReportSpill(null));
+	}
+
+	/**
+	 * Parses cycle. Raw report of the cycle is not kept, the cycle only refers its position
+	 * in cycles.json, which is read again when the raw report is displayed. Cycles and messages
+	 * over the limits are spilled instead.
+	 *
+	 * @param cycleElement cycle json
+	 * @param reportPath   path of cycles.json, may be null
+	 * @param index        position of the cycle in CycleHistory
+	 * @param spill        spill the cycles and messages over limits are written to
+	 * @return cycle or null if the cycle cannot be parsed or was spilled
+	 */
+	TestCycle parseCycle(JsonElement cycleElement, String reportPath, int index, ReportSpill spill) {
 		if (cycleElement == null || !cycleElement.isJsonObject()) {
 			return null;
 		}
+		if (index >= limits.getMaxCyclesPerTest()) {
+			spill.spillCycle(cycleElement, index);
+			return null;
+		}
 		JsonObject cycle = cycleElement.getAsJsonObject();
+		String id = safelyGetStringValue(cycle, "cycleUniqueId");
+		List<String> messages = safelyGetStringList(cycle.get("_embedded"), "messages");
+		int truncatedMessages = Math.max(0, messages.size() - limits.getMaxMessagesPerCycle());
+		if (truncatedMessages > 0) {
+			spill.spillMessages(id, messages.subList(limits.getMaxMessagesPerCycle(), messages.size()));
+			messages = new ArrayList<>(messages.subList(0, limits.getMaxMessagesPerCycle()));
+		}
 		return new TestCycle.TestCycleBuilder()
-				.withId(safelyGetStringValue(cycle, "cycleUniqueId"))
+				.withId(id)
 				.withCycle(safelyGetStringValue(cycle, "cycle"))
 				.withElapsedTime(safelyGetStringValue(cycle, "elapsedTimeInMillSec"))
 				.withStart(safelyGetStringValue(cycle, "startTime"))
 				.withStop(safelyGetStringValue(cycle, "endTime"))
 				.withState(safelyGetStringValue(cycle, "endedState"))
-				.withMessages(safelyGetStringList(cycle.get("_embedded"), "messages"))
-				.withRawCycleReport(prettyParser.toJson(cycle))
+				.withMessages(messages)
+				.withTruncatedMessages(truncatedMessages)
+				.withRawCycleReportReference(reportPath, index)
+				.withRawCycleReportLimit(limits.getMaxRawReportBytes())
 				.build();
 	}
 
@@ -229,15 +703,24 @@ public class TestInvokeApiResultParser implements Parser {
 
 
 	List<TestCycle> parseCyclesForTest(String path) {
-		String jsonString = readReport(path);
-		JsonElement report = null;
-		try {
-			report = jparser.parse(jsonString);
+		return parseCyclesForTest(path, new ReportSpill(null));
+	}
+
+	List<TestCycle> parseCyclesForTest(String path, ReportSpill spill) {
+		try (JsonReader reader = openReport(path)) {
+			return reader == null ? new ArrayList<>() : readCycles(reader, toReportReference(path), spill);
 		} catch (Exception ex) {
 			logger.println(Messages.DevTestParser_CycleNotParsed());
+			return new ArrayList<>();
 		}
-		return parseCycles(report);
+	}
 
+	private String toReportReference(String path) {
+		Path reportPath = Paths.get(path).toAbsolutePath().normalize();
+		if (reportBaseDir != null && reportPath.startsWith(reportBaseDir)) {
+			return reportBaseDir.relativize(reportPath).toString().replace(File.separatorChar, '/');
+		}
+		return reportPath.toString();
 	}
 
 	TestCase parseCaseForTest(String caseDir) {
@@ -248,34 +731,64 @@ public class TestInvokeApiResultParser implements Parser {
 		} catch (Exception ex) {
 			logger.println(Messages.DevTestParser_CaseNotParsed());
 		}
-		List<TestCycle> cycles = parseCyclesForTest(caseDir + "/cycles.json");
-		return parseSimpleCase(report, cycles);
+		try (ReportSpill spill = new ReportSpill(Paths.get(caseDir, "cycles" + ReportSpill.SUFFIX))) {
+			List<TestCycle> cycles = parseCyclesForTest(caseDir + "/cycles.json", spill);
+			if (spill.getSpilledCycles() > 0 || spill.getSpilledMessages() > 0) {
+				logger.println(Messages.DevTestParser_CyclesTruncated(caseDir, spill.getSpilledCycles(),
+						spill.getSpilledMessages()));
+			}
+			if (spill.isFailed()) {
+				logger.println(Messages.DevTestParser_SpillNotWritten(caseDir));
+			}
+			return parseSimpleCase(report, cycles, spill);
+		}
 	}
 
 	List<TestSuite> getSuites(String rootDir) {
 		logger.println(Messages.DevTestParser_StartSuite());
-		List<String> stepDirs = getDirs(rootDir);
-		List<TestSuite> suites = new ArrayList<>();
-		for (String stepDir : stepDirs) {
-			suites.addAll(getSuiteForStep(stepDir));
+		List<String> suiteDirs = new ArrayList<>();
+		for (String stepDir : getDirs(rootDir)) {
+			suiteDirs.addAll(getDirs(stepDir + "/suites"));
+		}
+		try {
+			return parseSuiteDirs(suiteDirs).stream().filter(Objects::nonNull).collect(Collectors.toList());
+		} catch (InterruptedException e) {
+			throw cancelled(e);
 		}
-		return suites;
 	}
 
-	private List<TestSuite> getSuiteForStep(String stepDir) {
-		List<String> suiteDirs = getDirs(stepDir + "/suites");
-		List<TestSuite> resSuites = new ArrayList<>();
+	private static CancellationException cancelled(InterruptedException e) {
+		Thread.currentThread().interrupt();
+		CancellationException cancelled = new CancellationException(Messages.DevTestParser_Interrupted());
+		cancelled.initCause(e);
+		return cancelled;
+	}
+
+	/**
+	 * Parses suites in given directories. Test cases of all the suites are parsed together, so
+	 * suites with just a few cases do not limit the parallelism.
+	 *
+	 * @return parsed suites in order of directories, null for suite which could not be parsed
+	 */
+	private List<TestSuite> parseSuiteDirs(List<String> suiteDirs) throws InterruptedException {
+		List<List<String>> testDirsBySuite = new ArrayList<>(suiteDirs.size());
+		List<String> allTestDirs = new ArrayList<>();
 		for (String suiteDir : suiteDirs) {
 			List<String> testDirs = getDirs(suiteDir + "/tests");
-			List<TestCase> testCases = new ArrayList<>();
-			for (String dirPath : testDirs) {
-				TestCase testCase = parseCaseForTest(dirPath);
-				if (testCase != null) {
-					testCases.add(testCase);
-				} else {
-					logger.println(Messages.DevTestParser_CaseNotParsedIn(dirPath));
-				}
-			}
+			testDirsBySuite.add(testDirs);
+			allTestDirs.addAll(testDirs);
+		}
+		List<TestCase> allTestCases = parseCaseDirs(allTestDirs);
+
+		List<TestSuite> resSuites = new ArrayList<>();
+		int offset = 0;
+		for (int i = 0; i < suiteDirs.size(); i++) {
+			String suiteDir = suiteDirs.get(i);
+			List<String> testDirs = testDirsBySuite.get(i);
+			List<TestCase> testCases = collectCases(testDirs,
+					allTestCases.subList(offset, offset + testDirs.size()));
+			offset += testDirs.size();
+
 			String jsonString = readReport(suiteDir + "/suite.json");
 			JsonElement report = null;
 			try {
@@ -284,35 +797,89 @@ public class TestInvokeApiResultParser implements Parser {
 				logger.println(Messages.DevTestParser_SuiteNotParsed());
 			}
 			TestSuite suite = parseSuite(report, testCases);
-			if (suite != null) {
-				resSuites.add(suite);
-			} else {
+			if (suite == null) {
 				logger.println(Messages.DevTestParser_SuiteNotParsedIn(suiteDir));
 			}
+			resSuites.add(suite);
 		}
 		return resSuites;
 	}
 
 
-	private List<TestCase> getStandAloneTests(String rootDir) {
-		logger.println(Messages.DevTestParser_StartCases());
-		List<String> stepDirs = getDirs(rootDir);
-		List<TestCase> testCases = new ArrayList<>();
-		for (String stepDir : stepDirs) {
-			testCases.addAll(getStandAloneTestForStep(stepDir));
+	/**
+	 * Parses test case directories, concurrently when parallelism allows it. Directories are taken
+	 * one by one by at most parallelism tasks on threads shared by all parsers.
+	 *
+	 * @return parsed cases in order of directories, null for case which could not be parsed
+	 * @throws InterruptedException if the thread was interrupted, parsing of remaining cases is cancelled
+	 */
+	private List<TestCase> parseCaseDirs(List<String> caseDirs) throws InterruptedException {
+		TestCase[] cases = new TestCase[caseDirs.size()];
+		if (parallelism <= 1 || caseDirs.size() <= 1) {
+			for (int i = 0; i < cases.length; i++) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				cases[i] = parseCaseForTest(caseDirs.get(i));
+			}
+			return Arrays.asList(cases);
+		}
+		AtomicInteger next = new AtomicInteger();
+		AtomicBoolean cancelled = new AtomicBoolean();
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int i = Math.min(parallelism, cases.length); i > 0; i--) {
+			tasks.add(PARSE_EXECUTOR.submit(() -> {
+				for (int index = next.getAndIncrement(); index < cases.length && !cancelled.get();
+						index = next.getAndIncrement()) {
+					cases[index] = parseCaseForTest(caseDirs.get(index));
+				}
+			}));
+		}
+		try {
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			cancel(tasks, cancelled);
+			throw e;
+		} catch (ExecutionException e) {
+			cancel(tasks, cancelled);
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return Arrays.asList(cases);
+	}
+
+	private static void cancel(List<Future<?>> tasks, AtomicBoolean cancelled) {
+		cancelled.set(true);
+		for (Future<?> task : tasks) {
+			task.cancel(true);
 		}
-		return testCases;
 	}
 
-	private List<TestCase> getStandAloneTestForStep(String stepDir) {
+	private static ExecutorService createExecutor() {
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "TestInvokeApiResultParser-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private List<TestCase> collectCases(List<String> caseDirs, List<TestCase> parsedCases) {
 		List<TestCase> resTests = new ArrayList<>();
-		List<String> testDirs = getDirs(stepDir + "/tests");
-		for (String dirPath : testDirs) {
-			TestCase testCase = parseCaseForTest(dirPath);
+		for (int i = 0; i < caseDirs.size(); i++) {
+			TestCase testCase = parsedCases.get(i);
 			if (testCase != null) {
 				resTests.add(testCase);
 			} else {
-				logger.println(Messages.DevTestParser_CaseNotParsedIn(dirPath));
+				logger.println(Messages.DevTestParser_CaseNotParsedIn(caseDirs.get(i)));
 			}
 		}
 		return resTests;
@@ -322,6 +889,9 @@ public class TestInvokeApiResultParser implements Parser {
 		List<String> dirs = new ArrayList<>();
 		File[] files = new File(dir).listFiles();
 		if (files != null) {
+			// shorter names first, so case2 comes before case10
+			Arrays.sort(files, Comparator.comparingInt((File file) -> file.getName().length())
+					.thenComparing(File::getName));
 			for (File file : files) {
 				if (file.isDirectory()) {
 					dirs.add(file.getPath());
@@ -332,14 +902,55 @@ public class TestInvokeApiResultParser implements Parser {
 	}
 
 
-	private synchronized String readReport(String reportPath) {
+	/**
+	 * Reads report file, gzipped report with {@link #COMPRESSED_SUFFIX} is read when the plain one
+	 * does not exist.
+	 *
+	 * @param reportPath path to the plain report file
+	 * @return content of the report or empty string if the report cannot be read
+	 */
+	public String readReport(String reportPath) {
 		String content = "";
-		try {
-			content = new String(Files.readAllBytes(Paths.get(reportPath)), StandardCharsets.UTF_8);
+		try (Reader reader = openReader(reportPath)) {
+			content = IOUtils.toString(reader);
 		} catch (IOException e) {
 			logger.println(Messages.DevTestParser_FailedReadFile(reportPath));
 		}
 		return content;
 	}
 
+	/**
+	 * Opens report file for streaming parse.
+	 *
+	 * @return reader or null if the report cannot be read
+	 */
+	private JsonReader openReport(String reportPath) {
+		try {
+			JsonReader reader = new JsonReader(openReader(reportPath));
+			reader.setLenient(true);
+			return reader;
+		} catch (IOException e) {
+			logger.println(Messages.DevTestParser_FailedReadFile(reportPath));
+			return null;
+		}
+	}
+
+	private static Reader openReader(String reportPath) throws IOException {
+		Path path = Paths.get(reportPath);
+		Path compressed = Paths.get(reportPath + COMPRESSED_SUFFIX);
+		InputStream in;
+		if (Files.notExists(path) && Files.exists(compressed)) {
+			InputStream compressedIn = Files.newInputStream(compressed);
+			try {
+				in = new GZIPInputStream(compressedIn);
+			} catch (IOException e) {
+				compressedIn.close();
+				throw e;
+			}
+		} else {
+			in = Files.newInputStream(path);
+		}
+		return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+	}
+
 }
@@ -32,6 +32,9 @@ import hudson.tasks.test.AbstractTestResultAction;
 import hudson.tasks.test.TabulatedResult;
 import hudson.tasks.test.TestResult;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import jenkins.model.Jenkins;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
@@ -51,6 +54,12 @@ public abstract class AbstractReport extends TabulatedResult implements ModelObj
 
 	protected AbstractReport parent;
 
+	/**
+	 * Index of children, built on first lookup. It is not stored, so it is built again after
+	 * the report is loaded.
+	 */
+	private transient volatile ChildIndex childIndex;
+
 	public AbstractReport(String name) {
 		this.name = name;
 	}
@@ -100,27 +109,7 @@ public abstract class AbstractReport extends TabulatedResult implements ModelObj
 	 */
 	@Override
 	public Object getDynamic(String token, StaplerRequest req, StaplerResponse rsp) {
-		for (TestResult result : this.getChildren()) {
-			//for TestCase uri identifier is id
-			if (result instanceof TestCase) {
-				if (token.equals(((TestCase) result).getTestCaseId())) {
-					return result;
-				}
-			} else if (result instanceof TestCycle) {
-				//for TestCycle uri identifier is id
-				if (token.equals(((TestCycle) result).getTestCycleId())) {
-					return result;
-				}
-			} else {
-				//otherwise use getId() from parent, this would use name as identifier
-				if (token.equals(result.getId())) {
-					return result;
-				}
-
-			}
-
-		}
-		return null;
+		return getChildIndex().byToken.get(token);
 	}
 
 	/**
@@ -164,30 +153,114 @@ public abstract class AbstractReport extends TabulatedResult implements ModelObj
 			String childId = id.substring(sepIdx + 1);
 			sepIdx = childId.indexOf('/');
 
-			for (TestResult result : this.getChildren()) {
-				if (sepIdx < 0 && childId.equals(result.getSafeName())) {
-					return result;
-				} else if (sepIdx > 0 && result.getSafeName().equals(childId.substring(0, sepIdx))) {
-					return result.findCorrespondingResult(childId);
-				}
+			if (sepIdx < 0) {
+				return getChildIndex().bySafeName.get(childId);
+			} else if (sepIdx > 0) {
+				TestResult result = getChildIndex().bySafeName.get(childId.substring(0, sepIdx));
+				return result != null ? result.findCorrespondingResult(childId) : null;
 			}
 		}
 		return null;
 	}
 
+	private ChildIndex getChildIndex() {
+		ChildIndex index = childIndex;
+		if (index == null) {
+			index = new ChildIndex(getChildren());
+			childIndex = index;
+		}
+		return index;
+	}
 
 	/**
-	 * Gets the age of a result.
+	 * Children by uri token and by safe name. When more children share the same key, the first one
+	 * is used.
+	 */
+	private static final class ChildIndex {
+
+		private final Map<String, TestResult> byToken = new HashMap<>();
+
+		private final Map<String, TestResult> bySafeName = new HashMap<>();
+
+		ChildIndex(Collection<? extends TestResult> children) {
+			if (children == null) {
+				return;
+			}
+			for (TestResult result : children) {
+				String token;
+				if (result instanceof TestCase) {
+					//for TestCase uri identifier is id
+					token = ((TestCase) result).getTestCaseId();
+				} else if (result instanceof TestCycle) {
+					//for TestCycle uri identifier is id
+					token = ((TestCycle) result).getTestCycleId();
+				} else {
+					//otherwise use getId() from parent, this would use name as identifier
+					token = result.getId();
+				}
+				if (token != null) {
+					byToken.putIfAbsent(token, result);
+				}
+				String safeName = result.getSafeName();
+				if (safeName != null) {
+					bySafeName.putIfAbsent(safeName, result);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Gets key of the result in {@link HistoryIndex}, its path in the report.
 	 *
-	 * @return the number of consecutive builds for which we have a result for this package
+	 * @return key or null if the history of the result is not recorded
+	 */
+	public String getHistoryKey() {
+		return null;
+	}
+
+	/**
+	 * Gets the age of a result. The age is taken from {@link HistoryIndex} of the job, so reports
+	 * of earlier builds are not loaded. Earlier builds are walked until the index is built and for
+	 * results the index does not record.
+	 *
+	 * @return the number of builds for which we have a result for this package
 	 */
 	public long getAge() {
-		AbstractReport result = (AbstractReport) getPreviousResult();
-		if (result == null) {
+		Run<?, ?> run = getRun();
+		if (run == null) {
 			return 1;
-		} else {
-			return 1 + result.getAge();
 		}
+		int age = HistoryIndex.getRecordedAge(run, getHistoryKey());
+		if (age > 0) {
+			return age;
+		}
+		AbstractReport result = (AbstractReport) getPreviousResult();
+		return result == null ? 1 : 1 + result.getAge();
 	}
 
+	/**
+	 * Gets result of the latest earlier build recorded in {@link HistoryIndex}. Only the report
+	 * of that build is loaded, builds without the result are skipped without being loaded.
+	 * Earlier builds are walked until the index is built and for results the index does not record.
+	 *
+	 * @return previous result or null if there is none
+	 */
+	@Override
+	public TestResult getPreviousResult() {
+		Run<?, ?> run = getRun();
+		if (run == null) {
+			return null;
+		}
+		return HistoryIndex.findPrevious(run, getHistoryKey(), this::findInReport);
+	}
+
+	/**
+	 * Finds result corresponding to this one in report of another build.
+	 *
+	 * @param report report of another build
+	 * @return corresponding result or null if the report does not contain it
+	 */
+	protected abstract TestResult findInReport(Report report);
+
 }
@@ -0,0 +1,654 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import com.ca.devtest.jenkins.plugin.postbuild.DevTestResultAction;
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per job index of DevTest results history. For every build with DevTest report the index keeps
+ * state, duration and age of the report, its suites and its test cases, keyed by their path in the
+ * report (report/suite/case). Age and previous results are then served from the index instead of
+ * loading reports of all earlier builds. Cycles are not recorded, their ids are unique for every
+ * run of a test.
+ *
+ * <p>The index is stored in {@link #INDEX_FILE} in job directory, one line per result, and new
+ * builds are appended to it. When the file does not exist yet, it is built from the builds of the
+ * job in background the first time it is used, results are looked up in the builds until then.
+ * Indexes of several jobs are built one after another and a failed build is retried only after
+ * {@link #RETRY_DELAY}. Results of deleted builds are dropped from the index.</p>
+ */
+public final class HistoryIndex {
+
+	/**
+	 * Name of the file in job directory the index is stored in.
+	 */
+	public static final String INDEX_FILE = "devtestHistory.log";
+
+	private static final Logger LOGGER = Logger.getLogger(HistoryIndex.class.getName());
+
+	private static final int MAX_CACHED_JOBS = 32;
+
+	/**
+	 * Delay in milliseconds before the index is built again when building it failed.
+	 */
+	static final long RETRY_DELAY = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * Builds indexes of jobs one at a time, so loading of old reports does not compete with builds.
+	 */
+	private static final ExecutorService BUILDER = Executors.newSingleThreadExecutor(
+			new NamingThreadFactory(new DaemonThreadFactory(), "HistoryIndex"));
+
+	private static final Map<File, HistoryIndex> INDEXES = new LinkedHashMap<File, HistoryIndex>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, HistoryIndex> eldest) {
+			return size() > MAX_CACHED_JOBS;
+		}
+	};
+
+	private static final TestState[] STATES = TestState.values();
+
+	private final Job<?, ?> job;
+
+	private final File file;
+
+	private final Map<String, History> histories = new HashMap<>();
+
+	/**
+	 * Reports of builds recorded while the index is being built, by build number.
+	 */
+	private final Map<Integer, Report> pending = new TreeMap<>();
+
+	private boolean available;
+
+	private boolean building;
+
+	/**
+	 * Time the index failed to be built, 0 if it did not fail.
+	 */
+	private long failedAt;
+
+	HistoryIndex(Job<?, ?> job) {
+		this.job = job;
+		this.file = new File(job.getRootDir(), INDEX_FILE);
+		this.available = load();
+		if (available) {
+			prune();
+		}
+	}
+
+	/**
+	 * Gets index of job.
+	 *
+	 * @param job job
+	 * @return index, loaded from job directory when not cached
+	 */
+	public static HistoryIndex of(Job<?, ?> job) {
+		File indexFile = new File(job.getRootDir(), INDEX_FILE);
+		synchronized (INDEXES) {
+			return INDEXES.computeIfAbsent(indexFile, key -> new HistoryIndex(job));
+		}
+	}
+
+	/**
+	 * Tells whether the index holds results of all builds of the job. When it does not, the index
+	 * is built in background and results have to be looked up in the builds meanwhile.
+	 *
+	 * @return true if the index can be used
+	 */
+	public synchronized boolean isAvailable() {
+		if (!available) {
+			scheduleBuild();
+		}
+		return available;
+	}
+
+	/**
+	 * Records report of build. When the index is not built yet, the report is recorded together
+	 * with the earlier builds.
+	 *
+	 * @param run    build
+	 * @param report report of the build
+	 * @throws IOException if the index cannot be written
+	 */
+	public synchronized void record(Run<?, ?> run, Report report) throws IOException {
+		if (available) {
+			append(run.getNumber(), report);
+		} else {
+			pending.put(run.getNumber(), report);
+			scheduleBuild();
+		}
+	}
+
+	/**
+	 * Drops results of build.
+	 *
+	 * @param buildNumber number of deleted build
+	 */
+	public synchronized void remove(int buildNumber) {
+		remove(Collections.singleton(buildNumber));
+	}
+
+	/**
+	 * Gets recorded result of build.
+	 *
+	 * @param key         path of the result in the report
+	 * @param buildNumber number of the build
+	 * @return entry or null if the result was not recorded
+	 */
+	public synchronized Entry getEntry(String key, int buildNumber) {
+		History history = histories.get(key);
+		if (history == null) {
+			return null;
+		}
+		int position = history.find(buildNumber);
+		return position < 0 ? null : history.entry(position);
+	}
+
+	/**
+	 * Gets the latest build before given one with recorded result.
+	 *
+	 * @param key         path of the result in the report
+	 * @param buildNumber number of the build
+	 * @return number of previous build or -1 if there is no such build
+	 */
+	public synchronized int getPreviousBuild(String key, int buildNumber) {
+		History history = histories.get(key);
+		if (history == null) {
+			return -1;
+		}
+		int position = history.find(buildNumber);
+		int previous = (position < 0 ? -position - 1 : position) - 1;
+		return previous < 0 ? -1 : history.builds[previous];
+	}
+
+	/**
+	 * Gets the latest recorded result.
+	 *
+	 * @param key path of the result in the report
+	 * @return entry or null if no result was recorded
+	 */
+	public synchronized Entry getLastEntry(String key) {
+		History history = histories.get(key);
+		return history == null || history.size == 0 ? null : history.entry(history.size - 1);
+	}
+
+	/**
+	 * Gets recorded age of result of build.
+	 *
+	 * @param run build
+	 * @param key path of the result in the report, null for results which are not recorded
+	 * @return age, 1 if the build did not record the result, 0 if the age has to be counted from
+	 * the earlier builds because the index is not built yet or does not record such results
+	 */
+	static int getRecordedAge(Run<?, ?> run, String key) {
+		if (key == null) {
+			return 0;
+		}
+		HistoryIndex index = of(run.getParent());
+		if (!index.isAvailable()) {
+			return 0;
+		}
+		Entry entry = index.getEntry(key, run.getNumber());
+		return entry == null ? 1 : entry.getAge();
+	}
+
+	/**
+	 * Finds result of the latest earlier build. When the index is available, only builds which
+	 * recorded the result are loaded, otherwise earlier builds are walked until the result is
+	 * found.
+	 *
+	 * @param run    build
+	 * @param key    path of the result in the report, null for results which are not recorded
+	 * @param lookup finds the result in report of an earlier build
+	 * @param <T>    type of the result
+	 * @return previous result or null if there is none
+	 */
+	static <T> T findPrevious(Run<?, ?> run, String key, Function<Report, T> lookup) {
+		HistoryIndex index = key == null ? null : of(run.getParent());
+		if (index == null || !index.isAvailable()) {
+			for (Run<?, ?> build = run.getPreviousBuild(); build != null; build = build.getPreviousBuild()) {
+				T result = findInBuild(build, lookup);
+				if (result != null) {
+					return result;
+				}
+			}
+			return null;
+		}
+		for (int number = index.getPreviousBuild(key, run.getNumber()); number >= 0;
+				number = index.getPreviousBuild(key, number)) {
+			T result = findInBuild(run.getParent().getBuildByNumber(number), lookup);
+			if (result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+	private static <T> T findInBuild(Run<?, ?> build, Function<Report, T> lookup) {
+		DevTestResultAction action = build == null ? null : build.getAction(DevTestResultAction.class);
+		return action == null ? null : lookup.apply(action.getResult());
+	}
+
+	private void scheduleBuild() {
+		if (building || failedAt > 0 && System.currentTimeMillis() - failedAt < RETRY_DELAY) {
+			return;
+		}
+		building = true;
+		LOGGER.log(Level.FINE, "Scheduled creation of DevTest history index {0}", file);
+		BUILDER.submit(this::build);
+	}
+
+	/**
+	 * Builds the index from all builds of the job with DevTest report, oldest first. Reports are
+	 * loaded outside of the lock, so lookups are not blocked while the index is being built.
+	 */
+	private void build() {
+		long started = System.currentTimeMillis();
+		List<Run<?, ?>> builds = new ArrayList<>(job.getBuilds());
+		Collections.reverse(builds);
+		LOGGER.log(Level.INFO, "Creating DevTest history index {0} from {1} builds", new Object[] {file, builds.size()});
+		Path temp = null;
+		try {
+			temp = createTempFile();
+			int recorded = 0;
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				for (Run<?, ?> build : builds) {
+					DevTestResultAction action = build.getAction(DevTestResultAction.class);
+					if (action == null) {
+						continue;
+					}
+					Report report = action.getResult();
+					synchronized (this) {
+						pending.remove(build.getNumber());
+						writer.write(addLines(build.getNumber(), report));
+					}
+					recorded++;
+				}
+				synchronized (this) {
+					for (Map.Entry<Integer, Report> entry : pending.entrySet()) {
+						writer.write(addLines(entry.getKey(), entry.getValue()));
+						recorded++;
+					}
+					pending.clear();
+					writer.close();
+					replaceWith(temp);
+					available = true;
+					failedAt = 0;
+				}
+			}
+			LOGGER.log(Level.INFO, "Created DevTest history index {0} from {1} reports in {2} ms",
+					new Object[] {file, recorded, System.currentTimeMillis() - started});
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Failed to create DevTest history index " + file, e);
+			synchronized (this) {
+				// built again on a lookup after the retry delay
+				histories.clear();
+				failedAt = System.currentTimeMillis();
+			}
+		} finally {
+			synchronized (this) {
+				building = false;
+			}
+			deleteTempFile(temp);
+		}
+	}
+
+	private void append(int buildNumber, Report report) throws IOException {
+		String lines = addLines(buildNumber, report);
+		Files.createDirectories(file.toPath().toAbsolutePath().getParent());
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			writer.write(lines);
+		}
+	}
+
+	private String addLines(int buildNumber, Report report) {
+		StringBuilder lines = new StringBuilder();
+		addLine(lines, buildNumber, report.getHistoryKey(), getState(report.getStats()),
+				report.getStats().getTotalDuration());
+		for (TestSuite suite : report.getSuites()) {
+			if (suite.getName() != null) {
+				addLine(lines, buildNumber, suite.getHistoryKey(), getState(suite.getStats()),
+						suite.getStats().getTotalDuration());
+			}
+		}
+		for (TestCase testCase : report.getStats().getAll()) {
+			if (testCase.getName() != null) {
+				addLine(lines, buildNumber, testCase.getHistoryKey(), testCase.getState(),
+						testCase.getElapsedTimeInMillSec());
+			}
+		}
+		return lines.toString();
+	}
+
+	private static TestState getState(ReportStats<?> stats) {
+		return stats.getFailCount() > 0 ? TestState.FAILED : TestState.PASSED;
+	}
+
+	private void addLine(StringBuilder lines, int buildNumber, String key, TestState state, long duration) {
+		int age = 1;
+		int previous = getPreviousBuild(key, buildNumber);
+		if (previous >= 0) {
+			age += getEntry(key, previous).getAge();
+		}
+		put(key, buildNumber, state, duration, age);
+		writeLine(lines, buildNumber, key, state, duration, age);
+	}
+
+	private static void writeLine(StringBuilder lines, int buildNumber, String key, TestState state,
+			long duration, int age) {
+		lines.append(buildNumber).append('\t')
+				.append(key).append('\t')
+				.append(state == null ? "" : state.name()).append('\t')
+				.append(duration).append('\t')
+				.append(age).append('\n');
+	}
+
+	/**
+	 * Drops results of builds which no longer exist, for example deleted while Jenkins was not
+	 * running.
+	 */
+	private void prune() {
+		Set<Integer> buildNumbers = new TreeSet<>();
+		for (History history : histories.values()) {
+			for (int i = 0; i < history.size; i++) {
+				buildNumbers.add(history.builds[i]);
+			}
+		}
+		List<Integer> deleted = new ArrayList<>();
+		for (int buildNumber : buildNumbers) {
+			if (!new File(job.getBuildDir(), Integer.toString(buildNumber)).isDirectory()) {
+				deleted.add(buildNumber);
+			}
+		}
+		if (!deleted.isEmpty()) {
+			remove(deleted);
+		}
+	}
+
+	private void remove(Collection<Integer> buildNumbers) {
+		pending.keySet().removeAll(buildNumbers);
+		boolean removed = false;
+		for (History history : histories.values()) {
+			removed |= history.remove(buildNumbers);
+		}
+		histories.values().removeIf(history -> history.size == 0);
+		if (removed && available) {
+			try {
+				rewrite();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Failed to update DevTest history index " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the whole index again, results are written in order of builds.
+	 */
+	private void rewrite() throws IOException {
+		Map<Integer, StringBuilder> linesByBuild = new TreeMap<>();
+		for (Map.Entry<String, History> history : histories.entrySet()) {
+			History results = history.getValue();
+			for (int i = 0; i < results.size; i++) {
+				Entry entry = results.entry(i);
+				writeLine(linesByBuild.computeIfAbsent(entry.getBuildNumber(), key -> new StringBuilder()),
+						entry.getBuildNumber(), history.getKey(), entry.getState(), entry.getDuration(),
+						entry.getAge());
+			}
+		}
+		Path temp = createTempFile();
+		try {
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				for (StringBuilder lines : linesByBuild.values()) {
+					writer.write(lines.toString());
+				}
+			}
+			replaceWith(temp);
+		} finally {
+			deleteTempFile(temp);
+		}
+	}
+
+	private Path createTempFile() throws IOException {
+		Path dir = file.toPath().toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		return Files.createTempFile(dir, INDEX_FILE, ".tmp");
+	}
+
+	private void replaceWith(Path temp) throws IOException {
+		Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void deleteTempFile(Path temp) {
+		if (temp != null) {
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException e) {
+				LOGGER.log(Level.FINE, "Failed to delete " + temp, e);
+			}
+		}
+	}
+
+	private void put(String key, int buildNumber, TestState state, long duration, int age) {
+		histories.computeIfAbsent(key, name -> new History()).put(buildNumber, state, duration, age);
+	}
+
+	/**
+	 * Loads the index file.
+	 *
+	 * @return true if the file was read
+	 */
+	private boolean load() {
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", -1);
+				if (fields.length < 5) {
+					continue;
+				}
+				try {
+					put(fields[1], Integer.parseInt(fields[0]),
+							fields[2].isEmpty() ? null : TestState.valueOf(fields[2]),
+							Long.parseLong(fields[3]), Integer.parseInt(fields[4]));
+				} catch (IllegalArgumentException e) {
+					// line written only partially, the rest of the index is still valid
+				}
+			}
+			return true;
+		} catch (NoSuchFileException e) {
+			// not built yet
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to read DevTest history index " + file, e);
+			histories.clear();
+		}
+		return false;
+	}
+
+	/**
+	 * Recorded result of single build.
+	 */
+	public static final class Entry {
+
+		private final int buildNumber;
+
+		private final TestState state;
+
+		private final long duration;
+
+		private final int age;
+
+		Entry(int buildNumber, TestState state, long duration, int age) {
+			this.buildNumber = buildNumber;
+			this.state = state;
+			this.duration = duration;
+			this.age = age;
+		}
+
+		public int getBuildNumber() {
+			return buildNumber;
+		}
+
+		public TestState getState() {
+			return state;
+		}
+
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * @return number of builds with the result up to this one
+		 */
+		public int getAge() {
+			return age;
+		}
+	}
+
+	/**
+	 * Results of single report, suite or test case sorted by build number, kept in arrays so that long
+	 * histories take little memory.
+	 */
+	private static final class History {
+
+		private int[] builds = new int[4];
+
+		private byte[] states = new byte[4];
+
+		private long[] durations = new long[4];
+
+		private int[] ages = new int[4];
+
+		private int size;
+
+		int find(int buildNumber) {
+			return Arrays.binarySearch(builds, 0, size, buildNumber);
+		}
+
+		void put(int buildNumber, TestState state, long duration, int age) {
+			int position = find(buildNumber);
+			if (position < 0) {
+				position = -position - 1;
+				if (size == builds.length) {
+					int capacity = size * 2;
+					builds = Arrays.copyOf(builds, capacity);
+					states = Arrays.copyOf(states, capacity);
+					durations = Arrays.copyOf(durations, capacity);
+					ages = Arrays.copyOf(ages, capacity);
+				}
+				int moved = size - position;
+				System.arraycopy(builds, position, builds, position + 1, moved);
+				System.arraycopy(states, position, states, position + 1, moved);
+				System.arraycopy(durations, position, durations, position + 1, moved);
+				System.arraycopy(ages, position, ages, position + 1, moved);
+				size++;
+			}
+			builds[position] = buildNumber;
+			states[position] = (byte) (state == null ? -1 : state.ordinal());
+			durations[position] = duration;
+			ages[position] = age;
+		}
+
+		/**
+		 * Removes results of builds, ages of the later results are counted again.
+		 *
+		 * @return true if any result was removed
+		 */
+		boolean remove(Collection<Integer> buildNumbers) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (buildNumbers.contains(builds[i])) {
+					continue;
+				}
+				builds[kept] = builds[i];
+				states[kept] = states[i];
+				durations[kept] = durations[i];
+				ages[kept] = kept == 0 ? 1 : ages[kept - 1] + 1;
+				kept++;
+			}
+			boolean removed = kept < size;
+			size = kept;
+			return removed;
+		}
+
+		Entry entry(int position) {
+			TestState state = states[position] < 0 ? null : STATES[states[position]];
+			return new Entry(builds[position], state, durations[position], ages[position]);
+		}
+	}
+
+	/**
+	 * Drops results of deleted builds from index of their job.
+	 */
+	@Extension
+	public static final class DeletedBuildListener extends RunListener<Run<?, ?>> {
+
+		@Override
+		public void onDeleted(Run<?, ?> run) {
+			if (run.getAction(DevTestResultAction.class) != null) {
+				HistoryIndex.of(run.getParent()).remove(run.getNumber());
+			}
+		}
+	}
+}
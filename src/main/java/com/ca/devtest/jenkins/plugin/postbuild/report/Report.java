@@ -28,11 +28,9 @@ package com.ca.devtest.jenkins.plugin.postbuild.report;
 import com.ca.devtest.jenkins.plugin.Messages;
 import hudson.model.Run;
 import hudson.tasks.test.TestResult;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Core DevTest report class, contains suite and standalone tests reports.
@@ -47,11 +45,7 @@ public class Report extends AbstractReport {
 
 	private List<TestCase> standAloneCases = Collections.emptyList();
 
-	private List<TestCase> failedTests;
-
-	private List<TestCase> successfullTests;
-
-	private List<TestCase> allTests;
+	private ReportStats<TestCase> stats;
 
 	/**
 	 * Constructor.
@@ -68,11 +62,17 @@ public class Report extends AbstractReport {
 			this.standAloneCases = standAloneCases;
 		}
 
-		this.failedTests = findFailedTests();
-		this.successfullTests = findSuccessfullTests();
-		this.allTests = new ArrayList<>();
-		this.allTests.addAll(failedTests);
-		this.allTests.addAll(successfullTests);
+		this.stats = computeStats();
+	}
+
+	/**
+	 * Statistics are not stored by older builds.
+	 */
+	private Object readResolve() {
+		if (stats == null) {
+			stats = computeStats();
+		}
+		return this;
 	}
 
 	public List<TestSuite> getSuites() {
@@ -83,18 +83,22 @@ public class Report extends AbstractReport {
 		return standAloneCases;
 	}
 
+	public ReportStats<TestCase> getStats() {
+		return stats;
+	}
+
 	public List<TestCase> getSuccessfullTests() {
-		return successfullTests;
+		return stats.getPassed();
 	}
 
 	@Override
 	public List<TestCase> getFailedTests() {
-		return failedTests;
+		return stats.getFailed();
 	}
 
 	@Override
 	public int getFailCount() {
-		return failedTests.size();
+		return stats.getFailCount();
 	}
 
 	@Override
@@ -102,16 +106,96 @@ public class Report extends AbstractReport {
 		return null;
 	}
 
+	@Override
+	public String getHistoryKey() {
+		return getHistoryKey(null, null);
+	}
+
 	/**
-	 * Total tests count.
+	 * Gets key of result in {@link HistoryIndex}, the path of the result in the report.
+	 *
+	 * @param suiteName name of the suite, null or empty for the report and standalone test cases
+	 * @param safeName  safe name of the test case, null for the report and suites
+	 * @return key
 	 */
+	static String getHistoryKey(String suiteName, String safeName) {
+		StringBuilder key = new StringBuilder(safe(Messages.DevTestReport_Url()));
+		if (suiteName != null && !suiteName.isEmpty()) {
+			key.append('/').append(safe(suiteName));
+		}
+		if (safeName != null) {
+			key.append('/').append(safeName);
+		}
+		return key.toString();
+	}
+
 	@Override
-	public int getTotalCount() {
-		int count = standAloneCases.size();
+	protected TestResult findInReport(Report report) {
+		return report;
+	}
+
+	/**
+	 * Finds suite by name.
+	 *
+	 * @param suiteName name of the suite
+	 * @return suite or null if the report does not contain it
+	 */
+	public TestSuite findSuite(String suiteName) {
 		for (TestSuite suite : suites) {
-			count += suite.getTotalTestsCount();
+			if (suiteName.equals(suite.getName())) {
+				return suite;
+			}
 		}
-		return count;
+		return null;
+	}
+
+	/**
+	 * Finds test case by its suite and safe name.
+	 *
+	 * @param suiteName name of the suite, empty for standalone test cases
+	 * @param safeName  safe name of the test case
+	 * @return test case or null if the report does not contain it
+	 */
+	public TestCase findTestCase(String suiteName, String safeName) {
+		List<TestCase> cases = standAloneCases;
+		if (!suiteName.isEmpty()) {
+			TestSuite suite = findSuite(suiteName);
+			if (suite == null) {
+				return null;
+			}
+			cases = suite.getTestCases();
+		}
+		for (TestCase testCase : cases) {
+			if (safeName.equals(testCase.getSafeName())) {
+				return testCase;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds cycle by id in all test cases of the report.
+	 *
+	 * @param cycleId id of the cycle
+	 * @return cycle or null if the report does not contain it
+	 */
+	public TestCycle findCycle(String cycleId) {
+		for (TestCase testCase : stats.getAll()) {
+			for (TestCycle cycle : testCase.getCycles()) {
+				if (cycleId.equals(cycle.getTestCycleId())) {
+					return cycle;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Total tests count.
+	 */
+	@Override
+	public int getTotalCount() {
+		return stats.getTotalCount();
 	}
 
 	/**
@@ -120,12 +204,12 @@ public class Report extends AbstractReport {
 	 */
 	@Override
 	public Collection<? extends TestResult> getChildren() {
-		return allTests;
+		return stats.getAll();
 	}
 
 	@Override
 	public boolean hasChildren() {
-		return !failedTests.isEmpty();
+		return !stats.getFailed().isEmpty();
 	}
 
 	@Override
@@ -139,7 +223,10 @@ public class Report extends AbstractReport {
 	@Override
 	public void setRun(Run<?, ?> run) {
 		this.run = run;
-		for (TestCase testCase : allTests) {
+		for (TestSuite suite : suites) {
+			suite.setRun(run);
+		}
+		for (TestCase testCase : stats.getAll()) {
 			testCase.setRun(run);
 			for (TestCycle cycle : testCase.getCycles()) {
 				cycle.setRun(run);
@@ -147,24 +234,19 @@ public class Report extends AbstractReport {
 		}
 	}
 
-	private List<TestCase> findFailedTests() {
-		List<TestCase> failedTests = standAloneCases.stream().filter(
-				testCase -> testCase.getState() != TestState.PASSED).collect(
-				Collectors.toList());
-		for (TestSuite suite : suites) {
-			failedTests.addAll(suite.getFailedTests());
+	/**
+	 * Counts standalone tests and adds statistics of suites, suites count also tests executed
+	 * without downloaded report.
+	 */
+	private ReportStats<TestCase> computeStats() {
+		ReportStats.Builder<TestCase> builder = new ReportStats.Builder<>();
+		for (TestCase testCase : standAloneCases) {
+			builder.add(testCase, testCase.getState(), testCase.getElapsedTimeInMillSec());
 		}
-		return failedTests;
-	}
-
-	private List<TestCase> findSuccessfullTests() {
-		List<TestCase> failedTests = standAloneCases.stream().filter(
-				testCase -> testCase.getState() == TestState.PASSED).collect(
-				Collectors.toList());
 		for (TestSuite suite : suites) {
-			failedTests.addAll(suite.getSuccessfullTests());
+			builder.add(suite.getStats());
 		}
-		return failedTests;
+		return builder.build();
 	}
 }
 
@@ -0,0 +1,426 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of parsed {@link Report}. Snapshot starts with magic number and format
+ * version followed by table of all strings used in the report, each prefixed by its length.
+ * The report itself refers strings by their index in the table, stores dates as epoch millis and
+ * writes cycles shared by several tests only once.
+ */
+public final class ReportSnapshot {
+
+	/**
+	 * Version of the snapshot format written by this class.
+	 */
+	public static final int VERSION = 1;
+
+	private static final int MAGIC = 0x44545253;
+
+	private static final int NULL = -1;
+
+	private static final long NULL_DATE = Long.MIN_VALUE;
+
+	/**
+	 * Max number of elements or bytes allocated up front for a length read from snapshot, longer
+	 * content grows while it is read so corrupted length fails on end of stream instead.
+	 */
+	private static final int MAX_PREALLOCATED = 8192;
+
+	private ReportSnapshot() {
+	}
+
+	/**
+	 * Writes snapshot of the report to file. Snapshot is written to temporary file first,
+	 * so the file is never left half written.
+	 *
+	 * @param report report
+	 * @param file   snapshot file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Report report, File file) throws IOException {
+		Path target = file.toPath();
+		Files.createDirectories(target.toAbsolutePath().getParent());
+		Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+				write(report, out);
+			}
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Writes snapshot of the report to stream.
+	 *
+	 * @param report report
+	 * @param out    stream, not closed
+	 * @throws IOException if the stream cannot be written
+	 */
+	public static void write(Report report, OutputStream out) throws IOException {
+		SnapshotWriter writer = new SnapshotWriter();
+		writer.writeReport(report);
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		data.writeInt(writer.strings.size());
+		for (String string : writer.strings.keySet()) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			data.writeInt(bytes.length);
+			data.write(bytes);
+		}
+		writer.buffer.writeTo(data);
+		data.flush();
+	}
+
+	/**
+	 * Reads report from snapshot file.
+	 *
+	 * @param file snapshot file
+	 * @return report without build set
+	 * @throws IOException if the file cannot be read or is not a valid snapshot
+	 */
+	public static Report read(File file) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+			return read(in, Files.size(file.toPath()));
+		}
+	}
+
+	/**
+	 * Reads report from snapshot stream.
+	 *
+	 * @param in stream, not closed
+	 * @return report without build set
+	 * @throws IOException if the stream cannot be read or is not a valid snapshot
+	 */
+	public static Report read(InputStream in) throws IOException {
+		return read(in, Integer.MAX_VALUE);
+	}
+
+	private static Report read(InputStream in, long size) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a DevTest report snapshot");
+		}
+		int version = data.readUnsignedShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported DevTest report snapshot version " + version);
+		}
+		int count = readLength(data, size);
+		List<String> strings = new ArrayList<>(Math.min(count, MAX_PREALLOCATED));
+		for (int i = 0; i < count; i++) {
+			strings.add(new String(readBytes(data, readLength(data, size)), StandardCharsets.UTF_8));
+		}
+		return new SnapshotReader(data, strings.toArray(new String[0]), size).readReport();
+	}
+
+	/**
+	 * Reads length of a table, list or string, which can never be negative or exceed size of the
+	 * snapshot.
+	 */
+	private static int readLength(DataInputStream data, long size) throws IOException {
+		int length = data.readInt();
+		if (length < 0 || length > size) {
+			throw new IOException("Corrupted DevTest report snapshot, invalid length " + length);
+		}
+		return length;
+	}
+
+	private static byte[] readBytes(DataInputStream data, int length) throws IOException {
+		if (length <= MAX_PREALLOCATED) {
+			byte[] bytes = new byte[length];
+			data.readFully(bytes);
+			return bytes;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_PREALLOCATED);
+		byte[] chunk = new byte[MAX_PREALLOCATED];
+		for (int remaining = length; remaining > 0; ) {
+			int read = Math.min(remaining, chunk.length);
+			data.readFully(chunk, 0, read);
+			bytes.write(chunk, 0, read);
+			remaining -= read;
+		}
+		return bytes.toByteArray();
+	}
+
+	private static final class SnapshotWriter {
+
+		private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+		private final Map<List<TestCycle>, Integer> cycleLists = new IdentityHashMap<>();
+
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private final DataOutputStream out = new DataOutputStream(buffer);
+
+		void writeReport(Report report) throws IOException {
+			out.writeInt(report.getSuites().size());
+			for (TestSuite suite : report.getSuites()) {
+				writeSuite(suite);
+			}
+			writeCases(report.getStandAloneCases());
+		}
+
+		private void writeSuite(TestSuite suite) throws IOException {
+			writeString(suite.getName());
+			writeString(suite.getElapsedTime());
+			writeDate(suite.getStartMillis());
+			writeDate(suite.getStopMillis());
+			out.writeInt(suite.getTotalTestsCount());
+			out.writeInt(suite.getPassCount());
+			out.writeInt(suite.getFailCount());
+			out.writeInt(suite.getWarningCount());
+			out.writeInt(suite.getAbortCount());
+			writeCases(suite.getTestCases());
+		}
+
+		private void writeCases(List<TestCase> cases) throws IOException {
+			out.writeInt(cases.size());
+			for (TestCase testCase : cases) {
+				writeString(testCase.getTestCaseId());
+				writeString(testCase.getName());
+				writeString(testCase.getState() == null ? null : testCase.getState().name());
+				writeDate(testCase.getStartMillis());
+				writeDate(testCase.getStopMillis());
+				out.writeInt(testCase.getElapsedTimeInMillSec());
+				writeString(testCase.getSuiteName());
+				out.writeInt(testCase.getTruncatedCycles());
+				writeString(testCase.getOverflowReportPath());
+				writeCycles(testCase.getCycles());
+			}
+		}
+
+		private void writeCycles(List<TestCycle> cycles) throws IOException {
+			Integer written = cycleLists.get(cycles);
+			if (written != null) {
+				out.writeInt(written);
+				return;
+			}
+			out.writeInt(cycleLists.size());
+			cycleLists.put(cycles, cycleLists.size());
+			out.writeInt(cycles.size());
+			for (TestCycle cycle : cycles) {
+				writeString(cycle.getTestCycleId());
+				out.writeInt(cycle.getCycle());
+				writeString(cycle.getState() == null ? null : cycle.getState().name());
+				writeDate(cycle.getStartMillis());
+				writeDate(cycle.getStopMillis());
+				out.writeInt(cycle.getElapsedTimeInMillSec());
+				List<String> messages = cycle.getMessages();
+				out.writeInt(messages == null ? NULL : messages.size());
+				if (messages != null) {
+					for (String message : messages) {
+						writeString(message);
+					}
+				}
+				writeString(cycle.getStoredRawCycleReport());
+				writeString(cycle.getRawCycleReportPath());
+				out.writeInt(cycle.getRawCycleReportIndex());
+				out.writeInt(cycle.getTruncatedMessages());
+				out.writeLong(cycle.getRawCycleReportLimit());
+			}
+		}
+
+		private void writeString(String string) throws IOException {
+			out.writeInt(string == null ? NULL : strings.computeIfAbsent(string, key -> strings.size()));
+		}
+
+		private void writeDate(long millis) throws IOException {
+			out.writeLong(millis == Timestamps.NONE ? NULL_DATE : millis);
+		}
+	}
+
+	private static final class SnapshotReader {
+
+		private final DataInputStream in;
+
+		private final String[] strings;
+
+		private final long size;
+
+		private final List<List<TestCycle>> cycleLists = new ArrayList<>();
+
+		SnapshotReader(DataInputStream in, String[] strings, long size) {
+			this.in = in;
+			this.strings = strings;
+			this.size = size;
+		}
+
+		Report readReport() throws IOException {
+			int count = readLength();
+			List<TestSuite> suites = new ArrayList<>(Math.min(count, MAX_PREALLOCATED));
+			for (int i = 0; i < count; i++) {
+				suites.add(readSuite());
+			}
+			return new Report(suites, readCases());
+		}
+
+		private TestSuite readSuite() throws IOException {
+			String name = readString();
+			String elapsedTime = readString();
+			long start = readDate();
+			long stop = readDate();
+			return new TestSuite.TestSuiteBuilder()
+					.withName(name)
+					.withElapsedTime(elapsedTime)
+					.withDates(start, stop)
+					.withCounts(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt())
+					.withTestCases(readCases())
+					.build();
+		}
+
+		private List<TestCase> readCases() throws IOException {
+			int count = readLength();
+			List<TestCase> cases = new ArrayList<>(Math.min(count, MAX_PREALLOCATED));
+			for (int i = 0; i < count; i++) {
+				String id = readString();
+				String name = readString();
+				TestState state = readState();
+				long start = readDate();
+				long stop = readDate();
+				int elapsedTime = in.readInt();
+				String suiteName = readString();
+				int truncatedCycles = in.readInt();
+				cases.add(new TestCase.TestCaseBuilder()
+						.withId(id)
+						.withName(name)
+						.withResult(state, elapsedTime)
+						.withDates(start, stop)
+						.withSuiteName(suiteName)
+						.withTruncation(truncatedCycles, readString())
+						.withCycles(readCycles())
+						.build());
+			}
+			return cases;
+		}
+
+		private List<TestCycle> readCycles() throws IOException {
+			int listId = in.readInt();
+			if (listId < 0 || listId > cycleLists.size()) {
+				throw new IOException("Corrupted DevTest report snapshot");
+			}
+			if (listId < cycleLists.size()) {
+				return cycleLists.get(listId);
+			}
+			int count = readLength();
+			List<TestCycle> cycles = new ArrayList<>(Math.min(count, MAX_PREALLOCATED));
+			cycleLists.add(cycles);
+			for (int i = 0; i < count; i++) {
+				String id = readString();
+				int cycle = in.readInt();
+				TestState state = readState();
+				long start = readDate();
+				long stop = readDate();
+				int elapsedTime = in.readInt();
+				TestCycle.TestCycleBuilder builder = new TestCycle.TestCycleBuilder()
+						.withId(id)
+						.withResult(cycle, state, elapsedTime)
+						.withDates(start, stop)
+						.withMessages(readStrings());
+				String rawReport = readString();
+				if (rawReport != null) {
+					builder.withRawCycleReport(rawReport);
+				}
+				builder.withRawCycleReportReference(readString(), in.readInt())
+						.withTruncatedMessages(in.readInt())
+						.withRawCycleReportLimit(in.readLong());
+				cycles.add(builder.build());
+			}
+			return cycles;
+		}
+
+		private List<String> readStrings() throws IOException {
+			int count = in.readInt();
+			if (count == NULL) {
+				return null;
+			}
+			if (count < 0 || count > size) {
+				throw new IOException("Corrupted DevTest report snapshot, invalid length " + count);
+			}
+			List<String> result = new ArrayList<>(Math.min(count, MAX_PREALLOCATED));
+			for (int i = 0; i < count; i++) {
+				result.add(readString());
+			}
+			return result;
+		}
+
+		private TestState readState() throws IOException {
+			String state = readString();
+			if (state == null) {
+				return null;
+			}
+			try {
+				return TestState.valueOf(state);
+			} catch (IllegalArgumentException ex) {
+				return TestState.FAILED;
+			}
+		}
+
+		private String readString() throws IOException {
+			int index = in.readInt();
+			if (index == NULL) {
+				return null;
+			}
+			if (index < 0 || index >= strings.length) {
+				throw new IOException("Corrupted DevTest report snapshot");
+			}
+			return strings[index];
+		}
+
+		private int readLength() throws IOException {
+			return ReportSnapshot.readLength(in, size);
+		}
+
+		private long readDate() throws IOException {
+			long time = in.readLong();
+			return time == NULL_DATE ? Timestamps.NONE : time;
+		}
+	}
+
+}
@@ -0,0 +1,212 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregate statistics of tests or cycles computed in single pass. Instances are immutable,
+ * so views can read them as often as needed.
+ *
+ * @param <T> type of the counted results
+ */
+public final class ReportStats<T extends AbstractReport> implements Serializable {
+
+	private static final long serialVersionUID = 3319853627436722135L;
+
+	private final List<T> failed;
+
+	private final List<T> passed;
+
+	private final List<T> all;
+
+	private final int abortCount;
+
+	private final int warningCount;
+
+	private final int totalCount;
+
+	private final long totalDuration;
+
+	private final int maxDuration;
+
+	private ReportStats(Builder<T> builder) {
+		this.failed = Collections.unmodifiableList(builder.failed);
+		this.passed = Collections.unmodifiableList(builder.passed);
+		List<T> allResults = new ArrayList<>(builder.failed.size() + builder.passed.size());
+		allResults.addAll(builder.failed);
+		allResults.addAll(builder.passed);
+		this.all = Collections.unmodifiableList(allResults);
+		this.abortCount = builder.abortCount;
+		this.warningCount = builder.warningCount;
+		this.totalCount = builder.totalCount;
+		this.totalDuration = builder.totalDuration;
+		this.maxDuration = builder.maxDuration;
+	}
+
+	/**
+	 * Gets results which did not pass.
+	 *
+	 * @return failed results
+	 */
+	public List<T> getFailed() {
+		return failed;
+	}
+
+	public List<T> getPassed() {
+		return passed;
+	}
+
+	/**
+	 * Gets all results, failed first.
+	 *
+	 * @return all results
+	 */
+	public List<T> getAll() {
+		return all;
+	}
+
+	public int getPassCount() {
+		return passed.size();
+	}
+
+	public int getFailCount() {
+		return failed.size();
+	}
+
+	public int getAbortCount() {
+		return abortCount;
+	}
+
+	public int getWarningCount() {
+		return warningCount;
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Gets sum of durations of the results.
+	 *
+	 * @return duration in milliseconds
+	 */
+	public long getTotalDuration() {
+		return totalDuration;
+	}
+
+	/**
+	 * Gets duration of the longest result.
+	 *
+	 * @return duration in milliseconds
+	 */
+	public int getMaxDuration() {
+		return maxDuration;
+	}
+
+	static final class Builder<T extends AbstractReport> {
+
+		private final List<T> failed = new ArrayList<>();
+
+		private final List<T> passed = new ArrayList<>();
+
+		private int abortCount;
+
+		private int warningCount;
+
+		private int totalCount;
+
+		private long totalDuration;
+
+		private int maxDuration;
+
+		/**
+		 * Counts single result.
+		 *
+		 * @param result               result
+		 * @param state                finish state of the result
+		 * @param elapsedTimeInMillSec duration of the result
+		 *
+		 * @return a reference to this object
+		 */
+		Builder<T> add(T result, TestState state, int elapsedTimeInMillSec) {
+			if (state == TestState.PASSED) {
+				passed.add(result);
+			} else {
+				failed.add(result);
+				if (state == TestState.ABORTED) {
+					abortCount++;
+				}
+			}
+			totalCount++;
+			totalDuration += elapsedTimeInMillSec;
+			maxDuration = Math.max(maxDuration, elapsedTimeInMillSec);
+			return this;
+		}
+
+		/**
+		 * Adds statistics computed before, results are appended after the results added so far.
+		 *
+		 * @param stats statistics
+		 *
+		 * @return a reference to this object
+		 */
+		Builder<T> add(ReportStats<T> stats) {
+			failed.addAll(stats.failed);
+			passed.addAll(stats.passed);
+			abortCount += stats.abortCount;
+			warningCount += stats.warningCount;
+			totalCount += stats.totalCount;
+			totalDuration += stats.totalDuration;
+			maxDuration = Math.max(maxDuration, stats.maxDuration);
+			return this;
+		}
+
+		/**
+		 * Overrides counts by values reported by the server, which also counts results
+		 * whose reports were not downloaded.
+		 *
+		 * @param totalCount   count of executed results
+		 * @param warningCount count of results with warnings
+		 *
+		 * @return a reference to this object
+		 */
+		Builder<T> withReportedCounts(int totalCount, int warningCount) {
+			this.totalCount = totalCount;
+			this.warningCount = warningCount;
+			return this;
+		}
+
+		ReportStats<T> build() {
+			return new ReportStats<>(this);
+		}
+	}
+
+}
@@ -26,13 +26,10 @@
 package com.ca.devtest.jenkins.plugin.postbuild.report;
 
 import hudson.tasks.test.TestResult;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Test Case report representation.
@@ -51,6 +48,13 @@ public class TestCase extends AbstractReport {
 
 	private TestState state;
 
+	private long startMillis;
+
+	private long stopMillis;
+
+	/**
+	 * Timestamps stored by older builds, converted to millis when loaded.
+	 */
 	private Date start;
 
 	private Date stop;
@@ -59,23 +63,52 @@ public class TestCase extends AbstractReport {
 
 	private String suiteName;
 
-	private List<TestCycle> failedCycles;
+	private ReportStats<TestCycle> stats;
 
-	private List<TestCycle> succesfullCycles;
+	/**
+	 * Number of cycles over report limits which were spilled instead of kept in the report.
+	 */
+	private int truncatedCycles;
 
+	/**
+	 * Path of file the cycles over report limits were spilled to, relative to root directory
+	 * of the build or absolute.
+	 */
+	private String overflowReportPath;
 
 	private TestCase(TestCaseBuilder builder) {
 		super(builder.id);
 		this.id = builder.id;
 		this.name = builder.name;
 		this.cycles = builder.cycles;
-		this.start = builder.start;
-		this.stop = builder.stop;
+		this.startMillis = builder.start;
+		this.stopMillis = builder.stop;
 		this.elapsedTimeInMillSec = builder.elapsedTimeInMillSec;
 		this.state = builder.state;
 		this.suiteName = builder.suiteName;
-		this.failedCycles = findFailedCycles();
-		this.succesfullCycles = findSuccessfulCycles();
+		this.truncatedCycles = builder.truncatedCycles;
+		this.overflowReportPath = builder.overflowReportPath;
+		this.stats = computeStats();
+	}
+
+	/**
+	 * Statistics and timestamps in millis are not stored by older builds.
+	 */
+	private Object readResolve() {
+		convertDates();
+		if (stats == null) {
+			stats = computeStats();
+		}
+		return this;
+	}
+
+	private void convertDates() {
+		if (start != null || stop != null) {
+			startMillis = Timestamps.of(start);
+			stopMillis = Timestamps.of(stop);
+			start = null;
+			stop = null;
+		}
 	}
 
 	@Override
@@ -83,6 +116,16 @@ public class TestCase extends AbstractReport {
 		return null;
 	}
 
+	@Override
+	public String getHistoryKey() {
+		return Report.getHistoryKey(getSuiteName(), getSafeName());
+	}
+
+	@Override
+	protected TestResult findInReport(Report report) {
+		return report.findTestCase(getSuiteName(), getSafeName());
+	}
+
 	public String getTestCaseId() {
 		return id;
 	}
@@ -96,6 +139,45 @@ public class TestCase extends AbstractReport {
 		return cycles;
 	}
 
+	/**
+	 * Gets number of cycles which were not kept in the report because of report limits.
+	 *
+	 * @return number of cycles over the limit
+	 */
+	public int getTruncatedCycles() {
+		return truncatedCycles;
+	}
+
+	/**
+	 * Gets path of file the cycles and messages over report limits were spilled to.
+	 *
+	 * @return path relative to root directory of the build or absolute, null if nothing was spilled
+	 */
+	public String getOverflowReportPath() {
+		return overflowReportPath;
+	}
+
+	/**
+	 * Checks whether some cycles or messages of cycles were not kept because of report limits.
+	 *
+	 * @return true if the test is not complete in the report
+	 */
+	public boolean isTruncated() {
+		return truncatedCycles > 0 || cycles.stream().anyMatch(cycle -> cycle.getTruncatedMessages() > 0);
+	}
+
+	public ReportStats<TestCycle> getStats() {
+		return stats;
+	}
+
+	public List<TestCycle> getFailedCycles() {
+		return stats.getFailed();
+	}
+
+	public List<TestCycle> getSuccesfullCycles() {
+		return stats.getPassed();
+	}
+
 	public TestState getState() {
 		return state;
 	}
@@ -106,10 +188,16 @@ public class TestCase extends AbstractReport {
 	 * @return testcase start date
 	 */
 	public Date getStart() {
-		if (start != null) {
-			return new Date(start.getTime());
-		}
-		return null;
+		return Timestamps.toDate(startMillis);
+	}
+
+	/**
+	 * Gets testcase start moment.
+	 *
+	 * @return epoch millis, 0 if not known
+	 */
+	public long getStartMillis() {
+		return startMillis;
 	}
 
 	/**
@@ -118,10 +206,16 @@ public class TestCase extends AbstractReport {
 	 * @return testcase stop date
 	 */
 	public Date getStop() {
-		if (stop != null) {
-			return new Date(stop.getTime());
-		}
-		return null;
+		return Timestamps.toDate(stopMillis);
+	}
+
+	/**
+	 * Gets testcase stop moment.
+	 *
+	 * @return epoch millis, 0 if not known
+	 */
+	public long getStopMillis() {
+		return stopMillis;
 	}
 
 	public int getElapsedTimeInMillSec() {
@@ -168,14 +262,12 @@ public class TestCase extends AbstractReport {
 		return "result-passed";
 	}
 
-	private List<TestCycle> findFailedCycles() {
-		return cycles.stream().filter(testCase -> testCase.getState() != TestState.PASSED).collect(
-				Collectors.toList());
-	}
-
-	private List<TestCycle> findSuccessfulCycles() {
-		return cycles.stream().filter(testCase -> testCase.getState() == TestState.PASSED).collect(
-				Collectors.toList());
+	private ReportStats<TestCycle> computeStats() {
+		ReportStats.Builder<TestCycle> builder = new ReportStats.Builder<>();
+		for (TestCycle cycle : cycles) {
+			builder.add(cycle, cycle.getState(), cycle.getElapsedTimeInMillSec());
+		}
+		return builder.build();
 	}
 
 	public static class TestCaseBuilder {
@@ -188,15 +280,17 @@ public class TestCase extends AbstractReport {
 
 		private TestState state = TestState.FAILED;
 
-		private Date start;
+		private long start = Timestamps.NONE;
 
-		private Date stop;
+		private long stop = Timestamps.NONE;
 
 		private int elapsedTimeInMillSec;
 
 		private String suiteName;
 
-		private SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss-SSSS");
+		private int truncatedCycles;
+
+		private String overflowReportPath;
 
 		/**
 		 * Sets the name.
@@ -248,6 +342,20 @@ public class TestCase extends AbstractReport {
 			return this;
 		}
 
+		/**
+		 * Sets number of cycles which were not kept because of report limits.
+		 *
+		 * @param truncatedCycles    number of cycles over the limit
+		 * @param overflowReportPath path of file the cycles were spilled to, may be null
+		 *
+		 * @return a reference to this object
+		 */
+		public TestCaseBuilder withTruncation(int truncatedCycles, String overflowReportPath) {
+			this.truncatedCycles = Math.max(0, truncatedCycles);
+			this.overflowReportPath = overflowReportPath;
+			return this;
+		}
+
 		/**
 		 * Sets test start moment as Date.
 		 *
@@ -256,13 +364,7 @@ public class TestCase extends AbstractReport {
 		 * @return a reference to this object
 		 */
 		public TestCaseBuilder withStart(String start) {
-			if (start != null) {
-				try {
-					this.start = format.parse(start);
-				} catch (ParseException ex) {
-					this.stop = null;
-				}
-			}
+			this.start = Timestamps.parse(start);
 			return this;
 		}
 
@@ -274,13 +376,7 @@ public class TestCase extends AbstractReport {
 		 * @return a reference to this object
 		 */
 		public TestCaseBuilder withStop(String stop) {
-			if (stop != null) {
-				try {
-					this.stop = format.parse(stop);
-				} catch (ParseException ex) {
-					this.stop = null;
-				}
-			}
+			this.stop = Timestamps.parse(stop);
 			return this;
 		}
 
@@ -320,6 +416,34 @@ public class TestCase extends AbstractReport {
 			return this;
 		}
 
+		/**
+		 * Sets test start and stop moments.
+		 *
+		 * @param start start epoch millis, 0 if not known
+		 * @param stop  stop epoch millis, 0 if not known
+		 *
+		 * @return a reference to this object
+		 */
+		TestCaseBuilder withDates(long start, long stop) {
+			this.start = start;
+			this.stop = stop;
+			return this;
+		}
+
+		/**
+		 * Sets test finish state and duration.
+		 *
+		 * @param state                finish state
+		 * @param elapsedTimeInMillSec duration
+		 *
+		 * @return a reference to this object
+		 */
+		TestCaseBuilder withResult(TestState state, int elapsedTimeInMillSec) {
+			this.state = state;
+			this.elapsedTimeInMillSec = elapsedTimeInMillSec;
+			return this;
+		}
+
 		public TestCase build() {
 			return new TestCase(this);
 		}
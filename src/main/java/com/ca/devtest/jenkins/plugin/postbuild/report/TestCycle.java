@@ -25,13 +25,18 @@
 
 package com.ca.devtest.jenkins.plugin.postbuild.report;
 
+import com.ca.devtest.jenkins.plugin.postbuild.parser.TestInvokeApiResultParser;
+import hudson.model.Run;
 import hudson.tasks.test.TestResult;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Test Cycle report representation.
@@ -42,10 +47,19 @@ public class TestCycle extends AbstractReport {
 
 	private static final long serialVersionUID = -8800849699362689033L;
 
+	private static final Logger LOGGER = Logger.getLogger(TestCycle.class.getName());
+
 	private String id;
 
 	private int cycle;
 
+	private long startMillis;
+
+	private long stopMillis;
+
+	/**
+	 * Timestamps stored by older builds, converted to millis when loaded.
+	 */
 	private Date start;
 
 	private Date stop;
@@ -56,26 +70,77 @@ public class TestCycle extends AbstractReport {
 
 	private List<String> messages;
 
+	/**
+	 * Number of messages over report limits which were spilled instead of kept in the report.
+	 */
+	private int truncatedMessages;
+
+	/**
+	 * Raw report stored directly, kept for reports of older builds.
+	 */
 	private String rawCycleReport;
 
+	/**
+	 * Path of cycles.json the raw report is read from, relative paths are resolved against
+	 * root directory of the build.
+	 */
+	private String rawCycleReportPath;
+
+	private int rawCycleReportIndex;
+
+	/**
+	 * Max bytes of raw report displayed, 0 for default limit.
+	 */
+	private long rawCycleReportLimit;
+
 	private TestCycle(TestCycleBuilder builder) {
 		super(builder.id);
 		this.id = builder.id;
 		this.cycle = builder.cycle;
-		this.start = builder.start;
-		this.stop = builder.stop;
+		this.startMillis = builder.start;
+		this.stopMillis = builder.stop;
 		this.state = builder.state;
 		this.elapsedTimeInMillSec = builder.elapsedTimeInMillSec;
 		if (builder.messages != null) {
 			this.messages = builder.messages;
 		}
+		this.truncatedMessages = builder.truncatedMessages;
 		this.rawCycleReport = builder.rawCycleReport;
+		this.rawCycleReportPath = builder.rawCycleReportPath;
+		this.rawCycleReportIndex = builder.rawCycleReportIndex;
+		this.rawCycleReportLimit = builder.rawCycleReportLimit;
+	}
+
+	/**
+	 * Timestamps in millis are not stored by older builds.
+	 */
+	private Object readResolve() {
+		convertDates();
+		return this;
+	}
+
+	private void convertDates() {
+		if (start != null || stop != null) {
+			startMillis = Timestamps.of(start);
+			stopMillis = Timestamps.of(stop);
+			start = null;
+			stop = null;
+		}
 	}
 
 	public String getTestCycleId() {
 		return id;
 	}
 
+	/**
+	 * Cycles are not recorded in {@link HistoryIndex}, so the cycle is looked up by its id in the
+	 * reports of earlier builds.
+	 */
+	@Override
+	protected TestResult findInReport(Report report) {
+		return id == null ? null : report.findCycle(id);
+	}
+
 	@Override
 	public String getName() {
 		return (cycle + 1) + " cycle";
@@ -91,10 +156,16 @@ public class TestCycle extends AbstractReport {
 	 * @return testcycle start date
 	 */
 	public Date getStart() {
-		if (start != null) {
-			return new Date(start.getTime());
-		}
-		return null;
+		return Timestamps.toDate(startMillis);
+	}
+
+	/**
+	 * Gets testcycle start moment.
+	 *
+	 * @return epoch millis, 0 if not known
+	 */
+	public long getStartMillis() {
+		return startMillis;
 	}
 
 	/**
@@ -103,10 +174,16 @@ public class TestCycle extends AbstractReport {
 	 * @return testcycle stop date
 	 */
 	public Date getStop() {
-		if (stop != null) {
-			return new Date(stop.getTime());
-		}
-		return null;
+		return Timestamps.toDate(stopMillis);
+	}
+
+	/**
+	 * Gets testcycle stop moment.
+	 *
+	 * @return epoch millis, 0 if not known
+	 */
+	public long getStopMillis() {
+		return stopMillis;
 	}
 
 	public TestState getState() {
@@ -121,10 +198,55 @@ public class TestCycle extends AbstractReport {
 		return messages;
 	}
 
-	public String getRawCycleReport() {
+	/**
+	 * Gets number of messages which were not kept in the report because of report limits.
+	 *
+	 * @return number of messages over the limit
+	 */
+	public int getTruncatedMessages() {
+		return truncatedMessages;
+	}
+
+	String getStoredRawCycleReport() {
 		return rawCycleReport;
 	}
 
+	String getRawCycleReportPath() {
+		return rawCycleReportPath;
+	}
+
+	int getRawCycleReportIndex() {
+		return rawCycleReportIndex;
+	}
+
+	long getRawCycleReportLimit() {
+		return rawCycleReportLimit;
+	}
+
+	/**
+	 * Gets raw JSON report of the cycle. The report is read from cycles.json on every call,
+	 * so it is not held in memory nor stored with the build. Report over the limit is cut off.
+	 *
+	 * @return pretty printed cycle or null if the report is not available
+	 */
+	public String getRawCycleReport() {
+		if (rawCycleReport != null || rawCycleReportPath == null) {
+			return rawCycleReport;
+		}
+		Path path = Paths.get(rawCycleReportPath);
+		Run<?, ?> run = getRun();
+		if (!path.isAbsolute() && run != null) {
+			path = run.getRootDir().toPath().resolve(path);
+		}
+		try {
+			return TestInvokeApiResultParser.readRawCycle(path.toString(), rawCycleReportIndex,
+					rawCycleReportLimit);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Cannot read raw report of cycle " + id + " from " + path, e);
+			return null;
+		}
+	}
+
 	@Override
 	public Collection<? extends TestResult> getChildren() {
 		return null;
@@ -146,9 +268,9 @@ public class TestCycle extends AbstractReport {
 
 		private int cycle;
 
-		private Date start;
+		private long start = Timestamps.NONE;
 
-		private Date stop;
+		private long stop = Timestamps.NONE;
 
 		private TestState state = TestState.FAILED;
 
@@ -156,9 +278,15 @@ public class TestCycle extends AbstractReport {
 
 		private List<String> messages = new ArrayList<>();
 
+		private int truncatedMessages;
+
 		private String rawCycleReport;
 
-		private SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss-SSSS");
+		private String rawCycleReportPath;
+
+		private int rawCycleReportIndex;
+
+		private long rawCycleReportLimit;
 
 		/**
 		 * Sets the id.
@@ -180,13 +308,7 @@ public class TestCycle extends AbstractReport {
 		 * @return a reference to this object
 		 */
 		public TestCycleBuilder withStart(String start) {
-			if (start != null) {
-				try {
-					this.start = format.parse(start);
-				} catch (ParseException ex) {
-					this.stop = null;
-				}
-			}
+			this.start = Timestamps.parse(start);
 			return this;
 		}
 
@@ -198,13 +320,7 @@ public class TestCycle extends AbstractReport {
 		 * @return a reference to this object
 		 */
 		public TestCycleBuilder withStop(String stop) {
-			if (stop != null) {
-				try {
-					this.stop = format.parse(stop);
-				} catch (ParseException ex) {
-					this.stop = null;
-				}
-			}
+			this.stop = Timestamps.parse(stop);
 			return this;
 		}
 
@@ -276,6 +392,18 @@ public class TestCycle extends AbstractReport {
 			return this;
 		}
 
+		/**
+		 * Sets number of messages which were not kept because of report limits.
+		 *
+		 * @param truncatedMessages number of messages over the limit
+		 *
+		 * @return a reference to this object
+		 */
+		public TestCycleBuilder withTruncatedMessages(int truncatedMessages) {
+			this.truncatedMessages = Math.max(0, truncatedMessages);
+			return this;
+		}
+
 		/**
 		 * Sets raw JSON report.
 		 *
@@ -288,6 +416,62 @@ public class TestCycle extends AbstractReport {
 			return this;
 		}
 
+		/**
+		 * Sets where raw JSON report is read from when displayed.
+		 *
+		 * @param reportPath path of cycles.json, relative to build root directory or absolute
+		 * @param index      position of the cycle in CycleHistory
+		 *
+		 * @return a reference to this object
+		 */
+		public TestCycleBuilder withRawCycleReportReference(String reportPath, int index) {
+			this.rawCycleReportPath = reportPath;
+			this.rawCycleReportIndex = index;
+			return this;
+		}
+
+		/**
+		 * Sets max bytes of raw JSON report displayed.
+		 *
+		 * @param maxBytes max bytes, 0 for default limit
+		 *
+		 * @return a reference to this object
+		 */
+		public TestCycleBuilder withRawCycleReportLimit(long maxBytes) {
+			this.rawCycleReportLimit = Math.max(0, maxBytes);
+			return this;
+		}
+
+		/**
+		 * Sets cycle start and stop moments.
+		 *
+		 * @param start start epoch millis, 0 if not known
+		 * @param stop  stop epoch millis, 0 if not known
+		 *
+		 * @return a reference to this object
+		 */
+		TestCycleBuilder withDates(long start, long stop) {
+			this.start = start;
+			this.stop = stop;
+			return this;
+		}
+
+		/**
+		 * Sets cycle number, state and duration.
+		 *
+		 * @param cycle                cycle
+		 * @param state                finish state
+		 * @param elapsedTimeInMillSec duration
+		 *
+		 * @return a reference to this object
+		 */
+		TestCycleBuilder withResult(int cycle, TestState state, int elapsedTimeInMillSec) {
+			this.cycle = cycle;
+			this.state = state;
+			this.elapsedTimeInMillSec = elapsedTimeInMillSec;
+			return this;
+		}
+
 		public TestCycle build() {
 			return new TestCycle(this);
 		}
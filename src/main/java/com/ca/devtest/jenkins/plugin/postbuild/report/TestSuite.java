@@ -25,13 +25,11 @@
 
 package com.ca.devtest.jenkins.plugin.postbuild.report;
 
+import hudson.model.Run;
 import java.io.Serializable;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Test Suite.
@@ -48,6 +46,13 @@ public class TestSuite implements Serializable {
 
 	private String elapsedTime;
 
+	private long startMillis;
+
+	private long stopMillis;
+
+	/**
+	 * Timestamps stored by older builds, converted to millis when loaded.
+	 */
 	private Date start;
 
 	private Date stop;
@@ -62,18 +67,105 @@ public class TestSuite implements Serializable {
 
 	private int abortCount;
 
+	private ReportStats<TestCase> stats;
+
+	private transient Run<?, ?> run;
+
 
 	private TestSuite(TestSuiteBuilder builder) {
 		this.name = builder.name;
 		this.testCases = builder.testCases;
 		this.elapsedTime = builder.elapsedTime;
-		this.start = builder.start;
-		this.stop = builder.stop;
+		this.startMillis = builder.start;
+		this.stopMillis = builder.stop;
 		this.totalTestsCount = builder.totalTestsCount;
 		this.passCount = builder.passCount;
 		this.failCount = builder.failCount;
 		this.warningCount = builder.warningCount;
 		this.abortCount = builder.abortCount;
+		this.stats = computeStats();
+	}
+
+	/**
+	 * Statistics and timestamps in millis are not stored by older builds.
+	 */
+	private Object readResolve() {
+		convertDates();
+		if (stats == null) {
+			stats = computeStats();
+		}
+		return this;
+	}
+
+	private void convertDates() {
+		if (start != null || stop != null) {
+			startMillis = Timestamps.of(start);
+			stopMillis = Timestamps.of(stop);
+			start = null;
+			stop = null;
+		}
+	}
+
+	/**
+	 * Counts test cases of the suite, total and warning counts are taken from the suite report.
+	 */
+	private ReportStats<TestCase> computeStats() {
+		ReportStats.Builder<TestCase> builder = new ReportStats.Builder<>();
+		for (TestCase testCase : testCases) {
+			builder.add(testCase, testCase.getState(), testCase.getElapsedTimeInMillSec());
+		}
+		return builder.withReportedCounts(totalTestsCount, warningCount).build();
+	}
+
+	public ReportStats<TestCase> getStats() {
+		return stats;
+	}
+
+	public Run<?, ?> getRun() {
+		return run;
+	}
+
+	public void setRun(Run<?, ?> run) {
+		this.run = run;
+	}
+
+	/**
+	 * Gets key of the suite in {@link HistoryIndex}, its path in the report.
+	 *
+	 * @return key or null if the suite has no name
+	 */
+	public String getHistoryKey() {
+		return name == null ? null : Report.getHistoryKey(name, null);
+	}
+
+	/**
+	 * Gets the age of the suite, taken from {@link HistoryIndex} of the job. Earlier builds are
+	 * walked until the index is built.
+	 *
+	 * @return the number of builds with the suite up to this one
+	 */
+	public long getAge() {
+		if (run == null) {
+			return 1;
+		}
+		int age = HistoryIndex.getRecordedAge(run, getHistoryKey());
+		if (age > 0) {
+			return age;
+		}
+		TestSuite previous = getPreviousResult();
+		return previous == null ? 1 : 1 + previous.getAge();
+	}
+
+	/**
+	 * Gets the suite of the latest earlier build recorded in {@link HistoryIndex}.
+	 *
+	 * @return previous suite or null if there is none
+	 */
+	public TestSuite getPreviousResult() {
+		if (run == null || name == null) {
+			return null;
+		}
+		return HistoryIndex.findPrevious(run, getHistoryKey(), report -> report.findSuite(name));
 	}
 
 	public List<TestCase> getTestCases() {
@@ -96,10 +188,16 @@ public class TestSuite implements Serializable {
 	 * @return testsuite start date
 	 */
 	public Date getStart() {
-		if (start != null) {
-			return new Date(start.getTime());
-		}
-		return null;
+		return Timestamps.toDate(startMillis);
+	}
+
+	/**
+	 * Gets testsuite start moment.
+	 *
+	 * @return epoch millis, 0 if not known
+	 */
+	public long getStartMillis() {
+		return startMillis;
 	}
 
 	/**
@@ -108,10 +206,16 @@ public class TestSuite implements Serializable {
 	 * @return testsuite stop date
 	 */
 	public Date getStop() {
-		if (stop != null) {
-			return new Date(stop.getTime());
-		}
-		return null;
+		return Timestamps.toDate(stopMillis);
+	}
+
+	/**
+	 * Gets testsuite stop moment.
+	 *
+	 * @return epoch millis, 0 if not known
+	 */
+	public long getStopMillis() {
+		return stopMillis;
 	}
 
 
@@ -145,9 +249,7 @@ public class TestSuite implements Serializable {
 	 * @return list of failed test cases
 	 */
 	public List<TestCase> getFailedTests() {
-		return this.testCases.stream().filter(testCase -> testCase.getState() != TestState.PASSED)
-												 .collect(
-														 Collectors.toList());
+		return stats.getFailed();
 	}
 
 	/**
@@ -156,9 +258,7 @@ public class TestSuite implements Serializable {
 	 * @return list of successful test cases
 	 */
 	public List<TestCase> getSuccessfullTests() {
-		return this.testCases.stream().filter(testCase -> testCase.getState() == TestState.PASSED)
-												 .collect(
-														 Collectors.toList());
+		return stats.getPassed();
 	}
 
 	public static class TestSuiteBuilder {
@@ -167,9 +267,9 @@ public class TestSuite implements Serializable {
 
 		private String elapsedTime;
 
-		private Date start;
+		private long start = Timestamps.NONE;
 
-		private Date stop;
+		private long stop = Timestamps.NONE;
 
 		private int totalTestsCount;
 
@@ -183,8 +283,6 @@ public class TestSuite implements Serializable {
 
 		private List<TestCase> testCases = new ArrayList<>();
 
-		private SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss-SSSS");
-
 		/**
 		 * Sets test cases.
 		 *
@@ -231,13 +329,7 @@ public class TestSuite implements Serializable {
 		 * @return a reference to this object
 		 */
 		public TestSuiteBuilder withStart(String start) {
-			if (start != null) {
-				try {
-					this.start = format.parse(start);
-				} catch (ParseException ex) {
-					this.start = null;
-				}
-			}
+			this.start = Timestamps.parse(start);
 			return this;
 		}
 
@@ -249,13 +341,7 @@ public class TestSuite implements Serializable {
 		 * @return a reference to this object
 		 */
 		public TestSuiteBuilder withStop(String stop) {
-			if (stop != null) {
-				try {
-					this.stop = format.parse(stop);
-				} catch (ParseException ex) {
-					this.stop = null;
-				}
-			}
+			this.stop = Timestamps.parse(stop);
 			return this;
 		}
 
@@ -339,6 +425,41 @@ public class TestSuite implements Serializable {
 			return this;
 		}
 
+		/**
+		 * Sets suite start and stop moments.
+		 *
+		 * @param start start epoch millis, 0 if not known
+		 * @param stop  stop epoch millis, 0 if not known
+		 *
+		 * @return a reference to this object
+		 */
+		TestSuiteBuilder withDates(long start, long stop) {
+			this.start = start;
+			this.stop = stop;
+			return this;
+		}
+
+		/**
+		 * Sets test case counts in suite.
+		 *
+		 * @param totalTestsCount executed test case count
+		 * @param passCount       passed test case count
+		 * @param failCount       failed test case count
+		 * @param warningCount    warned test case count
+		 * @param abortCount      aborted test case count
+		 *
+		 * @return a reference to this object
+		 */
+		TestSuiteBuilder withCounts(int totalTestsCount, int passCount, int failCount, int warningCount,
+				int abortCount) {
+			this.totalTestsCount = totalTestsCount;
+			this.passCount = passCount;
+			this.failCount = failCount;
+			this.warningCount = warningCount;
+			this.abortCount = abortCount;
+			return this;
+		}
+
 		public TestSuite build() {
 			return new TestSuite(this);
 		}
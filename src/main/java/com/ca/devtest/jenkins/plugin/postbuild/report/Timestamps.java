@@ -0,0 +1,106 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Timestamps of reports. Timestamps are kept as epoch millis, {@link #NONE} stands for missing
+ * timestamp. The formatter is immutable, so parsing is safe from parallel parsers.
+ */
+final class Timestamps {
+
+	/**
+	 * Missing timestamp. It is also the value of timestamp fields not present in older builds.
+	 */
+	static final long NONE = 0L;
+
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+	private Timestamps() {
+	}
+
+	/**
+	 * Parses timestamp in yyyy-MM-dd'T'HH:mm:ss-SSSS format in default time zone. Digits after
+	 * the dash are added as milliseconds, the same way SimpleDateFormat with this pattern does.
+	 *
+	 * @param timestamp timestamp, may be null
+	 * @return epoch millis or {@link #NONE} if the timestamp cannot be parsed
+	 */
+	static long parse(String timestamp) {
+		if (timestamp == null) {
+			return NONE;
+		}
+		ParsePosition position = new ParsePosition(0);
+		LocalDateTime dateTime;
+		try {
+			dateTime = LocalDateTime.from(FORMAT.parse(timestamp, position));
+		} catch (DateTimeException ex) {
+			return NONE;
+		}
+		int index = position.getIndex();
+		if (index >= timestamp.length() - 1 || timestamp.charAt(index) != '-') {
+			return NONE;
+		}
+		long millis = 0;
+		int digits = 0;
+		for (index++; index < timestamp.length() && Character.isDigit(timestamp.charAt(index)); index++) {
+			millis = millis * 10 + Character.digit(timestamp.charAt(index), 10);
+			digits++;
+		}
+		if (digits == 0) {
+			return NONE;
+		}
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + millis;
+	}
+
+	/**
+	 * Converts Date stored by older builds.
+	 *
+	 * @param date date, may be null
+	 * @return epoch millis or {@link #NONE}
+	 */
+	static long of(Date date) {
+		return date == null ? NONE : date.getTime();
+	}
+
+	/**
+	 * Creates Date for the timestamp.
+	 *
+	 * @param millis epoch millis
+	 * @return new Date or null for {@link #NONE}
+	 */
+	static Date toDate(long millis) {
+		return millis == NONE ? null : new Date(millis);
+	}
+
+}
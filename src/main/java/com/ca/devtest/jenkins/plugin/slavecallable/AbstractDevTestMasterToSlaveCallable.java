@@ -1,6 +1,8 @@
 package com.ca.devtest.jenkins.plugin.slavecallable;
 
+import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.data.DevTestReturnValue;
+import com.ca.devtest.jenkins.plugin.data.RegistryData;
 import hudson.FilePath;
 import hudson.model.TaskListener;
 import jenkins.security.MasterToSlaveCallable;
@@ -22,4 +24,16 @@ public abstract class AbstractDevTestMasterToSlaveCallable extends MasterToSlave
     public TaskListener getListener() {
         return listener;
     }
+
+    /**
+     * Applies http connection pool settings from global configuration on the node where the
+     * callable is executed.
+     *
+     * @param data registry data holding settings
+     */
+    protected void configureHttpClient(RegistryData data) {
+        if (data != null && data.getHttpClientSettings() != null) {
+            RestClient.configure(data.getHttpClientSettings());
+        }
+    }
 }
\ No newline at end of file
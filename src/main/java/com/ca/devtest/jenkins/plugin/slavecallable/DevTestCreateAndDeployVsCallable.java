@@ -68,6 +68,7 @@ public class DevTestCreateAndDeployVsCallable extends AbstractDevTestMasterToSla
 
     @Override
     public DevTestReturnValue call(){
+        configureHttpClient(data);
         DevTestReturnValue devTestReturnValue = new DevTestReturnValue();
         try {
 
@@ -88,7 +89,7 @@ public class DevTestCreateAndDeployVsCallable extends AbstractDevTestMasterToSla
             HttpEntity entity = createPostEntity();
             Map<String, String> headers = Collections.singletonMap("Accept", "application/json");
             getListener().getLogger().println("\n> Calling URL  "+ createDeployVSUrl);
-            try(CloseableHttpResponse response = RestClient.executePost(createDeployVSUrl, data.getUsername(), data.getPassword(), data.isTrustAnySSLCertificate(), entity, headers)){
+            try(CloseableHttpResponse response = RestClient.executePost(createDeployVSUrl, data.getUsername(), data.getPassword(), data.isTrustAnySSLCertificate(), entity, headers, data.getRequestTimeouts())){
 
                 int statusCode = response.getStatusLine().getStatusCode();
                 String responseBody = EntityUtils.toString(response.getEntity());
@@ -126,7 +127,7 @@ public class DevTestCreateAndDeployVsCallable extends AbstractDevTestMasterToSla
 
         String urlPath = String.format(APIEndpoints.UNDEPLOY_VS, data.getVse(), vsName);
         String unDeployVSUrl  = new URLFactory(data.getProtocol() , data.getRegistry(), data.getPort()).buildUrl(urlPath);
-        try(CloseableHttpResponse response = RestClient.executeDelete(unDeployVSUrl, data.getUsername(), data.getPassword(), data.isTrustAnySSLCertificate())){
+        try(CloseableHttpResponse response = RestClient.executeDelete(unDeployVSUrl, data.getUsername(), data.getPassword(), data.isTrustAnySSLCertificate(), data.getRequestTimeouts())){
             int statusCode = response.getStatusLine().getStatusCode();
             String message;
             if (statusCode == 204) {
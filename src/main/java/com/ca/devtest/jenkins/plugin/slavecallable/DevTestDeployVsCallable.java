@@ -29,30 +29,40 @@ import com.ca.devtest.jenkins.plugin.Messages;
 import com.ca.devtest.jenkins.plugin.config.RestClient;
 import com.ca.devtest.jenkins.plugin.data.DeployMarData;
 import com.ca.devtest.jenkins.plugin.data.DevTestReturnValue;
+import com.ca.devtest.jenkins.plugin.util.FilePathContentBody;
 import com.ca.devtest.jenkins.plugin.util.MyFileCallable;
 import com.ca.devtest.jenkins.plugin.util.URLFactory;
+import com.ca.devtest.jenkins.plugin.util.Utils;
 import hudson.FilePath;
 import hudson.model.TaskListener;
-import org.apache.commons.io.IOUtils;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.entity.mime.FormBodyPart;
 import org.apache.http.entity.mime.FormBodyPartBuilder;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ByteArrayBody;
 import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
 import org.apache.http.util.EntityUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class used for executing the jobs on slave
@@ -69,64 +79,159 @@ public class DevTestDeployVsCallable extends AbstractDevTestMasterToSlaveCallabl
 
     @Override
     public DevTestReturnValue call() {
-            List<String> marFiles = data.getMarFiles();
-            DevTestReturnValue devTestReturnValue = new DevTestReturnValue();
+        configureHttpClient(data);
+        List<String> marFiles = data.getMarFiles();
+        DevTestReturnValue devTestReturnValue = new DevTestReturnValue();
 
         try {
-                getListener().getLogger().println("Executing task on node "+InetAddress.getLocalHost().getHostName());
-                devTestReturnValue.setNode(InetAddress.getLocalHost().getHostName());
-                for (String marFilePath : marFiles) {
-                    getListener().getLogger().println(Messages.DevTestDeployVs_deploying(marFilePath));
-                    getListener().getLogger()
-                            .println(Messages.DevTestPlugin_devTestLocation(data.getRegistry(),
-                                    data.getPort()));
-
-                    HttpEntity entity = createPostEntity(getWorkspace(), getListener(), marFilePath);
-                    Map<String, String> headers = Collections.singletonMap("Accept", "application/vnd.ca.lisaInvoke.virtualService+json");
-                    String testDeployUrl  = new URLFactory(data.getProtocol() , data.getRegistry(), data.getPort()).buildUrl(data.getAPIUrl());
-                    try(CloseableHttpResponse response = RestClient.executePost(testDeployUrl , data.getUsername(), data.getPassword(), data.isTrustAnySSLCertificate(), entity, headers)){
-                        int statusCode = response.getStatusLine().getStatusCode();
-                        String responseBody = EntityUtils.toString(response.getEntity());
-
-                        if (statusCode == 201) {
-                            getListener().getLogger().println(Messages.DevTestPlugin_responseBody(responseBody));
-                            getListener().getLogger().println(Messages.DevTestDeployVs_success(marFilePath));
-                            devTestReturnValue.setMessage("Marfile '" + marFilePath + "' deployed sucessfully");
-                            devTestReturnValue.setSuccess(true);
-                        } else {
-                            getListener().getLogger().println(Messages.DevTestDeployVs_error());
-                            if (statusCode == 200) {
-                                devTestReturnValue.setMessage(Messages.DevTestPlugin_invalidCredentials());
-                            } else {
-                                devTestReturnValue.setMessage(Messages.DevTestPlugin_responseStatus(statusCode, responseBody));
-                            }
-                            devTestReturnValue.setSuccess(false);
-                            return devTestReturnValue;
-                        }
-                    }
-                }
+            getListener().getLogger().println("Executing task on node "+InetAddress.getLocalHost().getHostName());
+            devTestReturnValue.setNode(InetAddress.getLocalHost().getHostName());
+            if (data.getMaxConcurrency() > 1 && marFiles.size() > 1) {
+                deployConcurrently(marFiles, devTestReturnValue);
+            } else {
+                deploySequentially(marFiles, devTestReturnValue);
+            }
         } catch(Exception e){
             devTestReturnValue.setMessage(e.getMessage());
         }
         return devTestReturnValue;
     }
 
+    /**
+     * Deploys MAR files one by one and stops on first failure.
+     */
+    private void deploySequentially(List<String> marFiles, DevTestReturnValue devTestReturnValue) {
+        for (String marFilePath : marFiles) {
+            DevTestReturnValue result = deploy(marFilePath, getListener().getLogger());
+            devTestReturnValue.addResult(result);
+            devTestReturnValue.setMessage(result.getMessage());
+            devTestReturnValue.setSuccess(result.isSuccess());
+            if (!result.isSuccess()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deploys MAR files on bounded pool of threads. All MAR files are deployed even if some of them
+     * fail. Log of every MAR file is buffered and printed in order of MAR files.
+     */
+    private void deployConcurrently(List<String> marFiles, DevTestReturnValue devTestReturnValue)
+            throws InterruptedException {
+        int threads = Math.min(data.getMaxConcurrency(), marFiles.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new NamingThreadFactory(new DaemonThreadFactory(), "DevTestDeployVsCallable"));
+        try {
+            List<Future<DevTestReturnValue>> futures = new ArrayList<>(marFiles.size());
+            List<ByteArrayOutputStream> logs = new ArrayList<>(marFiles.size());
+            for (String marFilePath : marFiles) {
+                ByteArrayOutputStream log = new ByteArrayOutputStream();
+                logs.add(log);
+                futures.add(executor.submit(() -> {
+                    try (PrintStream logger = new PrintStream(log, true, "UTF-8")) {
+                        return deploy(marFilePath, logger);
+                    }
+                }));
+            }
+
+            List<String> failed = new ArrayList<>();
+            for (int i = 0; i < marFiles.size(); i++) {
+                DevTestReturnValue result;
+                try {
+                    result = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    result = new DevTestReturnValue();
+                    result.setName(marFiles.get(i));
+                    result.setMessage(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                }
+                getListener().getLogger().print(new String(logs.get(i).toByteArray(), StandardCharsets.UTF_8));
+                devTestReturnValue.addResult(result);
+                if (!result.isSuccess()) {
+                    getListener().getLogger().println(result.getMessage());
+                    failed.add(result.getName());
+                }
+            }
+
+            for (DevTestReturnValue result : devTestReturnValue.getResults()) {
+                getListener().getLogger().println(Messages.DevTestDeployVs_marResult(result.getName(),
+                        result.isSuccess() ? "OK" : "FAILED", result.getStatusCode(), result.getDuration()));
+            }
+            devTestReturnValue.setSuccess(failed.isEmpty());
+            if (failed.isEmpty()) {
+                devTestReturnValue.setMessage(Messages.DevTestDeployVs_allDeployed(marFiles.size()));
+            } else {
+                devTestReturnValue.setMessage(Messages.DevTestDeployVs_someFailed(failed.size(), marFiles.size(),
+                        StringUtils.join(failed, ", ")));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Deploys single MAR file.
+     *
+     * @param marFilePath path to MAR file
+     * @param logger      logger used for output of this deployment
+     * @return result of deployment
+     */
+    private DevTestReturnValue deploy(String marFilePath, PrintStream logger) {
+        DevTestReturnValue result = new DevTestReturnValue();
+        result.setName(marFilePath);
+        long start = System.currentTimeMillis();
+        try {
+            logger.println(Messages.DevTestDeployVs_deploying(marFilePath));
+            logger.println(Messages.DevTestPlugin_devTestLocation(data.getRegistry(), data.getPort()));
+
+            HttpEntity entity = createPostEntity(getWorkspace(), logger, marFilePath);
+            Map<String, String> headers = Collections.singletonMap("Accept", "application/vnd.ca.lisaInvoke.virtualService+json");
+            String testDeployUrl  = new URLFactory(data.getProtocol() , data.getRegistry(), data.getPort()).buildUrl(data.getAPIUrl());
+            try(CloseableHttpResponse response = RestClient.executePost(testDeployUrl , data.getUsername(), data.getPassword(), data.isTrustAnySSLCertificate(), entity, headers, data.getRequestTimeouts())){
+                int statusCode = response.getStatusLine().getStatusCode();
+                String responseBody = EntityUtils.toString(response.getEntity());
+                result.setStatusCode(statusCode);
+                result.setResponseBody(responseBody);
+
+                if (statusCode == 201) {
+                    logger.println(Messages.DevTestPlugin_responseBody(responseBody));
+                    logger.println(Messages.DevTestDeployVs_success(marFilePath));
+                    result.setMessage("Marfile '" + marFilePath + "' deployed sucessfully");
+                    result.setSuccess(true);
+                } else {
+                    logger.println(Messages.DevTestDeployVs_error());
+                    if (statusCode == 200) {
+                        result.setMessage(Messages.DevTestPlugin_invalidCredentials());
+                    } else {
+                        result.setMessage(Messages.DevTestPlugin_responseStatus(statusCode, responseBody));
+                    }
+                    result.setSuccess(false);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setMessage(e.getMessage());
+        } catch (Exception e) {
+            result.setMessage(e.getMessage());
+        }
+        result.setDuration(System.currentTimeMillis() - start);
+        return result;
+    }
+
     /**
      * Creates entity for HTTP Post request depending on provided format of path to MAR file. If path
-     * to MAR file contains http or file prefix than form with fileURI property is used and this means
+     * to MAR file starts with http or file scheme than form with fileURI property is used and this means
      * that DevTest will look for MAR file on the provided HTTP link or on its filesystem. When no
      * prefix is part of the path then MAR file is located in workspace of the job and we upload it as
      * part of request with file property.
      *
      * @param workspace workspace of job
-     * @param listener  listener
+     * @param logger    logger
      *
      * @return created {@link HttpEntity} for deploying VS
      */
-    private HttpEntity createPostEntity(FilePath workspace, TaskListener listener, String marFilePath)
+    private HttpEntity createPostEntity(FilePath workspace, PrintStream logger, String marFilePath)
             throws IOException, InterruptedException {
-        if (StringUtils.containsIgnoreCase(marFilePath, "file") || StringUtils
-                .containsIgnoreCase(marFilePath, "http")) {
+        if (Utils.hasUrlScheme(marFilePath)) {
             FormBodyPart bodyPart = FormBodyPartBuilder.create().setName("fileURI")
                     .setBody(new StringBody(marFilePath)).build();
             return MultipartEntityBuilder.create().addPart(bodyPart).build();
@@ -136,11 +241,9 @@ public class DevTestDeployVsCallable extends AbstractDevTestMasterToSlaveCallabl
             if (file != null) {
                 ContentBody cbody = null;
                 if (marFile.isRemote()) {
-                    listener.getLogger()
-                            .println("File read remote mar file in node callable");
-                    //we need to read remote file in advance to be available for httpclient
-                    byte[] filedata = IOUtils.toByteArray(marFile.read());
-                    cbody = new ByteArrayBody(filedata, marFilePath);
+                    logger.println("File read remote mar file in node callable");
+                    //remote file is streamed into request, it is not buffered in memory
+                    cbody = new FilePathContentBody(marFile, marFilePath);
                 } else {
                     cbody = new FileBody(file);
                 }
@@ -148,8 +251,7 @@ public class DevTestDeployVsCallable extends AbstractDevTestMasterToSlaveCallabl
                         .addPart("file", cbody)
                         .build();
             } else {
-                listener.getLogger()
-                        .println("File " + marFilePath + " is no present in the workspace of job on machine "+InetAddress.getLocalHost().getHostName());
+                logger.println("File " + marFilePath + " is no present in the workspace of job on machine "+InetAddress.getLocalHost().getHostName());
                 throw new FileNotFoundException(
                         "Cannot located file with relative path " + marFilePath + " in workspace of job");
             }
@@ -0,0 +1,180 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.util;
+
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsStore;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.Jenkins;
+
+/**
+ * Caches credentials resolved by {@link Utils#lookupCredentials(Item, String)} keyed by item and
+ * credentials id, so build step startup and form validation do not list all credentials visible
+ * from the item again and again. Cache is cleared whenever a credentials store or system credentials
+ * are saved. Folder credentials are saved with the folder, so saving a folder with its own
+ * credentials store drops entries of the folder and items inside it. Saves of Jenkins itself and of
+ * other items keep the cache. Entries also expire after a while, so changes of credentials from
+ * providers which are not saved in Jenkins are picked up eventually.
+ */
+public final class CredentialsCache {
+
+	private static final int MAX_ENTRIES = 1000;
+
+	private static final long EXPIRATION = TimeUnit.MINUTES.toMillis(5);
+
+	private static final Map<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private static Jenkins owner;
+
+	/**
+	 * Incremented on every invalidation so lookup running concurrently does not store stale value.
+	 */
+	private static long generation;
+
+	private CredentialsCache() {
+	}
+
+	/**
+	 * Loads credentials which are not cached yet.
+	 */
+	interface Loader {
+
+		StandardUsernamePasswordCredentials load(Item context, String credentialId);
+	}
+
+	/**
+	 * Returns credentials from cache, looking them up by loader when they are not cached.
+	 *
+	 * @param context      item the credentials are resolved for, null for Jenkins
+	 * @param credentialId credentials id
+	 * @param loader       lookup of credentials
+	 *
+	 * @return credentials or null when there are no credentials with such id
+	 */
+	static StandardUsernamePasswordCredentials get(Item context, String credentialId, Loader loader) {
+		String key = (context == null ? "" : context.getFullName()) + "|" + credentialId;
+		long loadedGeneration;
+		synchronized (CredentialsCache.class) {
+			Jenkins jenkins = Jenkins.getInstanceOrNull();
+			if (owner != jenkins) {
+				clear();
+				owner = jenkins;
+			}
+			Entry entry = ENTRIES.get(key);
+			if (entry != null && System.currentTimeMillis() - entry.created < EXPIRATION) {
+				return entry.credentials;
+			}
+			loadedGeneration = generation;
+		}
+
+		StandardUsernamePasswordCredentials credentials = loader.load(context, credentialId);
+		synchronized (CredentialsCache.class) {
+			if (loadedGeneration == generation) {
+				ENTRIES.put(key, new Entry(credentials));
+			}
+		}
+		return credentials;
+	}
+
+	/**
+	 * Forgets all cached credentials.
+	 */
+	public static synchronized void invalidateAll() {
+		clear();
+	}
+
+	/**
+	 * Forgets cached credentials of folder and of all items inside it.
+	 *
+	 * @param folder folder
+	 */
+	static synchronized void invalidate(Item folder) {
+		String fullName = folder.getFullName();
+		ENTRIES.keySet().removeIf(key -> key.startsWith(fullName + "|") || key.startsWith(fullName + "/"));
+		generation++;
+	}
+
+	private static void clear() {
+		ENTRIES.clear();
+		generation++;
+	}
+
+	private static final class Entry {
+
+		private final StandardUsernamePasswordCredentials credentials;
+
+		private final long created = System.currentTimeMillis();
+
+		private Entry(StandardUsernamePasswordCredentials credentials) {
+			this.credentials = credentials;
+		}
+	}
+
+	/**
+	 * Invalidates cache when credentials may have changed.
+	 */
+	@Extension
+	public static class CredentialsSaveListener extends SaveableListener {
+
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if (o instanceof CredentialsStore || o instanceof SystemCredentialsProvider) {
+				invalidateAll();
+			} else if (o instanceof Item && o instanceof ItemGroup && hasOwnStore((Item) o)) {
+				// folder credentials are stored in folder configuration and visible only inside the folder
+				invalidate((Item) o);
+			}
+		}
+
+		private static boolean hasOwnStore(Item folder) {
+			for (CredentialsStore store : CredentialsProvider.lookupStores(folder)) {
+				if (store.getContext() == folder) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
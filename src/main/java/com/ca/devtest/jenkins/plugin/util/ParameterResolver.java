@@ -0,0 +1,114 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.util;
+
+import hudson.EnvVars;
+import hudson.Util;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.VariableResolver;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves Jenkins parameters of single step execution. Environment of the run is computed once
+ * when the resolver is created and reused for every resolved field, so environment contributors
+ * are not called again for each of them. Pattern for parameters in Jenkins is either
+ * $parameter or ${parameter}.
+ *
+ * <p>In pipelines the environment of the run does not contain variables set by {@code withEnv}
+ * or {@code environment} blocks, build steps get no step context in this Jenkins version. Such
+ * values have to be passed to the step with Groovy string interpolation.</p>
+ */
+public class ParameterResolver {
+
+	private final EnvVars envVars;
+
+	private final VariableResolver<String> resolver;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param run      specific jenkins job run, freestyle build as well as pipeline run
+	 * @param listener listener of the same job run
+	 *
+	 * @throws IOException          when there is a problem of getting build environment
+	 * @throws InterruptedException interrupted exception
+	 */
+	public ParameterResolver(Run<?, ?> run, TaskListener listener) throws IOException, InterruptedException {
+		this(run == null ? new EnvVars() : run.getEnvironment(listener));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param envVars environment the parameters are resolved from
+	 */
+	public ParameterResolver(EnvVars envVars) {
+		this.envVars = envVars;
+		this.resolver = new VariableResolver.ByMap<>(envVars);
+	}
+
+	/**
+	 * Resolves single parameter.
+	 *
+	 * @param parameter parameter
+	 *
+	 * @return resolved parameter, null if the parameter is null
+	 */
+	public String resolve(String parameter) {
+		return Util.replaceMacro(envVars.expand(parameter), resolver);
+	}
+
+	/**
+	 * Resolves parameters. Parameter resolved to more lines is split to one value per line.
+	 *
+	 * @param parameters list of parameters
+	 *
+	 * @return list containing resolved parameters
+	 */
+	public List<String> resolveAll(List<String> parameters) {
+		List<String> resolvedParameters = new ArrayList<>();
+		for (String parameter : parameters) {
+			resolvedParameters.addAll(Arrays.asList(resolve(parameter).split("\\s*\n\\s*")));
+		}
+		return resolvedParameters;
+	}
+
+	/**
+	 * Gets environment the parameters are resolved from.
+	 *
+	 * @return environment variables
+	 */
+	public EnvVars getEnvVars() {
+		return envVars;
+	}
+
+}
@@ -35,48 +35,31 @@ import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.domains.DomainRequirement;
 import hudson.AbortException;
-import hudson.EnvVars;
 import hudson.FilePath;
-import hudson.Util;
 import hudson.model.Item;
-import hudson.model.AbstractBuild;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.security.ACL;
 import hudson.util.FormValidation;
 import hudson.util.Secret;
-import hudson.util.VariableResolver;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Locale;
 import jenkins.model.Jenkins;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.http.entity.mime.FormBodyPart;
 import org.apache.http.entity.mime.FormBodyPartBuilder;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ByteArrayBody;
 import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
-import org.springframework.util.AntPathMatcher;
 import org.kohsuke.stapler.AncestorInPath;
 
 /**
@@ -196,28 +179,14 @@ public class Utils {
 	 */
 	public static List<String> resolveParameters(List<String> parameters, Run<?, ?> run,
 			TaskListener listener) throws IOException, InterruptedException {
-		EnvVars envVars = new EnvVars();
-		if (run instanceof AbstractBuild) {
-			final AbstractBuild build = (AbstractBuild) run;
-			envVars = build.getEnvironment(listener);
-		}
-
-		List<String> resolvedParamaters = new ArrayList<>();
-		final VariableResolver<String> resolver = new VariableResolver.ByMap<>(envVars);
-
-		for (String parameter : parameters) {
-			String resolvedParameter = Util.replaceMacro(envVars.expand(parameter), resolver);
-			resolvedParamaters.addAll(Arrays
-					.asList(resolvedParameter.split("\\s*\n\\s*")));
-		}
-
-		return resolvedParamaters;
+		return new ParameterResolver(run, listener).resolveAll(parameters);
 	}
 
 	/**
 	 * Resolves single Jenkins parameter from build based on job environment.
 	 * Pattern for parameters in Jenkins is either
-	 * $parameter or ${parameter}.
+	 * $parameter or ${parameter}. Steps resolving more fields should create single
+	 * {@link ParameterResolver} instead, so the environment is computed only once.
 	 *
 	 * @param parameter parameter
 	 * @param run       specific jenkins job run
@@ -230,18 +199,11 @@ public class Utils {
 	 */
 	public static String resolveParameter(String parameter, Run<?, ?> run,
 			TaskListener listener) throws IOException, InterruptedException {
-		EnvVars envVars = new EnvVars();
-		if (run instanceof AbstractBuild) {
-			final AbstractBuild build = (AbstractBuild) run;
-			envVars = build.getEnvironment(listener);
-		}
-
-		final VariableResolver<String> resolver = new VariableResolver.ByMap<>(envVars);
-		return Util.replaceMacro(envVars.expand(parameter), resolver);
+		return new ParameterResolver(run, listener).resolve(parameter);
 	}
 
 	/**
-	 * Resolves jenkins credentials by id.
+	 * Resolves jenkins credentials by id. Resolved credentials are cached by {@link CredentialsCache}.
 	 *
 	 * @param credentialId id
 	 *
@@ -252,6 +214,10 @@ public class Utils {
 		if (credentialId == null) {
 			return null;
 		}
+		return CredentialsCache.get(context, credentialId, Utils::findCredentials);
+	}
+
+	private static StandardUsernamePasswordCredentials findCredentials(Item context, String credentialId) {
 		List<StandardUsernamePasswordCredentials> credentials;
 		if(context == null) {
 			credentials = CredentialsProvider
@@ -261,7 +227,6 @@ public class Utils {
 			credentials = CredentialsProvider
 					.lookupCredentials(StandardUsernamePasswordCredentials.class, context,
 							ACL.SYSTEM, Collections.<DomainRequirement>emptyList());
-			CredentialsMatcher matcher = CredentialsMatchers.withId(credentialId);
 		}
 		CredentialsMatcher matcher = CredentialsMatchers.withId(credentialId);
 		return CredentialsMatchers.firstOrNull(credentials, matcher);
@@ -276,19 +241,12 @@ public class Utils {
 	 * @return list of file paths matching list of wildcards
 	 *
 	 * @throws AbortException if there are no files matching wildcard
+	 * @see WildcardFilesCallable for resolving wildcards on the node of the workspace
 	 */
 	public static List<String> getFilesMatchingWildcardList(List<String> marFilesWildcards,
 			String workspace)
 			throws AbortException {
-		Set<String> result = new LinkedHashSet<>();
-		for (String path : marFilesWildcards) {
-			if (path.contains("*") || path.contains("?")) {
-				result.addAll(Utils.getFilesMatchingWildcard(path, workspace));
-			} else {
-				result.add(path);
-			}
-		}
-		return new ArrayList<>(result);
+		return WildcardFileFinder.findAll(marFilesWildcards, workspace);
 	}
 
 	/**
@@ -303,51 +261,20 @@ public class Utils {
 	 */
 	public static List<String> getFilesMatchingWildcard(String wildcard, final String startDir)
 			throws AbortException {
-		if (wildcard == null || startDir == null) {
-			throw new AbortException(Messages.Utils_NullWildcardOrDir(wildcard, startDir));
-		}
-		final AntPathMatcher pathMatcher = new AntPathMatcher();
-		List<String> files = new ArrayList<>();
-		FileVisitor<Path> matcherVisitor = new SimpleFileVisitor<Path>() {
-			@Override
-			public FileVisitResult visitFile(Path file, BasicFileAttributes attribs) {
-				if (file != null) {
-					String matcher = startDir + wildcard;
-					if ((!wildcard.startsWith("\\") && !wildcard.startsWith("/"))
-							&&
-							(!startDir.endsWith("\\") && !startDir.endsWith("/"))) {
-						matcher = startDir + "/" + wildcard;
-					}
-					matcher = (matcher).replace('\\', '/');
-					// sanitizing paths before matching (making matcher absolute)
-					// pattern and a path must both be absolute or must both be relative
-					// in order for the two to match in Linux
-					if (!matcher.startsWith("/")) {
-						if (matcher.length() >= 3) {
-							if (!matcher.substring(1).startsWith(":/")) {
-								matcher = "/" + matcher;
-							}
-						} else {
-							matcher = "/" + matcher;
-						}
-					}
-					String path = file.toAbsolutePath().toString().replace('\\', '/');
-					if (pathMatcher.match(matcher, path)) {
-						files.add(new File(startDir).toURI().relativize(new File(path).toURI()).getPath());
-					}
-				}
-				return FileVisitResult.CONTINUE;
-			}
-		};
-		try {
-			Files.walkFileTree(Paths.get(startDir), matcherVisitor);
-		} catch (Exception ex) {
-			throw new AbortException(Messages.Utils_FolderNoAccess(startDir));
-		}
-		if (files.size() == 0) {
-			throw new AbortException(Messages.Utils_NoFilesForWildcard(wildcard));
-		}
-		return files;
+		return WildcardFileFinder.find(wildcard, startDir);
+	}
+
+	/**
+	 * Checks if path starts with file or http(s) URL scheme. Such paths are URIs of files
+	 * resolved by DevTest itself, other paths point to files in workspace.
+	 *
+	 * @param path path or URI of file
+	 *
+	 * @return true if path starts with file:, http: or https:
+	 */
+	public static boolean hasUrlScheme(String path) {
+		String trimmed = StringUtils.trimToEmpty(path).toLowerCase(Locale.ENGLISH);
+		return trimmed.startsWith("file:") || trimmed.startsWith("http:") || trimmed.startsWith("https:");
 	}
 
 	public static boolean isValidPort(String portInput) {
@@ -406,9 +333,8 @@ public class Utils {
 		if (file != null) {
 			ContentBody contentBody;
 			if (inputFile.isRemote()) {
-				// Reading remote file in advance to be available for HttpClient
-				byte[] fileData = IOUtils.toByteArray(inputFile.read());
-				contentBody = new ByteArrayBody(fileData, resolvedInputFilePath);
+				// Streaming remote file into request, it is not buffered in memory
+				contentBody = new FilePathContentBody(inputFile, resolvedInputFilePath);
 			} else {
 				contentBody = new FileBody(file);
 			}
@@ -0,0 +1,176 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.util;
+
+import com.ca.devtest.jenkins.plugin.Messages;
+import hudson.AbortException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Finds files matching Ant style wildcards. The walk starts in the deepest directory of the
+ * wildcard without wildcard characters and directories the wildcard cannot match are skipped,
+ * so only the relevant part of the tree is visited.
+ */
+public final class WildcardFileFinder {
+
+	private WildcardFileFinder() {
+	}
+
+	/**
+	 * Checks whether path contains wildcard characters.
+	 *
+	 * @param path path
+	 *
+	 * @return true if the path is wildcard
+	 */
+	public static boolean isWildcard(String path) {
+		return path.contains("*") || path.contains("?");
+	}
+
+	/**
+	 * Retrieves list of file paths matching the list of wildcards. Paths without wildcard
+	 * characters are returned as they are.
+	 *
+	 * @param wildcards wildcards
+	 * @param startDir  search root folder path
+	 *
+	 * @return list of file paths relative to the root folder
+	 *
+	 * @throws AbortException if there are no files matching some wildcard
+	 */
+	public static List<String> findAll(List<String> wildcards, String startDir) throws AbortException {
+		Set<String> result = new LinkedHashSet<>();
+		for (String path : wildcards) {
+			if (isWildcard(path)) {
+				result.addAll(find(path, startDir));
+			} else {
+				result.add(path);
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	/**
+	 * Retrieves list of file paths matching the wildcard.
+	 *
+	 * @param wildcard wildcard relative to the root folder
+	 * @param startDir search root folder path
+	 *
+	 * @return list of file paths relative to the root folder, sorted
+	 *
+	 * @throws AbortException if there are no files matching wildcard
+	 */
+	public static List<String> find(String wildcard, String startDir) throws AbortException {
+		if (wildcard == null || startDir == null) {
+			throw new AbortException(Messages.Utils_NullWildcardOrDir(wildcard, startDir));
+		}
+		String pattern = toPattern(wildcard, startDir);
+		Path baseDir = getBaseDir(wildcard, startDir);
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		List<String> files = new ArrayList<>();
+		if (Files.isDirectory(baseDir)) {
+			try {
+				Files.walkFileTree(baseDir, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+						if (dir.equals(baseDir) || pathMatcher.matchStart(pattern, toMatchedPath(dir))) {
+							return FileVisitResult.CONTINUE;
+						}
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						String path = toMatchedPath(file);
+						if (pathMatcher.match(pattern, path)) {
+							files.add(new File(startDir).toURI().relativize(new File(path).toURI()).getPath());
+						}
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (IOException ex) {
+				throw new AbortException(Messages.Utils_FolderNoAccess(startDir));
+			}
+		}
+		if (files.isEmpty()) {
+			throw new AbortException(Messages.Utils_NoFilesForWildcard(wildcard));
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Makes absolute pattern of the wildcard. Pattern and a path must both be absolute or must
+	 * both be relative in order for the two to match in Linux.
+	 */
+	private static String toPattern(String wildcard, String startDir) {
+		String pattern = startDir + wildcard;
+		if ((!wildcard.startsWith("\\") && !wildcard.startsWith("/"))
+				&& (!startDir.endsWith("\\") && !startDir.endsWith("/"))) {
+			pattern = startDir + "/" + wildcard;
+		}
+		pattern = pattern.replace('\\', '/');
+		if (!pattern.startsWith("/") && (pattern.length() < 3 || !pattern.substring(1).startsWith(":/"))) {
+			pattern = "/" + pattern;
+		}
+		return pattern;
+	}
+
+	/**
+	 * Gets the deepest directory of the wildcard without wildcard characters, only files below
+	 * it can match.
+	 */
+	private static Path getBaseDir(String wildcard, String startDir) {
+		String[] segments = wildcard.replace('\\', '/').split("/");
+		Path baseDir = Paths.get(startDir);
+		for (int i = 0; i < segments.length - 1 && !isWildcard(segments[i]); i++) {
+			if (!segments[i].isEmpty()) {
+				baseDir = baseDir.resolve(segments[i]);
+			}
+		}
+		return baseDir;
+	}
+
+	private static String toMatchedPath(Path path) {
+		return path.toAbsolutePath().toString().replace('\\', '/');
+	}
+
+}
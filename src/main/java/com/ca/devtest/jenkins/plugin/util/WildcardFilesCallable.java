@@ -0,0 +1,61 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+
+package com.ca.devtest.jenkins.plugin.util;
+
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Resolves wildcards of file paths on the node where the directory is located, so the directory
+ * tree is walked locally instead of through the remoting channel.
+ */
+public class WildcardFilesCallable extends MasterToSlaveFileCallable<List<String>> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ArrayList<String> wildcards;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param wildcards file paths and wildcards relative to the directory
+	 */
+	public WildcardFilesCallable(List<String> wildcards) {
+		this.wildcards = new ArrayList<>(wildcards);
+	}
+
+	@Override
+	public List<String> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+		return WildcardFileFinder.findAll(wildcards, dir.getAbsolutePath());
+	}
+
+}
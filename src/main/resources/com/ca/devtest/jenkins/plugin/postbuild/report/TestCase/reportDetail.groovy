@@ -9,6 +9,16 @@ div(id: "report") {
         h3("${my.state}")
     }
 
+    if (my.truncatedCycles != 0) {
+        p() {
+            if (my.overflowReportPath != null) {
+                text("${Messages.DevTestReport_CyclesTruncated(my.truncatedCycles, my.overflowReportPath)}")
+            } else {
+                text("${Messages.DevTestReport_CyclesTruncatedNoSpill(my.truncatedCycles)}")
+            }
+        }
+    }
+
     if (my.failedCycles.size() != 0) {
         span() {
             h2("${Messages.DevTestReport_FailedCycles()}")
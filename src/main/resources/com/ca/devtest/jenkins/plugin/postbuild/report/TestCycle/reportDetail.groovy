@@ -5,6 +5,9 @@ import com.ca.devtest.jenkins.plugin.Messages
 
 div(id: "report") {
     h2("${Messages.DevTestReport_Cycle()} ${my.cycle+1} ${Messages.DevTestReport_Response()}")
+    if (my.truncatedMessages != 0) {
+        p("${Messages.DevTestReport_MessagesTruncated(my.truncatedMessages)}")
+    }
     pre(){
         text("${my.rawCycleReport}")
     }
@@ -26,12 +26,19 @@
 package com.ca.devtest.jenkins.plugin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import com.ca.devtest.jenkins.plugin.DevTestPluginConfiguration.DevTestPluginDescriptor;
 import com.ca.devtest.jenkins.plugin.buildstep.AbstractDevTestBuildStepTest;
 import com.ca.devtest.jenkins.plugin.buildstep.DevTestStartVs;
 import com.ca.devtest.jenkins.plugin.util.Utils;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.CredentialsStore;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.domains.Domain;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
 import hudson.model.FreeStyleProject;
 import hudson.slaves.EnvironmentVariablesNodeProperty;
 import hudson.slaves.EnvironmentVariablesNodeProperty.Entry;
@@ -76,6 +83,40 @@ public class DevTestPluginTest extends AbstractDevTestBuildStepTest {
 		assertEquals(jenkinsCredentials.getPassword(), Secret.fromString("password"));
 	}
 
+	@Test
+	public void testCachedCredentialsInvalidatedOnStoreChange() throws Exception {
+		CredentialsStore store = CredentialsProvider.lookupStores(Jenkins.getInstance()).iterator().next();
+		UsernamePasswordCredentialsImpl original = new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, "cached", "description", "user", "password");
+		store.addCredentials(Domain.global(), original);
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+
+		assertEquals("user", Utils.lookupCredentials(project, "cached").getUsername());
+		assertSame(Utils.lookupCredentials(project, "cached"), Utils.lookupCredentials(project, "cached"));
+		assertNull(Utils.lookupCredentials(project, "missing"));
+
+		store.updateCredentials(Domain.global(), original, new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, "cached", "description", "changed", "password"));
+		assertEquals("changed", Utils.lookupCredentials(project, "cached").getUsername());
+
+		store.addCredentials(Domain.global(), new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, "missing", "description", "added", "password"));
+		assertEquals("added", Utils.lookupCredentials(project, "missing").getUsername());
+	}
+
+	@Test
+	public void testCachedCredentialsKeptOnJenkinsAndJobSave() throws Exception {
+		CredentialsStore store = CredentialsProvider.lookupStores(Jenkins.getInstance()).iterator().next();
+		store.addCredentials(Domain.global(), new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, "kept", "description", "user", "password"));
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		StandardUsernamePasswordCredentials cached = Utils.lookupCredentials(project, "kept");
+
+		Jenkins.getInstance().save();
+		project.save();
+		assertSame(cached, Utils.lookupCredentials(project, "kept"));
+	}
+
 	private DevTestStartVs createPlugin(boolean useCustomRegistry, String host, String port,
 			String vseName, String vsName, String tokenId) {
 		return new DevTestStartVs(useCustomRegistry, host, port, vseName, vsName, tokenId, false, false);
@@ -120,6 +120,20 @@ public class ApiRepository {
 	}
 
 
+	@TransactionDefinition(name = "getVs")
+	public void virtualizedGetVs() {
+		forGet("http://" + host + "/api/Dcm/VSEs/VSE/webservices-vs/")
+				.matchesBasicAuthorization("admin", "admin")
+				.doReturn(
+						aMessage(200)
+								.withJsonBody("{\n"
+										+ "    \"modelName\": \"webservices-vs\",\n"
+										+ "    \"name\": \"webservices-vs\",\n"
+										+ "    \"status\": \"2\"\n"
+										+ "}")
+				);
+	}
+
 	@TransactionDefinition(name = "uploadVs")
 	public void virtualizedSuccessfulDeployVsFromFileSystem() {
 		forPost("http://" + host + "/api/Dcm/VSEs/VSE/actions/deployMar/")
@@ -671,6 +685,23 @@ public class ApiRepository {
 
 	}
 
+	@TransactionDefinition(name = "virtualizeStartTestGetTestStatusRunning")
+	public void virtualizeStartTestGetTestStatusRunning() {
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/tests/run/828D1E9D5CE611E8A5A80050569C3565")
+				.doReturn(
+						okMessage()
+								.withJsonBody(
+										"{\n"
+												+ "  \"id\": \"828D1E9D5CE611E8A5A80050569C3565\",\n"
+												+ "  \"name\": \"REST Example (Run1User1Cycle0Think)\",\n"
+												+ "  \"runType\": \"TEST\",\n"
+												+ "  \"runBy\": \"admin\",\n"
+												+ "  \"testStatus\": \"RUNNING\",\n"
+												+ "  \"manuallyTerminated\": false\n"
+												+ "}")
+				);
+	}
+
 	@TransactionDefinition(name = "virtualizeStartTestGetSuiteStatus")
 	public void virtualizeStartTestGetSuiteStatus() {
 		forGet(
@@ -696,6 +727,79 @@ public class ApiRepository {
 	}
 
 
+	@TransactionDefinition(name = "getSuiteReports")
+	public void virtualizeGetSuiteReports() {
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/suites/reports/4A9797CA5DC111E8A5A80050569C3565")
+				.doReturn(
+						okMessage()
+								.withJsonBody("{\n"
+										+ "  \"suiteName\": \"testsuite\",\n"
+										+ "  \"elapsedTimeInMillSec\": \"240\",\n"
+										+ "  \"startTime\": \"2018-06-04 10:00:00\",\n"
+										+ "  \"endTime\": \"2018-06-04 10:00:02\",\n"
+										+ "  \"totalTestsExecuted\": \"2\",\n"
+										+ "  \"passCount\": \"2\",\n"
+										+ "  \"failCount\": \"0\",\n"
+										+ "  \"warningCount\": \"0\",\n"
+										+ "  \"abortCount\": \"0\"\n"
+										+ "}")
+				);
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/suites/reports/4A9797CA5DC111E8A5A80050569C3565/tests")
+				.doReturn(
+						okMessage()
+								.withJsonBody("{\n"
+										+ "  \"_embedded\": {\n"
+										+ "    \"Tests\": [\n"
+										+ "      {\"testRunUniqueId\": \"5B1E0F1A5DC111E8A5A80050569C3565\", \"testcaseName\": \"first\"},\n"
+										+ "      {\"testRunUniqueId\": \"5B1E0F1B5DC111E8A5A80050569C3565\", \"testcaseName\": \"second\"}\n"
+										+ "    ]\n"
+										+ "  }\n"
+										+ "}")
+				);
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/suites/reports/4A9797CA5DC111E8A5A80050569C3565/tests/5B1E0F1A5DC111E8A5A80050569C3565")
+				.doReturn(
+						okMessage()
+								.withJsonBody("{\n"
+										+ "  \"testRunUniqueId\": \"5B1E0F1A5DC111E8A5A80050569C3565\",\n"
+										+ "  \"testcaseName\": \"first\",\n"
+										+ "  \"endedState\": \"PASSED\",\n"
+										+ "  \"elapsedTimeInMillSec\": \"120\",\n"
+										+ "  \"startTime\": \"2018-06-04 10:00:00\",\n"
+										+ "  \"endTime\": \"2018-06-04 10:00:01\"\n"
+										+ "}")
+				);
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/suites/reports/4A9797CA5DC111E8A5A80050569C3565/tests/5B1E0F1A5DC111E8A5A80050569C3565/cycles")
+				.doReturn(
+						okMessage()
+								.withJsonBody("{\n"
+										+ "  \"_embedded\": {\n"
+										+ "    \"CycleHistory\": []\n"
+										+ "  }\n"
+										+ "}")
+				);
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/suites/reports/4A9797CA5DC111E8A5A80050569C3565/tests/5B1E0F1B5DC111E8A5A80050569C3565")
+				.doReturn(
+						okMessage()
+								.withJsonBody("{\n"
+										+ "  \"testRunUniqueId\": \"5B1E0F1B5DC111E8A5A80050569C3565\",\n"
+										+ "  \"testcaseName\": \"second\",\n"
+										+ "  \"endedState\": \"PASSED\",\n"
+										+ "  \"elapsedTimeInMillSec\": \"120\",\n"
+										+ "  \"startTime\": \"2018-06-04 10:00:00\",\n"
+										+ "  \"endTime\": \"2018-06-04 10:00:01\"\n"
+										+ "}")
+				);
+		forGet("http://" + host + "/lisa-test-invoke/api/v1/suites/reports/4A9797CA5DC111E8A5A80050569C3565/tests/5B1E0F1B5DC111E8A5A80050569C3565/cycles")
+				.doReturn(
+						okMessage()
+								.withJsonBody("{\n"
+										+ "  \"_embedded\": {\n"
+										+ "    \"CycleHistory\": []\n"
+										+ "  }\n"
+										+ "}")
+				);
+	}
+
 	/**
 	 *Transaction Definition created for DevTestCreateAndDeployVsTest class - START
 	 *
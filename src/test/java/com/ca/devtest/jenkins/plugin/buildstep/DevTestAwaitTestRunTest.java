@@ -0,0 +1,116 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.buildstep;
+
+import com.ca.codesv.engine.junit4.VirtualServerRule;
+import com.ca.codesv.sdk.annotation.TransactionClassRepository;
+import hudson.model.Result;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Unit tests for {@link DevTestAwaitTestRun}.
+ */
+public class DevTestAwaitTestRunTest extends AbstractDevTestBuildStepTest {
+
+	@Rule
+	@TransactionClassRepository(repoClasses = {ApiRepository.class})
+	public VirtualServerRule vs = new VirtualServerRule(this);
+
+	@Test
+	public void testScriptedPipelineAwaitTestRun() throws Exception {
+		vs.useTransaction("startTestMarFileTest");
+		vs.useTransaction("virtualizeStartTestGetTestStatus");
+		WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-await-test-run");
+
+		job.setDefinition(new CpsFlowDefinition(createPipelineScript("svAwaitTestRun()"), false));
+		WorkflowRun completedBuild = jenkins.assertBuildStatus(Result.SUCCESS, job.scheduleBuild2(0));
+		jenkins.assertLogContains("Not waiting for Test/Suite run 828D1E9D5CE611E8A5A80050569C3565 to finish",
+				completedBuild);
+		jenkins.assertLogContains("Test/Suite run finished with status: PASSED", completedBuild);
+		jenkins.assertLogContains("Awaited status: PASSED", completedBuild);
+	}
+
+	@Test
+	public void testAwaitTestRunWithoutPendingRun() throws Exception {
+		WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-await-nothing");
+		job.setDefinition(new CpsFlowDefinition("svAwaitTestRun()", false));
+		WorkflowRun completedBuild = jenkins.assertBuildStatus(Result.FAILURE, job.scheduleBuild2(0));
+		jenkins.assertLogContains("No Test/Suite run to wait for", completedBuild);
+	}
+
+	@Test
+	public void testAwaitTestRunStepTimeout() throws Exception {
+		vs.useTransaction("startTestMarFileTest");
+		vs.useTransaction("virtualizeStartTestGetTestStatusRunning");
+		WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-await-timeout");
+
+		job.setDefinition(new CpsFlowDefinition(createPipelineScript("svAwaitTestRun stepTimeout: 2"), false));
+		WorkflowRun completedBuild = jenkins.assertBuildStatus(Result.FAILURE, job.scheduleBuild2(0));
+		jenkins.assertLogContains("did not finish within 2 s", completedBuild);
+		jenkins.assertLogNotContains("Awaited status", completedBuild);
+		assertNotNull(completedBuild.getAction(PendingTestRunsAction.class)
+				.get("828D1E9D5CE611E8A5A80050569C3565"));
+	}
+
+	@Test
+	public void testAbortStopsPolling() throws Exception {
+		vs.useTransaction("startTestMarFileTest");
+		vs.useTransaction("virtualizeStartTestGetTestStatusRunning");
+		WorkflowJob job = jenkins.createProject(WorkflowJob.class, "test-await-abort");
+
+		job.setDefinition(new CpsFlowDefinition(createPipelineScript("svAwaitTestRun()"), false));
+		WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+		jenkins.waitForMessage("Waiting for Test/Suite run 828D1E9D5CE611E8A5A80050569C3565 to finish", run);
+		run.doStop();
+		jenkins.assertBuildStatus(Result.ABORTED, jenkins.waitForCompletion(run));
+
+		// nothing is polled or logged once the step is stopped
+		String log = JenkinsRule.getLog(run);
+		Thread.sleep(2000);
+		assertEquals(log, JenkinsRule.getLog(run));
+		jenkins.assertLogNotContains("Awaited status", run);
+		assertNotNull(run.getAction(PendingTestRunsAction.class).get("828D1E9D5CE611E8A5A80050569C3565"));
+	}
+
+	private String createPipelineScript(String awaitStep) {
+		return "node {\n"
+				+ "writeFile file:  \"rest-example.mar\", text: \"123\" \n"
+				+ "svDeployTest useCustomRegistry: true, host:\""
+				+ getHost()
+				+ "\" , port:\"1505\", marFilePath: \"rest-example.mar\", testType: \"tests\", tokenCredentialId:\"id\", waitForCompletion: false\n"
+				+ "}\n"
+				+ "def status = " + awaitStep + "\n"
+				+ "echo \"Awaited status: ${status}\"\n";
+	}
+}
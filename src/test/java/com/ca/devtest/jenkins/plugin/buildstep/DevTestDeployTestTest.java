@@ -36,11 +36,14 @@ import hudson.slaves.DumbSlave;
 import hudson.slaves.EnvironmentVariablesNodeProperty;
 import hudson.slaves.EnvironmentVariablesNodeProperty.Entry;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import jenkins.model.Jenkins;
+import org.apache.commons.io.FileUtils;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
@@ -48,6 +51,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.SingleFileSCM;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  * Unit tests for {@link DevTestDeployTest}.
  *
@@ -161,6 +167,70 @@ public class DevTestDeployTestTest extends AbstractDevTestBuildStepTest {
 
 	}
 
+	@Test
+	public void testConfigRoundtripWithPollSettings() throws Exception {
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		DevTestDeployTest builder = createPlugin(true, getHost(), "1505",
+				"rest-example.mar", "", "", "","", "","tests", "id");
+		builder.setPollInitialIntervalMillis(200);
+		builder.setPollMultiplier(2);
+		builder.setPollMaxIntervalMillis(5000);
+		builder.setPollTimeout(600);
+		project.getBuildersList().add(builder);
+		project = jenkins.configRoundtrip(project);
+		jenkins.assertEqualDataBoundBeans(builder, project.getBuildersList().get(0));
+	}
+
+	@Test
+	public void testPollMultiplierIsClamped() {
+		DevTestDeployTest builder = createPlugin(true, getHost(), "1505",
+				"rest-example.mar", "", "", "","", "","tests", "id");
+		builder.setPollMultiplier(0.5);
+		assertEquals(1, builder.getPollMultiplier(), 0);
+	}
+
+	@Test
+	public void testStartTestPollTimeout() throws Exception {
+		vs.useTransaction("startTestMarFileTest");
+		vs.useTransaction("virtualizeStartTestGetTestStatusRunning");
+
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		project.setScm(new SingleFileSCM("rest-example.mar",
+				getClass().getResource("/rest-example.mar")));
+		DevTestDeployTest builder = createPlugin(true, getHost(), "1505",
+				"rest-example.mar", "", "", "","", "","tests", "id");
+		builder.setPollInitialIntervalMillis(100);
+		builder.setPollTimeout(1);
+		project.getBuildersList().add(builder);
+
+		FreeStyleBuild build = jenkins.assertBuildStatus(Result.FAILURE, project.scheduleBuild2(0));
+		jenkins.assertLogContains("Test/Suite run did not finish within 1 seconds, last status: RUNNING", build);
+	}
+
+	@Test
+	public void testStartSuiteDownloadsTestReportsConcurrently() throws Exception {
+		vs.useTransaction("startTestMarFileSuite");
+		vs.useTransaction("virtualizeStartTestGetSuiteStatus");
+		vs.useTransaction("getSuiteReports");
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		project.setScm(new SingleFileSCM("testsuite.mar",
+				getClass().getResource("/testsuite.mar")));
+		DevTestDeployTest builder = createPlugin(true, getHost(), "1505",
+				"testsuite.mar", "", "", "","", "", "suites", "id");
+		builder.setReportDownloadConcurrency(2);
+		project.getBuildersList().add(builder);
+
+		FreeStyleBuild build = jenkins.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+		File testsDir = new File(build.getRootDir(), "report/4A9797CA5DC111E8A5A80050569C3565/suites/suite/tests");
+		assertTrue(FileUtils.readFileToString(new File(testsDir, "case1/test.json"), StandardCharsets.UTF_8)
+				.contains("5B1E0F1A5DC111E8A5A80050569C3565"));
+		assertTrue(FileUtils.readFileToString(new File(testsDir, "case2/test.json"), StandardCharsets.UTF_8)
+				.contains("5B1E0F1B5DC111E8A5A80050569C3565"));
+		assertTrue(new File(testsDir, "case2/cycles.json").isFile());
+		jenkins.assertLogContains("2 test(s) executed", build);
+		jenkins.assertLogNotContains("could not be downloaded", build);
+	}
+
 	@Test
 	public void testScriptedPipeline() throws Exception {
 		vs.useTransaction("startTestMarFileTest");
@@ -148,6 +148,26 @@ public class DevTestDeployVsTest extends AbstractDevTestBuildStepTest {
 				"\"message\": \"Can't open file:///C:/doesntExist.mar please check again.\"", build);
 	}
 
+	@Test
+	public void testDeployMultipleFilesConcurrently() throws Exception {
+		vs.useTransaction("uploadVs");
+		vs.useTransaction("deployVsFileFileNotFound");
+
+		FreeStyleProject project = jenkins.createFreeStyleProject("test2");
+		project.setScm(
+				new SingleFileSCM("webservices-vs.mar", getClass().getResource("/webservices-vs.mar")));
+		DevTestDeployVs builder = createPlugin("webservices-vs.mar\n file:///C:/doesntExist.mar");
+		builder.setMaxConcurrency(2);
+		project.getBuildersList().add(builder);
+
+		FreeStyleBuild build = jenkins.assertBuildStatus(Result.FAILURE, project.scheduleBuild2(0));
+		jenkins.assertLogContains("\"name\": \"webservices-vs\"", build);
+		jenkins.assertLogContains(
+				"\"message\": \"Can't open file:///C:/doesntExist.mar please check again.\"", build);
+		jenkins.assertLogContains("webservices-vs.mar: OK (HTTP status 201", build);
+		jenkins.assertLogContains("1 of 2 MAR files failed to deploy: file:///C:/doesntExist.mar", build);
+	}
+
 	@Test
 	public void testBuildWithFileOnJenkins() throws Exception {
 		vs.useTransaction("uploadVs");
@@ -162,6 +182,37 @@ public class DevTestDeployVsTest extends AbstractDevTestBuildStepTest {
 		jenkins.assertLogContains("\"name\": \"webservices-vs\"", build);
 	}
 
+	@Test
+	public void testRedeploySameFileUsesCache() throws Exception {
+		vs.useTransaction("uploadVs");
+		vs.useTransaction("getVs");
+		FreeStyleProject project = jenkins.createFreeStyleProject("test2");
+		project.setScm(
+				new SingleFileSCM("webservices-vs.mar", getClass().getResource("/webservices-vs.mar")));
+		DevTestDeployVs builder = createPlugin("webservices-vs.mar");
+		project.getBuildersList().add(builder);
+
+		// without opt-in every build uploads MAR file
+		FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+		build = jenkins.buildAndAssertSuccess(project);
+		jenkins.assertLogNotContains("deploy cache hit", build);
+		jenkins.assertLogContains("\"modelName\": \"webservices-vs\"", build);
+
+		builder.setSkipUnchanged(true);
+		build = jenkins.buildAndAssertSuccess(project);
+		jenkins.assertLogContains("\"name\": \"webservices-vs\"", build);
+		jenkins.assertLogNotContains("deploy cache hit", build);
+
+		build = jenkins.buildAndAssertSuccess(project);
+		jenkins.assertLogContains("deployed as virtual service webservices-vs on VSE VSE, upload skipped (deploy cache hit", build);
+		jenkins.assertLogNotContains("\"modelName\": \"webservices-vs\"", build);
+
+		builder.setSkipUnchanged(false);
+		build = jenkins.buildAndAssertSuccess(project);
+		jenkins.assertLogNotContains("deploy cache hit", build);
+		jenkins.assertLogContains("\"modelName\": \"webservices-vs\"", build);
+	}
+
 	@Test
 	public void testBuildWithFileOnJenkinsSearchWithWildcard() throws Exception {
 		vs.useTransaction("uploadVs");
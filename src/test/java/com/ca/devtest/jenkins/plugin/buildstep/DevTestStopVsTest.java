@@ -34,6 +34,7 @@ import hudson.model.Label;
 import hudson.model.Result;
 import hudson.slaves.EnvironmentVariablesNodeProperty;
 import hudson.slaves.EnvironmentVariablesNodeProperty.Entry;
+import java.net.ServerSocket;
 import java.util.Collections;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
@@ -133,6 +134,30 @@ public class DevTestStopVsTest extends AbstractDevTestBuildStepTest {
 		jenkins.assertLogContains("\"name\": \"webservices-vs2\"", build);
 	}
 
+	@Test
+	public void testConfigRoundtripWithMaxConcurrency() throws Exception {
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		DevTestStopVs builder = createPlugin("VSE", "webservices-vs\n webservices-vs2");
+		builder.setMaxConcurrency(4);
+		project.getBuildersList().add(builder);
+		project = jenkins.configRoundtrip(project);
+		jenkins.assertEqualDataBoundBeans(builder, project.getBuildersList().get(0));
+	}
+
+	@Test
+	public void testMultipleVsStopConcurrently() throws Exception {
+		vs.useTransaction("stopVs");
+
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		DevTestStopVs builder = createPlugin("VSE", "webservices-vs\n webservices-vs2");
+		builder.setMaxConcurrency(2);
+		project.getBuildersList().add(builder);
+
+		FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+		jenkins.assertLogContains("\"modelName\": \"webservices-vs\"", build);
+		jenkins.assertLogContains("\"modelName\": \"webservices-vs2\"", build);
+	}
+
 	@Test
 	public void testStopVs() throws Exception {
 		vs.useTransaction("stopVs");
@@ -242,6 +267,34 @@ public class DevTestStopVsTest extends AbstractDevTestBuildStepTest {
 		jenkins.assertLogContains("\"name\": \"webservices-vs\"", completedBuild);
 	}
 
+	@Test
+	public void testConfigRoundtripWithTimeouts() throws Exception {
+		FreeStyleProject project = jenkins.createFreeStyleProject();
+		DevTestStopVs plugin = createPlugin("VSE", "webservices-vs");
+		plugin.setConnectTimeout(5);
+		plugin.setReadTimeout(10);
+		plugin.setConnectionRequestTimeout(15);
+		plugin.setStepTimeout(60);
+		project.getBuildersList().add(plugin);
+		project = jenkins.configRoundtrip(project);
+		jenkins.assertEqualDataBoundBeans(plugin, project.getBuildersList().get(0));
+	}
+
+	@Test
+	public void testReadTimeoutFailsBuild() throws Exception {
+		// accepts connections but never responds
+		try (ServerSocket server = new ServerSocket(0)) {
+			FreeStyleProject project = jenkins.createFreeStyleProject();
+			DevTestStopVs plugin = createPlugin(true, "localhost", String.valueOf(server.getLocalPort()),
+					"VSE", "webservices-vs", "id");
+			plugin.setReadTimeout(1);
+			project.getBuildersList().add(plugin);
+
+			FreeStyleBuild build = jenkins.assertBuildStatus(Result.FAILURE, project.scheduleBuild2(0));
+			jenkins.assertLogContains("Read timeout", build);
+		}
+	}
+
 	private DevTestStopVs createPlugin() {
 		return createPlugin(true, getHost(), "1505", "VSE", "webservices-vs",
 				"id");
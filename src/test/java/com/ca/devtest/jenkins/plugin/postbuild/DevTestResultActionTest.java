@@ -26,18 +26,30 @@
 package com.ca.devtest.jenkins.plugin.postbuild;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.ca.devtest.jenkins.plugin.Messages;
 import com.ca.devtest.jenkins.plugin.postbuild.parser.Parser;
 import com.ca.devtest.jenkins.plugin.postbuild.parser.TestInvokeApiResultParser;
+import com.ca.devtest.jenkins.plugin.postbuild.report.HistoryIndex;
 import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
 import com.ca.devtest.jenkins.plugin.postbuild.report.TestCase;
+import com.ca.devtest.jenkins.plugin.postbuild.report.TestCycle;
+import com.ca.devtest.jenkins.plugin.postbuild.report.TestSuite;
 import hudson.model.Build;
 import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.apache.commons.io.FileUtils;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
@@ -75,4 +87,162 @@ public class DevTestResultActionTest {
 												 .filter(run -> run.equals(build)).findAny().isPresent());
 	}
 
+	@Test
+	public void actionLoadsReportFromFile() throws Exception {
+		FreeStyleProject project = jenkinsRule.createFreeStyleProject("test");
+		FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(project);
+		build.addAction(new DevTestResultAction(build, report));
+		build.save();
+
+		assertTrue(new File(build.getRootDir(), DevTestResultAction.REPORT_FILE).exists());
+		String buildXml = FileUtils.readFileToString(new File(build.getRootDir(), "build.xml"),
+				StandardCharsets.UTF_8);
+		assertFalse(buildXml.contains("EAC6BDD9E5AF11E7BADA020027E349EE"));
+
+		build.reload();
+		DevTestResultAction action = build.getAction(DevTestResultAction.class);
+		assertEquals(1, action.getFailCount());
+		assertEquals(11, action.getTotalCount());
+
+		Report fromAction = action.getReport();
+		assertEquals("EAC6BDD9E5AF11E7BADA020027E349EE", fromAction.getFailedTests().get(0).getTestCaseId());
+		assertEquals(build, fromAction.getFailedTests().get(0).getRun());
+	}
+
+	@Test
+	public void actionConvertsLegacyReport() throws Exception {
+		FreeStyleProject project = jenkinsRule.createFreeStyleProject("test");
+		FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(project);
+		DevTestResultAction legacy = new DevTestResultAction(build, report);
+		Field reportField = DevTestResultAction.class.getDeclaredField("report");
+		reportField.setAccessible(true);
+		reportField.set(legacy, report);
+		build.addAction(legacy);
+		build.save();
+
+		File reportFile = new File(build.getRootDir(), DevTestResultAction.REPORT_FILE);
+		File buildFile = new File(build.getRootDir(), "build.xml");
+		assertTrue(reportFile.delete());
+		assertTrue(FileUtils.readFileToString(buildFile, StandardCharsets.UTF_8)
+				.contains("EAC6BDD9E5AF11E7BADA020027E349EE"));
+
+		build.reload();
+		assertTrue(reportFile.exists());
+		assertFalse(FileUtils.readFileToString(buildFile, StandardCharsets.UTF_8)
+				.contains("EAC6BDD9E5AF11E7BADA020027E349EE"));
+		DevTestResultAction action = build.getAction(DevTestResultAction.class);
+		assertEquals(1, action.getFailCount());
+		assertEquals("EAC6BDD9E5AF11E7BADA020027E349EE",
+				action.getReport().getFailedTests().get(0).getTestCaseId());
+	}
+
+	@Test
+	public void actionRetriesFailedLoad() throws Exception {
+		FreeStyleProject project = jenkinsRule.createFreeStyleProject("test");
+		FreeStyleBuild build = jenkinsRule.buildAndAssertSuccess(project);
+		build.addAction(new DevTestResultAction(build, report));
+		build.save();
+
+		File reportFile = new File(build.getRootDir(), DevTestResultAction.REPORT_FILE);
+		byte[] snapshot = FileUtils.readFileToByteArray(reportFile);
+		FileUtils.writeByteArrayToFile(reportFile, new byte[] {1, 2, 3});
+		build.reload();
+		DevTestResultAction action = build.getAction(DevTestResultAction.class);
+		assertTrue(action.getReport().getFailedTests().isEmpty());
+		assertEquals(1, action.getFailCount());
+
+		FileUtils.writeByteArrayToFile(reportFile, snapshot);
+		assertEquals("EAC6BDD9E5AF11E7BADA020027E349EE",
+				action.getReport().getFailedTests().get(0).getTestCaseId());
+	}
+
+	@Test
+	public void reportChildLookupTest() {
+		TestCase testCase = report.getFailedTests().get(0);
+		TestCycle cycle = testCase.getCycles().get(0);
+		assertSame(testCase, report.getDynamic(testCase.getTestCaseId(), null, null));
+		assertSame(cycle, testCase.getDynamic(cycle.getTestCycleId(), null, null));
+		assertNull(report.getDynamic("unknown", null, null));
+
+		assertSame(testCase, report.findCorrespondingResult(report.getSafeName() + "/" + testCase.getSafeName()));
+		assertNull(report.findCorrespondingResult(report.getSafeName() + "/unknown"));
+	}
+
+	@Test
+	public void historyIndexServesAgeAndPreviousResult() throws Exception {
+		FreeStyleProject project = jenkinsRule.createFreeStyleProject("test");
+		FreeStyleBuild first = jenkinsRule.buildAndAssertSuccess(project);
+		first.addAction(new DevTestResultAction(first, report));
+		first.save();
+
+		FreeStyleBuild second = jenkinsRule.buildAndAssertSuccess(project);
+		second.addAction(new DevTestResultAction(second, report));
+		second.save();
+		HistoryIndex index = HistoryIndex.of(project);
+		index.record(second, report);
+		first.reload();
+
+		// builds are walked until the index is built in background
+		Report secondReport = second.getAction(DevTestResultAction.class).getReport();
+		assertEquals(2, secondReport.getAge());
+		assertEquals(first, secondReport.getPreviousResult().getRun());
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!index.isAvailable()) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(50);
+		}
+		assertTrue(new File(project.getRootDir(), HistoryIndex.INDEX_FILE).exists());
+
+		TestCase testCase = secondReport.getFailedTests().get(0);
+		assertEquals(2, secondReport.getAge());
+		assertEquals(2, testCase.getAge());
+		assertEquals(first, secondReport.getPreviousResult().getRun());
+
+		TestCase previous = (TestCase) testCase.getPreviousResult();
+		assertEquals(first, previous.getRun());
+		assertEquals(testCase.getTestCaseId(), previous.getTestCaseId());
+		assertEquals(1, previous.getAge());
+		assertNull(previous.getPreviousResult());
+
+		assertEquals(2, HistoryIndex.of(project).getLastEntry(testCase.getHistoryKey()).getBuildNumber());
+
+		TestSuite suite = secondReport.getSuites().get(0);
+		assertEquals(2, index.getEntry(suite.getHistoryKey(), 2).getAge());
+		assertEquals(2, suite.getAge());
+		TestSuite previousSuite = suite.getPreviousResult();
+		assertEquals(first, previousSuite.getRun());
+		assertEquals(suite.getName(), previousSuite.getName());
+		assertEquals(1, previousSuite.getAge());
+
+		// cycles are not recorded, they are looked up in earlier builds
+		TestCycle cycle = testCase.getCycles().get(0);
+		assertNull(index.getEntry(cycle.getSafeName(), 2));
+		assertEquals(2, cycle.getAge());
+		TestCycle previousCycle = (TestCycle) cycle.getPreviousResult();
+		assertEquals(first, previousCycle.getRun());
+		assertEquals(cycle.getTestCycleId(), previousCycle.getTestCycleId());
+
+		// deleted build is dropped from the index
+		first.delete();
+		assertNull(index.getEntry(testCase.getHistoryKey(), 1));
+		assertEquals(1, testCase.getAge());
+		assertNull(testCase.getPreviousResult());
+		assertEquals(1, suite.getAge());
+		assertNull(suite.getPreviousResult());
+	}
+
+	@Test
+	public void historyIndexKeepsSuiteCasesApart() throws Exception {
+		TestCase standAlone = new TestCase.TestCaseBuilder().withId("1").withName("case").build();
+		TestCase inSuite = new TestCase.TestCaseBuilder().withId("2").withName("case").withSuiteName("suite").build();
+		TestSuite suite = new TestSuite.TestSuiteBuilder().withName("suite")
+				.withTestCases(Collections.singletonList(inSuite)).build();
+		Report suiteReport = new Report(Collections.singletonList(suite), Collections.singletonList(standAlone));
+
+		assertEquals(suiteReport.getHistoryKey() + "/suite/case", inSuite.getHistoryKey());
+		assertEquals(suiteReport.getHistoryKey() + "/case", standAlone.getHistoryKey());
+		assertSame(inSuite, suiteReport.findTestCase(inSuite.getSuiteName(), inSuite.getSafeName()));
+		assertSame(standAlone, suiteReport.findTestCase(standAlone.getSuiteName(), standAlone.getSafeName()));
+	}
+
 }
@@ -26,8 +26,13 @@
 package com.ca.devtest.jenkins.plugin.postbuild.parser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import com.ca.devtest.jenkins.plugin.Messages;
 import com.ca.devtest.jenkins.plugin.postbuild.report.Report;
 import com.ca.devtest.jenkins.plugin.postbuild.report.TestCase;
 import com.ca.devtest.jenkins.plugin.postbuild.report.TestCycle;
@@ -35,20 +40,30 @@ import com.ca.devtest.jenkins.plugin.postbuild.report.TestState;
 import com.ca.devtest.jenkins.plugin.postbuild.report.TestSuite;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test Invoke API parser test.
@@ -61,6 +76,9 @@ public class TestInvokeApiResultParserTest {
 	private TestInvokeApiResultParser parser = new TestInvokeApiResultParser(
 			new PrintStream(new ByteArrayOutputStream()));
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	/**
 	 * Cycles parser tests
 	 */
@@ -86,6 +104,29 @@ public class TestInvokeApiResultParserTest {
 		assertEquals(cycle.getState(), TestState.FAILED);
 	}
 
+	@Test
+	public void testParseCyclesStreaming() throws IOException {
+		String jsonString = readFile(
+				"src/test/resources/report/buildstep/suites/suite/tests/case/cycles.json");
+		List<TestCycle> expected = parser.parseCycles(jparser.parse(jsonString));
+
+		List<TestCycle> cycleList = parser.readCycles(new JsonReader(new StringReader(jsonString)), null);
+		assertEquals(expected.size(), cycleList.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getTestCycleId(), cycleList.get(i).getTestCycleId());
+			assertEquals(expected.get(i).getState(), cycleList.get(i).getState());
+			assertEquals(expected.get(i).getElapsedTimeInMillSec(), cycleList.get(i).getElapsedTimeInMillSec());
+		}
+		assertEquals(expected.size(), parser.parseCyclesForTest(
+				"src/test/resources/report/buildstep/suites/suite/tests/case/cycles.json").size());
+	}
+
+	@Test
+	public void testParseCyclesStreamingEmptyReport() throws IOException {
+		assertEquals(0, parser.readCycles(new JsonReader(new StringReader("")), null).size());
+		assertEquals(0, parser.readCycles(new JsonReader(new StringReader("{\"_embedded\": {}}")), null).size());
+	}
+
 	@Test
 	public void testParseCyclesEmptyReport() {
 		JsonElement jsonTree = jparser.parse("{}");
@@ -238,6 +279,14 @@ public class TestInvokeApiResultParserTest {
 		assertEquals(ids.get(1), "60447D97E5B211E7BADA020027E349EE");
 	}
 
+	@Test
+	public void testGetCasesIdsFromSuiteReport() {
+		List<String> ids = parser.getCasesIdsFromSuiteReport("src/test/resources/report/suitecases.json");
+		assertEquals(ids.size(), 2);
+		assertEquals(ids.get(0), "4414E9C0E5B211E7BADA020027E349EE");
+		assertEquals(ids.get(1), "60447D97E5B211E7BADA020027E349EE");
+	}
+
 	@Test
 	public void testGetCasesIdsFromInvalidSuiteJson() {
 		List<String> cycleList = parser.getCasesIdsFromSuite("{,,,//}");
@@ -250,6 +299,116 @@ public class TestInvokeApiResultParserTest {
 		assertEquals(suites.size(), 0);
 	}
 
+	@Test
+	public void testParseSuiteInParallelKeepsOrder() throws IOException {
+		File testsDir = new File(folder.getRoot(), "step/suites/suite/tests");
+		Files.createDirectories(testsDir.toPath());
+		Files.copy(Paths.get("src/test/resources/report/buildstep/suites/suite/suite.json"),
+				new File(testsDir.getParentFile(), "suite.json").toPath());
+		for (int i = 1; i <= 12; i++) {
+			File caseDir = new File(testsDir, "case" + i);
+			Files.createDirectories(caseDir.toPath());
+			Files.write(new File(caseDir, "test.json").toPath(), ("{\"testRunUniqueId\": \"ID" + i
+					+ "\", \"testcaseName\": \"case" + i + "\", \"endedState\": \"PASSED\"}")
+					.getBytes(StandardCharsets.UTF_8));
+			Files.copy(Paths.get("src/test/resources/report/buildstep/suites/suite/tests/case/cycles.json"),
+					new File(caseDir, "cycles.json").toPath());
+		}
+
+		parser.setParallelism(4);
+		Report report = parser.parse(folder.getRoot().getPath());
+
+		assertEquals(1, report.getSuites().size());
+		List<TestCase> testCases = report.getSuites().get(0).getTestCases();
+		assertEquals(12, testCases.size());
+		for (int i = 0; i < testCases.size(); i++) {
+			assertEquals("ID" + (i + 1), testCases.get(i).getTestCaseId());
+			assertEquals(10, testCases.get(i).getCycles().size());
+		}
+	}
+
+	@Test
+	public void testParseInterrupted() {
+		parser.setParallelism(4);
+		parser.setStepCache(new StepReportCache(8));
+		Thread.currentThread().interrupt();
+		try {
+			parser.parseReport("src/test/resources/report");
+			fail("Interrupted parse should not return a report");
+		} catch (InterruptedException e) {
+			assertFalse(Thread.currentThread().isInterrupted());
+		}
+
+		Thread.currentThread().interrupt();
+		try {
+			parser.parse("src/test/resources/report");
+			fail("Interrupted parse should not return a report");
+		} catch (CancellationException e) {
+			// interrupt flag is kept for the caller
+			assertTrue(Thread.interrupted());
+		}
+	}
+
+	@Test
+	public void testParseReusesUnchangedSteps() throws IOException, InterruptedException {
+		for (String step : new String[] {"step1", "step2"}) {
+			File caseDir = new File(folder.getRoot(), step + "/tests/case");
+			Files.createDirectories(caseDir.toPath());
+			for (String file : new String[] {"test.json", "cycles.json"}) {
+				Files.copy(Paths.get("src/test/resources/report/buildstep/tests/case/" + file),
+						new File(caseDir, file).toPath());
+			}
+		}
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		TestInvokeApiResultParser cachingParser = new TestInvokeApiResultParser(
+				new PrintStream(log, true, StandardCharsets.UTF_8.name()));
+		cachingParser.setStepCache(new StepReportCache(8));
+		String step1 = new File(folder.getRoot(), "step1").getPath();
+		String step2 = new File(folder.getRoot(), "step2").getPath();
+
+		Report first = cachingParser.parse(folder.getRoot().getPath());
+		assertEquals(2, first.getStandAloneCases().size());
+		log.reset();
+		TestCase cached = cachingParser.parseStep(step2).getStandAloneCases().get(0);
+		assertFalse(log.toString(StandardCharsets.UTF_8.name()).contains(Messages.DevTestParser_StartCases()));
+		// every lookup gets its own copy, so setting build into one report does not change the others
+		assertNotSame(first.getStandAloneCases().get(1), cached);
+		assertEquals(first.getStandAloneCases().get(1).getTestCaseId(), cached.getTestCaseId());
+		assertEquals(first.getStandAloneCases().get(1).getCycles().size(), cached.getCycles().size());
+
+		Files.write(new File(folder.getRoot(), "step2/tests/case/test.json").toPath(),
+				"{\"testRunUniqueId\": \"CHANGED\", \"endedState\": \"PASSED\"}".getBytes(StandardCharsets.UTF_8));
+		log.reset();
+		Report second = cachingParser.parse(folder.getRoot().getPath());
+		String secondLog = log.toString(StandardCharsets.UTF_8.name());
+		assertTrue(secondLog.contains(Messages.DevTestParser_StepCached(step1)));
+		assertFalse(secondLog.contains(Messages.DevTestParser_StepCached(step2)));
+		assertEquals(first.getStandAloneCases().get(0).getTestCaseId(), second.getStandAloneCases().get(0).getTestCaseId());
+		assertEquals("CHANGED", second.getStandAloneCases().get(1).getTestCaseId());
+	}
+
+	@Test
+	public void testFingerprintDetectsSwappedSizes() throws IOException {
+		Path first = writeCaseFile("first", 1);
+		Path second = writeCaseFile("second", 2);
+		long fingerprint = StepReportCache.fingerprint(folder.getRoot().getPath());
+
+		// sizes moved between files keep their sum, which must still change the fingerprint
+		FileTime time = Files.getLastModifiedTime(first);
+		Files.write(first, new byte[2]);
+		Files.write(second, new byte[1]);
+		Files.setLastModifiedTime(first, time);
+		Files.setLastModifiedTime(second, time);
+		Assert.assertNotEquals(fingerprint, StepReportCache.fingerprint(folder.getRoot().getPath()));
+	}
+
+	private Path writeCaseFile(String caseName, int size) throws IOException {
+		Path caseDir = Files.createDirectories(folder.getRoot().toPath().resolve("tests").resolve(caseName));
+		Path file = Files.write(caseDir.resolve("test.json"), new byte[size]);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(1000000000000L));
+		return file;
+	}
+
 	@Test
 	public void testParseWholeSuite() throws ParseException {
 		Report report = parser.parse("src/test/resources/report");
@@ -311,6 +470,71 @@ public class TestInvokeApiResultParserTest {
 		assertEquals(suite.getWarningCount(), 0);
 	}
 
+	@Test
+	public void testReadCompressedReport() throws IOException {
+		String content = readFile("src/test/resources/report/buildstep/suites/suite/tests/case/cycles.json");
+		File compressed = new File(folder.getRoot(), "cycles.json" + TestInvokeApiResultParser.COMPRESSED_SUFFIX);
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed.toPath()))) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+
+		String report = parser.readReport(new File(folder.getRoot(), "cycles.json").getPath());
+		assertEquals(content, report);
+		assertEquals(10, parser.parseCycles(jparser.parse(report)).size());
+	}
+
+	@Test
+	public void testParseCyclesReadsRawReportLazily() {
+		String path = "src/test/resources/report/buildstep/suites/suite/tests/case/cycles.json";
+		JsonElement cycles = jparser.parse(readFile(path)).getAsJsonObject()
+				.getAsJsonObject("_embedded").getAsJsonArray("CycleHistory");
+
+		List<TestCycle> cycleList = parser.parseCyclesForTest(path);
+		assertEquals(cycles.getAsJsonArray().size(), cycleList.size());
+		for (int i = 0; i < cycleList.size(); i++) {
+			assertEquals(cycles.getAsJsonArray().get(i), jparser.parse(cycleList.get(i).getRawCycleReport()));
+		}
+	}
+
+	@Test
+	public void testParseCaseAppliesLimits() throws IOException {
+		File caseDir = folder.newFolder("case");
+		Files.copy(Paths.get("src/test/resources/report/buildstep/tests/case/test.json"),
+				new File(caseDir, "test.json").toPath());
+		StringBuilder cycles = new StringBuilder("{\"_embedded\": {\"CycleHistory\": [");
+		for (int i = 0; i < 5; i++) {
+			cycles.append(i == 0 ? "" : ",").append("{\"cycleUniqueId\": \"C").append(i)
+					.append("\", \"cycle\": \"").append(i).append("\", \"endedState\": \"PASSED\", ")
+					.append("\"response\": \"").append(String.join("", Collections.nCopies(100, "x")))
+					.append("\", \"_embedded\": {\"messages\": [\"a\", \"b\", \"c\"]}}");
+		}
+		cycles.append("]}}");
+		Files.write(new File(caseDir, "cycles.json").toPath(), cycles.toString().getBytes(StandardCharsets.UTF_8));
+
+		long fingerprint = StepReportCache.fingerprint(folder.getRoot().getPath());
+		parser.setLimits(new ReportLimits(2, 1, 50));
+		TestCase testCase = parser.parseCaseForTest(caseDir.getPath());
+
+		assertEquals(2, testCase.getCycles().size());
+		assertEquals(3, testCase.getTruncatedCycles());
+		assertTrue(testCase.isTruncated());
+		TestCycle cycle = testCase.getCycles().get(0);
+		assertEquals(Collections.singletonList("a"), cycle.getMessages());
+		assertEquals(2, cycle.getTruncatedMessages());
+		File spill = new File(caseDir, "cycles.overflow.jsonl");
+		assertEquals(spill.toPath().toAbsolutePath().normalize().toString(), testCase.getOverflowReportPath());
+		// two lists of messages and three cycles
+		assertEquals(5, Files.readAllLines(spill.toPath()).size());
+
+		String rawReport = cycle.getRawCycleReport();
+		String truncated = rawReport.substring(0, rawReport.lastIndexOf('\n'));
+		assertEquals(50, truncated.length());
+		assertTrue(rawReport.startsWith("{\n  \"cycleUniqueId\": \"C0\""));
+
+		// spill file does not change the step, so the parsed step is still reused
+		assertEquals(fingerprint, StepReportCache.fingerprint(folder.getRoot().getPath()));
+	}
+
 	private String readFile(String filePath) {
 		StringBuilder contentBuilder = new StringBuilder();
 		try (Stream<String> stream = Files.lines(Paths.get(filePath), StandardCharsets.UTF_8)) {
@@ -0,0 +1,175 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.ca.devtest.jenkins.plugin.postbuild.parser.TestInvokeApiResultParser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReportSnapshotTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTripParsedReport() throws IOException {
+		Report report = new TestInvokeApiResultParser(new PrintStream(new ByteArrayOutputStream()))
+				.parse("src/test/resources/report");
+		File file = folder.newFile("report.snapshot");
+		ReportSnapshot.write(report, file);
+
+		Report read = ReportSnapshot.read(file);
+		assertEquals(report.getFailCount(), read.getFailCount());
+		assertEquals(report.getTotalCount(), read.getTotalCount());
+		assertEquals(report.getSuites().size(), read.getSuites().size());
+		for (int i = 0; i < report.getSuites().size(); i++) {
+			assertSuite(report.getSuites().get(i), read.getSuites().get(i));
+		}
+		assertCases(report.getStandAloneCases(), read.getStandAloneCases());
+		assertCases(report.getFailedTests(), read.getFailedTests());
+	}
+
+	@Test
+	public void testRoundTripEmptyValues() throws IOException {
+		TestCycle cycle = new TestCycle.TestCycleBuilder().withRawCycleReport("{}").withTruncatedMessages(3).build();
+		List<TestCycle> cycles = Collections.singletonList(cycle);
+		TestCase first = new TestCase.TestCaseBuilder().withId("first").withCycles(cycles)
+				.withTruncation(2, "report/step/cycles.overflow.jsonl").build();
+		TestCase second = new TestCase.TestCaseBuilder().withId("second").withCycles(cycles).build();
+		Report report = new Report(Collections.emptyList(), Arrays.asList(first, second));
+
+		Report read = roundTrip(report);
+		assertCases(report.getStandAloneCases(), read.getStandAloneCases());
+		TestCycle readCycle = read.getStandAloneCases().get(0).getCycles().get(0);
+		assertNull(readCycle.getTestCycleId());
+		assertNull(readCycle.getStart());
+		assertEquals("{}", readCycle.getRawCycleReport());
+		assertSame(read.getStandAloneCases().get(0).getCycles(), read.getStandAloneCases().get(1).getCycles());
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadInvalidSnapshot() throws IOException {
+		ReportSnapshot.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadUnsupportedVersion() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReportSnapshot.write(new Report(null, null), out);
+		byte[] bytes = out.toByteArray();
+		bytes[4] = (byte) 0xFF;
+		ReportSnapshot.read(new ByteArrayInputStream(bytes));
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadNegativeStringLength() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TestCase testCase = new TestCase.TestCaseBuilder().withId("id").build();
+		ReportSnapshot.write(new Report(Collections.emptyList(), Collections.singletonList(testCase)), out);
+		byte[] bytes = out.toByteArray();
+		// length of the first string follows magic, version and string count
+		Arrays.fill(bytes, 10, 14, (byte) 0xFF);
+		ReportSnapshot.read(new ByteArrayInputStream(bytes));
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadOversizedStringTable() throws IOException {
+		File file = folder.newFile("report.snapshot");
+		ReportSnapshot.write(new Report(Collections.emptyList(), Collections.emptyList()), file);
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		bytes[6] = (byte) 0x7F;
+		Files.write(file.toPath(), bytes);
+		ReportSnapshot.read(file);
+	}
+
+	private Report roundTrip(Report report) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReportSnapshot.write(report, out);
+		return ReportSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private void assertSuite(TestSuite expected, TestSuite actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getElapsedTime(), actual.getElapsedTime());
+		assertEquals(expected.getStart(), actual.getStart());
+		assertEquals(expected.getStop(), actual.getStop());
+		assertEquals(expected.getTotalTestsCount(), actual.getTotalTestsCount());
+		assertEquals(expected.getPassCount(), actual.getPassCount());
+		assertEquals(expected.getFailCount(), actual.getFailCount());
+		assertEquals(expected.getWarningCount(), actual.getWarningCount());
+		assertEquals(expected.getAbortCount(), actual.getAbortCount());
+		assertCases(expected.getTestCases(), actual.getTestCases());
+	}
+
+	private void assertCases(List<TestCase> expected, List<TestCase> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			TestCase expectedCase = expected.get(i);
+			TestCase actualCase = actual.get(i);
+			assertEquals(expectedCase.getTestCaseId(), actualCase.getTestCaseId());
+			assertEquals(expectedCase.getName(), actualCase.getName());
+			assertEquals(expectedCase.getState(), actualCase.getState());
+			assertEquals(expectedCase.getStart(), actualCase.getStart());
+			assertEquals(expectedCase.getStop(), actualCase.getStop());
+			assertEquals(expectedCase.getElapsedTimeInMillSec(), actualCase.getElapsedTimeInMillSec());
+			assertEquals(expectedCase.getSuiteName(), actualCase.getSuiteName());
+			assertEquals(expectedCase.getTruncatedCycles(), actualCase.getTruncatedCycles());
+			assertEquals(expectedCase.getOverflowReportPath(), actualCase.getOverflowReportPath());
+			assertEquals(expectedCase.getCycles().size(), actualCase.getCycles().size());
+			for (int j = 0; j < expectedCase.getCycles().size(); j++) {
+				assertCycle(expectedCase.getCycles().get(j), actualCase.getCycles().get(j));
+			}
+		}
+	}
+
+	private void assertCycle(TestCycle expected, TestCycle actual) {
+		assertEquals(expected.getTestCycleId(), actual.getTestCycleId());
+		assertEquals(expected.getCycle(), actual.getCycle());
+		assertEquals(expected.getState(), actual.getState());
+		assertEquals(expected.getStart(), actual.getStart());
+		assertEquals(expected.getStop(), actual.getStop());
+		assertEquals(expected.getElapsedTimeInMillSec(), actual.getElapsedTimeInMillSec());
+		assertEquals(expected.getMessages(), actual.getMessages());
+		assertEquals(expected.getTruncatedMessages(), actual.getTruncatedMessages());
+		assertEquals(expected.getRawCycleReport(), actual.getRawCycleReport());
+	}
+
+}
@@ -0,0 +1,78 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class ReportStatsTest {
+
+	@Test
+	public void testReportStats() {
+		TestCase passed = testCase("passed", "PASSED", "100");
+		TestCase failed = testCase("failed", "FAILED", "300");
+		TestCase aborted = testCase("aborted", "ABORTED", "50");
+		TestCase suiteFailed = testCase("suiteFailed", "FAILED", "20");
+		TestSuite suite = new TestSuite.TestSuiteBuilder()
+				.withTestCases(Arrays.asList(suiteFailed, aborted))
+				.withTotalTestsCount("5")
+				.withWarningCount("2")
+				.build();
+		Report report = new Report(Collections.singletonList(suite), Arrays.asList(passed, failed));
+
+		ReportStats<TestCase> stats = report.getStats();
+		assertEquals(Arrays.asList(failed, suiteFailed, aborted), stats.getFailed());
+		assertEquals(Collections.singletonList(passed), stats.getPassed());
+		assertEquals(Arrays.asList(failed, suiteFailed, aborted, passed), stats.getAll());
+		assertEquals(3, report.getFailCount());
+		assertEquals(1, stats.getAbortCount());
+		assertEquals(2, stats.getWarningCount());
+		assertEquals(7, report.getTotalCount());
+		assertEquals(470, stats.getTotalDuration());
+		assertEquals(300, stats.getMaxDuration());
+	}
+
+	@Test
+	public void testTestCaseStats() {
+		TestCycle passed = new TestCycle.TestCycleBuilder().withState("PASSED").withElapsedTime("10").build();
+		TestCycle failed = new TestCycle.TestCycleBuilder().withState("FAILED").withElapsedTime("30").build();
+		TestCase testCase = new TestCase.TestCaseBuilder().withCycles(Arrays.asList(failed, passed)).build();
+
+		assertEquals(Collections.singletonList(failed), testCase.getFailedCycles());
+		assertEquals(Collections.singletonList(passed), testCase.getSuccesfullCycles());
+		assertEquals(2, testCase.getStats().getTotalCount());
+		assertEquals(40, testCase.getStats().getTotalDuration());
+	}
+
+	private TestCase testCase(String id, String state, String elapsedTime) {
+		return new TestCase.TestCaseBuilder().withId(id).withState(state).withElapsedTime(elapsedTime).build();
+	}
+
+}
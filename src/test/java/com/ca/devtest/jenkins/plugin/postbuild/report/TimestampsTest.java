@@ -0,0 +1,88 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2018 CA.  All rights reserved.
+ *
+ * This software and all information contained therein is confidential and
+ * proprietary and shall not be duplicated, used, disclosed or disseminated
+ * in any way except as authorized by the applicable license agreement,
+ * without the express written permission of CA. All authorized reproductions
+ * must be marked with this language.
+ *
+ * EXCEPT AS SET FORTH IN THE APPLICABLE LICENSE AGREEMENT, TO THE EXTENT
+ * PERMITTED BY APPLICABLE LAW, CA PROVIDES THIS SOFTWARE WITHOUT
+ * WARRANTY OF ANY KIND, INCLUDING WITHOUT LIMITATION, ANY IMPLIED
+ * WARRANTIES OF MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE.  IN
+ * NO EVENT WILL CA BE LIABLE TO THE END USER OR ANY THIRD PARTY FOR ANY
+ * LOSS OR DAMAGE, DIRECT OR INDIRECT, FROM THE USE OF THIS SOFTWARE,
+ * INCLUDING WITHOUT LIMITATION, LOST PROFITS, BUSINESS INTERRUPTION,
+ * GOODWILL, OR LOST DATA, EVEN IF CA IS EXPRESSLY ADVISED OF SUCH LOSS OR
+ * DAMAGE.
+ *
+ * This file is made available under the terms of the Eclipse Public License
+ * v1.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ *
+ ******************************************************************************/
+
+package com.ca.devtest.jenkins.plugin.postbuild.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class TimestampsTest {
+
+	private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss-SSSS";
+
+	@Test
+	public void testParseMatchesSimpleDateFormat() throws ParseException {
+		for (String timestamp : Arrays.asList("2017-12-20T13:19:06-0500", "2018-05-22T10:05:25-0400",
+				"2018-01-01T00:00:00-0000", "2018-01-01T23:59:59-1200")) {
+			assertEquals(new SimpleDateFormat(PATTERN).parse(timestamp).getTime(), Timestamps.parse(timestamp));
+		}
+	}
+
+	@Test
+	public void testParseInvalid() {
+		assertEquals(Timestamps.NONE, Timestamps.parse(null));
+		assertEquals(Timestamps.NONE, Timestamps.parse(""));
+		assertEquals(Timestamps.NONE, Timestamps.parse("2017-12-20T13:19:06"));
+		assertEquals(Timestamps.NONE, Timestamps.parse("2017-12-20T13:19:06-"));
+		assertEquals(Timestamps.NONE, Timestamps.parse("2017-12-20 13:19:06-0500"));
+		assertNull(Timestamps.toDate(Timestamps.NONE));
+	}
+
+	@Test
+	public void testParseFromParallelThreads() throws InterruptedException, ExecutionException, ParseException {
+		String timestamp = "2017-12-20T13:19:06-0500";
+		long expected = new SimpleDateFormat(PATTERN).parse(timestamp).getTime();
+		Callable<Boolean> task = () -> {
+			for (int i = 0; i < 100; i++) {
+				if (new TestCycle.TestCycleBuilder().withStart(timestamp).build().getStartMillis() != expected) {
+					return false;
+				}
+			}
+			return true;
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (Future<Boolean> result : executor.invokeAll(Collections.nCopies(4, task))) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -26,13 +26,17 @@
 package com.ca.devtest.jenkins.plugin.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -138,6 +142,37 @@ public class UtilsTest {
 		assertTrue(paths.get(0).equals("test"));
 	}
 
+	@Test
+	public void testGetFilesMatchingWildcard_StartsInFolderWithoutWildcard() throws IOException {
+		Path nested = Files.createDirectories(baseDir.resolve("sub").resolve("dir"));
+		Files.createFile(nested.resolve("nested.mar"));
+		Files.createFile(baseDir.resolve("sub").resolve("other.mar"));
+
+		List<String> paths = Utils.getFilesMatchingWildcard("sub/dir/*.mar", baseDir.toString());
+		assertEquals(Arrays.asList("sub/dir/nested.mar"), paths);
+
+		paths = Utils.getFilesMatchingWildcard("sub/**/*.mar", baseDir.toString());
+		assertEquals(Arrays.asList("sub/dir/nested.mar", "sub/other.mar"), paths);
+
+		paths = Utils.getFilesMatchingWildcard("/inner*/*.mar", baseDir.toString());
+		assertEquals(1, paths.size());
+		assertTrue(paths.get(0).contains("/fff3"));
+	}
+
+	@Test(expected = AbortException.class)
+	public void testGetFilesMatchingWildcard_MissingFolder() throws IOException {
+		Utils.getFilesMatchingWildcard("missing/**/*.mar", baseDir.toString());
+	}
+
+	@Test
+	public void testWildcardFilesCallable() throws Exception {
+		List<String> paths = new FilePath(baseDir.toFile())
+				.act(new WildcardFilesCallable(Arrays.asList("*.mar", "plain.mar")));
+		assertEquals(2, paths.size());
+		assertTrue(paths.get(0).startsWith("fff1"));
+		assertEquals("plain.mar", paths.get(1));
+	}
+
 	@Test(expected = AbortException.class)
 	public void testGetFilesMatchingWildcard_Null() throws IOException {
 		List<String> paths = Utils
@@ -145,6 +180,30 @@ public class UtilsTest {
 		assertEquals(paths.size(), 0);
 	}
 
+	@Test
+	public void testHasUrlScheme() {
+		assertTrue(Utils.hasUrlScheme("file:///opt/mars/service.mar"));
+		assertTrue(Utils.hasUrlScheme("HTTP://host/service.mar"));
+		assertTrue(Utils.hasUrlScheme(" https://host/service.mar"));
+		assertFalse(Utils.hasUrlScheme("profile.mar"));
+		assertFalse(Utils.hasUrlScheme("http-mocks/service.mar"));
+		assertFalse(Utils.hasUrlScheme(null));
+	}
+
+	@Test
+	public void testParameterResolver_ResolvesAndSplitsLines() {
+		EnvVars envVars = new EnvVars();
+		envVars.put("VSE", "VSE1");
+		envVars.put("MARS", "a.mar\n  b.mar");
+		ParameterResolver resolver = new ParameterResolver(envVars);
+
+		assertEquals("VSE1", resolver.resolve("$VSE"));
+		assertEquals("VSE1-x", resolver.resolve("${VSE}-x"));
+		assertEquals("$UNKNOWN", resolver.resolve("$UNKNOWN"));
+		assertEquals(Arrays.asList("a.mar", "b.mar", "c.mar"),
+				resolver.resolveAll(Arrays.asList("$MARS", "c.mar")));
+	}
+
 	private Path createTempStructure() throws IOException {
 		Path tempDir = Files.createTempDirectory("temp");
 		tempDir.toFile().deleteOnExit();